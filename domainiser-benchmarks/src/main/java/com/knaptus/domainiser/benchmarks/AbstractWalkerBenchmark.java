@@ -0,0 +1,112 @@
+package com.knaptus.domainiser.benchmarks;
+
+import com.knaptus.domainiser.clone.CloningDomainWalker;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CloningDomainWalker} walking single roots, lists, sets and maps of a domain model built in the
+ * graph shape set by parameter. Subclasses provide the domain model.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class AbstractWalkerBenchmark<T> {
+
+    @Param({"WIDE", "DEEP", "HIGHLY_SHARED", "CYCLIC", "COLLECTION_HEAVY"})
+    public GraphShape shape;
+
+    @Param({"10", "100"})
+    public int size;
+
+    private CloningDomainWalker cloningDomainWalker;
+
+    private DomainGraphDefinition<T> domainGraphDefinition;
+
+    private T root;
+
+    private List<T> roots;
+
+    private Set<T> rootSet;
+
+    private Map<String, T> rootMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DomainResolver domainResolver = new ExampleDomainResolver();
+        cloningDomainWalker = new CloningDomainWalker();
+        cloningDomainWalker.setDomainResolver(domainResolver);
+        domainGraphDefinition = createDomainGraphDefinition(domainResolver);
+
+        roots = createRoots(shape, size);
+        root = roots.get(0);
+        rootSet = new LinkedHashSet<T>(roots);
+        rootMap = new LinkedHashMap<String, T>();
+        for (int i = 0; i < roots.size(); i++) {
+            rootMap.put("root" + i, roots.get(i));
+        }
+    }
+
+    /**
+     * Creates the domain graph definition the roots are walked with.
+     *
+     * @param domainResolver
+     * @return
+     */
+    protected abstract DomainGraphDefinition<T> createDomainGraphDefinition(DomainResolver domainResolver);
+
+    /**
+     * Creates size roots of a domain graph in the provided shape.
+     *
+     * @param shape
+     * @param size
+     * @return
+     */
+    protected abstract List<T> createRoots(GraphShape shape, int size);
+
+    @Benchmark
+    public T walk() {
+        return cloningDomainWalker.walk(root, domainGraphDefinition);
+    }
+
+    @Benchmark
+    public List<T> walkList() {
+        return cloningDomainWalker.walkList(roots, domainGraphDefinition);
+    }
+
+    @Benchmark
+    public Set<T> walkSet() {
+        return cloningDomainWalker.walkSet(rootSet, domainGraphDefinition);
+    }
+
+    @Benchmark
+    public Map<String, T> walkMap() {
+        return cloningDomainWalker.walkMap(rootMap, domainGraphDefinition);
+    }
+}
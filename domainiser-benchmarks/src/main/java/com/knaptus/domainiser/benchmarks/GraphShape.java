@@ -0,0 +1,21 @@
+package com.knaptus.domainiser.benchmarks;
+
+/**
+ * Shapes of the domain graphs the walkers are benchmarked with. The size parameter of a benchmark sets the number of
+ * roots and, depending on the shape, the width or depth of every root.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public enum GraphShape {
+    /** every root has size children and size other associations */
+    WIDE,
+    /** every root heads a chain of size children */
+    DEEP,
+    /** all the roots refer to the same associations */
+    HIGHLY_SHARED,
+    /** associations refer back to their roots */
+    CYCLIC,
+    /** every root holds large lists, sets and maps */
+    COLLECTION_HEAVY
+}
@@ -0,0 +1,104 @@
+package com.knaptus.domainiser.benchmarks;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.Person;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks walking the example {@link Person} and {@link Address} domain model.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class PersonWalkerBenchmark extends AbstractWalkerBenchmark<Person> {
+
+    @Override
+    protected DomainGraphDefinition<Person> createDomainGraphDefinition(DomainResolver domainResolver) {
+        DomainDefinition<Address> addressDefinition = DomainDefinition.getInstance(Address.class, domainResolver);
+        DomainGraphDefinitionImpl<Person> personGraphDefinition = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, domainResolver));
+        personGraphDefinition.addChild("spouse", personGraphDefinition);
+        personGraphDefinition.addChild("children", personGraphDefinition);
+        personGraphDefinition.addChild("friends", personGraphDefinition);
+        personGraphDefinition.addChild("addresses", addressDefinition);
+        personGraphDefinition.addChild("home", addressDefinition);
+        personGraphDefinition.addChild("office", addressDefinition);
+        return personGraphDefinition;
+    }
+
+    @Override
+    protected List<Person> createRoots(GraphShape shape, int size) {
+        List<Person> roots = new ArrayList<Person>(size);
+        Person sharedSpouse = person("Shared spouse", 0);
+        List<Person> sharedChildren = new ArrayList<Person>();
+        for (int i = 0; i < size; i++) {
+            sharedChildren.add(person("Shared child", i));
+        }
+
+        for (int r = 0; r < size; r++) {
+            Person root = person("Root", r);
+            root.setHome(address("Home", r));
+            switch (shape) {
+                case WIDE:
+                    for (int i = 0; i < size; i++) {
+                        root.addChild(person("Child", i));
+                        root.addAddress(address("Address", i));
+                    }
+                    break;
+                case DEEP:
+                    Person parent = root;
+                    for (int i = 0; i < size; i++) {
+                        Person child = person("Descendant", i);
+                        parent.addChild(child);
+                        parent = child;
+                    }
+                    break;
+                case HIGHLY_SHARED:
+                    root.setSpouse(sharedSpouse);
+                    for (Person child : sharedChildren) {
+                        root.addChild(child);
+                    }
+                    break;
+                case CYCLIC:
+                    Person spouse = person("Spouse", r);
+                    root.setSpouse(spouse);
+                    spouse.setSpouse(root);
+                    for (int i = 0; i < size; i++) {
+                        Person child = person("Child", i);
+                        child.addFriend("parent", root);
+                        root.addChild(child);
+                        spouse.addChild(child);
+                    }
+                    break;
+                case COLLECTION_HEAVY:
+                    for (int i = 0; i < size * 4; i++) {
+                        root.addChild(person("Child", i));
+                        root.addFriend("friend" + i, person("Friend", i));
+                        root.addAddress(address("Address", i));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown graph shape " + shape);
+            }
+            roots.add(root);
+        }
+        return roots;
+    }
+
+    private static Person person(String name, int index) {
+        return new Person(name + " " + index, index);
+    }
+
+    private static Address address(String line, int index) {
+        Address address = new Address();
+        address.setLine1(line + " " + index);
+        address.setLine2("Street");
+        address.setLine3("City");
+        return address;
+    }
+}
@@ -0,0 +1,88 @@
+package com.knaptus.domainiser.benchmarks;
+
+import com.knaptus.domainiser.benchmarks.model.Leaf;
+import com.knaptus.domainiser.benchmarks.model.Node;
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks walking the synthetic {@link Node} and {@link Leaf} domain model.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class SyntheticWalkerBenchmark extends AbstractWalkerBenchmark<Node> {
+
+    @Override
+    protected DomainGraphDefinition<Node> createDomainGraphDefinition(DomainResolver domainResolver) {
+        DomainGraphDefinitionImpl<Node> nodeGraphDefinition = new DomainGraphDefinitionImpl<Node>(
+                DomainDefinition.getInstance(Node.class, domainResolver));
+        nodeGraphDefinition.addChild("link", nodeGraphDefinition);
+        nodeGraphDefinition.addChild("children", nodeGraphDefinition);
+        nodeGraphDefinition.addChild("index", nodeGraphDefinition);
+        nodeGraphDefinition.addChild("leaves", DomainDefinition.getInstance(Leaf.class, domainResolver));
+        return nodeGraphDefinition;
+    }
+
+    @Override
+    protected List<Node> createRoots(GraphShape shape, int size) {
+        List<Node> roots = new ArrayList<Node>(size);
+        Node sharedLink = new Node(-1, "shared");
+        List<Node> sharedChildren = new ArrayList<Node>();
+        for (int i = 0; i < size; i++) {
+            sharedChildren.add(new Node(i, "shared child"));
+        }
+
+        long id = 0;
+        for (int r = 0; r < size; r++) {
+            Node root = new Node(id++, "root");
+            switch (shape) {
+                case WIDE:
+                    for (int i = 0; i < size; i++) {
+                        root.getChildren().add(new Node(id++, "child"));
+                        root.getLeaves().add(new Leaf("leaf", i));
+                    }
+                    break;
+                case DEEP:
+                    Node parent = root;
+                    for (int i = 0; i < size; i++) {
+                        Node child = new Node(id++, "descendant");
+                        parent.setLink(child);
+                        parent = child;
+                    }
+                    break;
+                case HIGHLY_SHARED:
+                    root.setLink(sharedLink);
+                    root.getChildren().addAll(sharedChildren);
+                    for (Node child : sharedChildren) {
+                        root.getIndex().put(child.getLabel() + child.getId(), child);
+                    }
+                    break;
+                case CYCLIC:
+                    for (int i = 0; i < size; i++) {
+                        Node child = new Node(id++, "child");
+                        child.setLink(root);
+                        root.getChildren().add(child);
+                    }
+                    root.setLink(root);
+                    break;
+                case COLLECTION_HEAVY:
+                    for (int i = 0; i < size * 4; i++) {
+                        Node child = new Node(id++, "child");
+                        root.getChildren().add(child);
+                        root.getIndex().put("child" + i, child);
+                        root.getLeaves().add(new Leaf("leaf", i));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown graph shape " + shape);
+            }
+            roots.add(root);
+        }
+        return roots;
+    }
+}
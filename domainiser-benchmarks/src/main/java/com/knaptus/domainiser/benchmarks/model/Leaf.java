@@ -0,0 +1,36 @@
+package com.knaptus.domainiser.benchmarks.model;
+
+/**
+ * Synthetic domain object with simple properties only.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class Leaf {
+    private String key;
+    private int value;
+
+    public Leaf() {
+    }
+
+    public Leaf(String key, int value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,99 @@
+package com.knaptus.domainiser.benchmarks.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Synthetic domain object with primitive, single and collection properties.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class Node {
+    private long id;
+    private String label;
+    private double weight;
+    private boolean active;
+    private Node link;
+    private List<Node> children = new ArrayList<Node>();
+    private Set<Leaf> leaves = new HashSet<Leaf>();
+    private Map<String, Node> index = new HashMap<String, Node>();
+
+    public Node() {
+    }
+
+    public Node(long id, String label) {
+        this.id = id;
+        this.label = label;
+        this.weight = id / 2.0;
+        this.active = id % 2 == 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Node getLink() {
+        return link;
+    }
+
+    public void setLink(Node link) {
+        this.link = link;
+    }
+
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<Node> children) {
+        this.children = children;
+    }
+
+    public Set<Leaf> getLeaves() {
+        return leaves;
+    }
+
+    public void setLeaves(Set<Leaf> leaves) {
+        this.leaves = leaves;
+    }
+
+    public Map<String, Node> getIndex() {
+        return index;
+    }
+
+    public void setIndex(Map<String, Node> index) {
+        this.index = index;
+    }
+}
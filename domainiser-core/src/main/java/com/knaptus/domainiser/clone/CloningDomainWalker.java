@@ -3,14 +3,26 @@ package com.knaptus.domainiser.clone;
 import com.knaptus.domainiser.core.impl.AbstractDomainWalker;
 import com.knaptus.domainiser.core.DomainDefinition;
 import com.knaptus.domainiser.core.DomainGraphDefinition;
-import com.knaptus.domainiser.core.impl.DomainGraphDefinitionDecorator;
-import net.sf.cglib.beans.BeanMap;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import com.knaptus.domainiser.core.impl.WalkBudget;
+import com.knaptus.domainiser.core.impl.WalkContext;
+import com.knaptus.domainiser.core.impl.WalkListener;
+import com.knaptus.domainiser.core.impl.WalkResult;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
 import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Clones domain model based on the domain graph definition and domain definition provided.
@@ -21,111 +33,734 @@ public class CloningDomainWalker extends AbstractDomainWalker {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CloningDomainWalker.class);
 
+    public static final int DEFAULT_ASSOCIATION_FORK_THRESHOLD = 100;
+
     // domain objects which are not cloned, can be left as original objects or set to null
     private boolean keepReferences = false;
 
-    @SuppressWarnings("unchecked")
+    // associations of a single domain model can be cloned in parallel on the fork join pool
+    private boolean forkAssociations = false;
+
+    private int associationForkThreshold = DEFAULT_ASSOCIATION_FORK_THRESHOLD;
+
+    // walked associations can be cloned on first access instead of during the walk
+    private boolean lazyAssociations = false;
+
+    // mutable values of simple properties are copied, otherwise every simple value is shared
+    private boolean copyMutableValues = false;
+
+    // values of opaque types are shared unless rejected
+    private boolean rejectOpaqueValues = false;
+
+    // key property the elements of merged lists and sets are matched by per domain class
+    private final ConcurrentMap<Class<?>, String> elementKeys = new ConcurrentHashMap<Class<?>, String>();
+
+    // generated copiers are reused for every instance of a domain class
+    private final ConcurrentMap<DomainDefinition<?>, DomainCopier<?>> copiers =
+            new ConcurrentHashMap<DomainDefinition<?>, DomainCopier<?>>();
+
+    private final ConcurrentMap<DomainDefinition<?>, LazyCloneFactory<?>> lazyCloneFactories =
+            new ConcurrentHashMap<DomainDefinition<?>, LazyCloneFactory<?>>();
+
     @Override
-    public <T> T walk(T domainModel, DomainGraphDefinition<T> underlyingDomainGraphDefinition) {
-        DomainGraphDefinition<T> domainGraphDefinition = wrapInDecorator(underlyingDomainGraphDefinition);
+    public <T> T walk(T domainModel, DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        return walk(domainModel, DomainGraphPlan.compile(domainGraphDefinition));
+    }
 
-        LOGGER.debug("Domain cloning started for [{}];", domainGraphDefinition.getName());
-        LOGGER.trace("Domain cloning started for [{}]; domain graph def was for class [{}]", domainModel, domainGraphDefinition.getDomainClass());
+    /**
+     * Clones the domain model with a precompiled domain graph plan. Plans can be compiled once and reused for any
+     * number of walks.
+     *
+     * @param domainModel
+     * @param domainGraphPlan
+     * @param <T>
+     * @return
+     */
+    public <T> T walk(T domainModel, DomainGraphPlan<T> domainGraphPlan) {
+        Validate.notNull(domainModel, "Domain model to be cloned cannot be null");
+        Validate.notNull(domainGraphPlan, "Domain graph plan cannot be null");
+
+        WalkContext walkContext = createWalkContext();
+        T clonedModel = walkRoot(domainModel, domainGraphPlan, walkContext);
+        warnIfTruncated(domainGraphPlan, walkContext);
+        return clonedModel;
+    }
 
+    /**
+     * Clones the domain model within the provided budget, instead of the budget of the walker. If the budget is
+     * truncating the result tells whether domain models were left out.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param walkBudget
+     * @param <T>
+     * @return
+     * @throws com.knaptus.domainiser.core.impl.WalkBudgetExceededException if a budget which is not truncating is
+     * exceeded
+     */
+    public <T> WalkResult<T> walk(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, WalkBudget walkBudget) {
         Validate.notNull(domainModel, "Domain model to be cloned cannot be null");
         Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
-        Validate.isTrue(domainGraphDefinition.getDomainClass().equals(domainModel.getClass()), "Domain model and graph definition passed do not match");
+        Validate.notNull(walkBudget, "Walk budget cannot be null");
+
+        WalkContext walkContext = createWalkContext();
+        walkContext.setWalkBudget(walkBudget);
+        T clonedModel = walkRoot(domainModel, DomainGraphPlan.compile(domainGraphDefinition), walkContext);
+        return new WalkResult<T>(clonedModel, walkContext.getTruncation(), walkContext.getNodeCount());
+    }
+
+    /**
+     * Clones the collection of domain models into the provided collection within the provided budget, instead of the
+     * budget of the walker. Domain models left out by a truncating budget are left out of the collection.
+     *
+     * @param domainModels
+     * @param returnCollection
+     * @param domainGraphDefinition
+     * @param walkBudget
+     * @param <T>
+     * @param <Z>
+     * @return
+     * @throws com.knaptus.domainiser.core.impl.WalkBudgetExceededException if a budget which is not truncating is
+     * exceeded
+     */
+    public <T, Z extends Collection<T>> WalkResult<Z> walk(Collection<T> domainModels, Z returnCollection,
+                                                           DomainGraphDefinition<T> domainGraphDefinition,
+                                                           WalkBudget walkBudget) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        Validate.notNull(walkBudget, "Walk budget cannot be null");
+
+        WalkContext walkContext = newWalkContext(false);
+        walkContext.setWalkBudget(walkBudget);
+        Z clonedModels = walk(domainModels, returnCollection, DomainGraphPlan.compile(domainGraphDefinition), walkContext);
+        return new WalkResult<Z>(clonedModels, walkContext.getTruncation(), walkContext.getNodeCount());
+    }
+
+    /**
+     * Clones the map of domain models into the provided map within the provided budget, instead of the budget of the
+     * walker. Domain models left out by a truncating budget are left out of the map.
+     *
+     * @param domainModels
+     * @param returnMap
+     * @param domainGraphDefinition
+     * @param walkBudget
+     * @param <K>
+     * @param <V>
+     * @return
+     * @throws com.knaptus.domainiser.core.impl.WalkBudgetExceededException if a budget which is not truncating is
+     * exceeded
+     */
+    public <K, V> WalkResult<Map<K, V>> walkMap(Map<K, V> domainModels, Map<K, V> returnMap,
+                                                DomainGraphDefinition<V> domainGraphDefinition, WalkBudget walkBudget) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        Validate.notNull(walkBudget, "Walk budget cannot be null");
+
+        WalkContext walkContext = newWalkContext(false);
+        walkContext.setWalkBudget(walkBudget);
+        Map<K, V> clonedModels = walkMap(domainModels, returnMap, DomainGraphPlan.compile(domainGraphDefinition), walkContext);
+        return new WalkResult<Map<K, V>>(clonedModels, walkContext.getTruncation(), walkContext.getNodeCount());
+    }
+
+    /**
+     * Merges the domain model into an existing target graph, e.g. a snapshot refreshed from the same source, with the
+     * provided domain graph definition. The target domain models, lists, sets and maps are updated in place and only
+     * domain models without a counterpart in the target graph are cloned, so refreshing a graph which barely changed
+     * allocates next to nothing.
+     * <p>Elements of lists and sets are matched by their key property if one is set for their domain class with
+     * {@link #setElementKey(Class, String)}, otherwise elements of lists by position and elements of sets by equals;
+     * values of maps are matched by their map key. Unmatched target elements are removed and lists take the order of
+     * the domain model. Associations not walked by the definition are left as they are in the
+     * target, unless references are kept. Associations are merged on the current thread and not lazily.</p>
+     *
+     * @param domainModel
+     * @param target the target graph or null to clone the domain model
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return the target, or a clone if the target is null or of another class
+     */
+    public <T> T merge(T domainModel, T target, DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        return merge(domainModel, target, DomainGraphPlan.compile(domainGraphDefinition));
+    }
+
+    /**
+     * Merges the domain model into an existing target graph with a precompiled domain graph plan, see
+     * {@link #merge(Object, Object, DomainGraphDefinition)}.
+     *
+     * @param domainModel
+     * @param target
+     * @param domainGraphPlan
+     * @param <T>
+     * @return
+     */
+    public <T> T merge(T domainModel, T target, DomainGraphPlan<T> domainGraphPlan) {
+        Validate.notNull(domainModel, "Domain model to be merged cannot be null");
+        Validate.notNull(domainGraphPlan, "Domain graph plan cannot be null");
 
-        T clonedModel = null;
+        return merge(domainModel, target, domainGraphPlan, newWalkContext(false),
+                Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+    }
+
+    /**
+     * Merges the domain model into the target unless it has already been walked during the current walk. Targets
+     * which are missing, of another class or already merged with another domain model are not reused.
+     *
+     * @param domainModel
+     * @param target
+     * @param domainGraphPlan
+     * @param walkContext
+     * @param mergedTargets
+     * @param <T>
+     * @return
+     */
+    private <T> T merge(T domainModel, T target, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext,
+                        Set<Object> mergedTargets) {
+        if (domainModel == null) {
+            return null;
+        }
+        T walkedModel = walkContext.getWalked(domainModel);
+        if (walkedModel != null) {
+            return walkedModel;
+        }
+        if (target == null || DomainGraphPlan.getModelClass(target) != DomainGraphPlan.getModelClass(domainModel) || !mergedTargets.add(target)) {
+            return walk(domainModel, domainGraphPlan, walkContext);
+        }
+
+        if (!walkContext.enter(domainGraphPlan.getPath())) {
+            LOGGER.debug("Domain [{}] not merged; walk budget exceeded", domainGraphPlan.getName());
+            return null;
+        }
+        WalkListener walkListener = getWalkListener();
         try {
-            Map<String, Object> domainMap = BeanMap.create(domainModel);
-            BeanMap clonedDomainBeanMap = BeanMap.create(domainModel.getClass().newInstance());
-            DomainDefinition<T> domainDefinition = domainGraphDefinition.getDomainDefinition();
-
-            for (String propertyName : domainDefinition.getProperties()) {
-                Class<?> propertyClass = domainDefinition.getUnderlyingDomainModel(propertyName);
-
-                //if property class is set then it is a domain object otherwise it should be just copied
-                if (propertyClass != null) {
-                    DomainGraphDefinition childDef = domainGraphDefinition.getChild(propertyName);
-                    Class<?> actualPropertyClass = domainDefinition.getActualClass(propertyName);
-
-                    Object propertyValue = null;
-                    //walk the child tree if the child def was found
-                    if (childDef != null) {
-
-                        propertyValue = walkDomainProperty(domainMap, propertyName, childDef, actualPropertyClass);
-
-                        LOGGER.trace("Property [{}] cloned and set to [{}]", propertyName, propertyValue);
-                        clonedDomainBeanMap.put(propertyName, propertyValue);
-                    } else if (this.keepReferences) {
-                        LOGGER.trace("Property [{}] cloned as original for original object [{}]; property type was [{}]",
-                                new Object[]{propertyName, domainModel, actualPropertyClass.getSimpleName()});
-                        clonedDomainBeanMap.put(propertyName, domainMap.get(propertyName));
-                    } else {
-                        LOGGER.trace("Property [{}] not cloned for original object [{}]; property type was [{}]",
-                                new Object[]{propertyName, domainModel, actualPropertyClass.getSimpleName()});
-                    }
-                } else {
-                    LOGGER.trace("Simple property [{}] copied was [{}]", propertyName, domainMap.get(propertyName));
-                    clonedDomainBeanMap.put(propertyName, domainMap.get(propertyName));
+            if (walkListener == null) {
+                return mergeModel(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+            }
+            walkListener.nodeEnter(domainGraphPlan.getPath(), domainModel);
+            try {
+                return mergeModel(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+            } finally {
+                walkListener.nodeExit(domainGraphPlan.getPath(), domainModel);
+            }
+        } finally {
+            walkContext.exit();
+        }
+    }
+
+    private <T> T mergeModel(T domainModel, T target, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext,
+                             Set<Object> mergedTargets) {
+        LOGGER.debug("Domain merging started for [{}];", domainGraphPlan.getName());
+        Validate.isTrue(domainGraphPlan.getDomainClass() == DomainGraphPlan.getModelClass(domainModel), "Domain model and graph definition passed do not match");
+
+        DomainCopier<T> copier = getCopier(domainGraphPlan.getDomainDefinition());
+        walkContext.putWalkedIfAbsent(domainModel, target);
+        copier.copySimpleProperties(domainModel, target);
+        if (copyMutableValues && copier.hasMutableValues()) {
+            copier.copyMutableValues(domainModel, target, rejectOpaqueValues);
+        }
+
+        for (int i = 0; i < domainGraphPlan.getAssociationCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getAssociationSlot(i);
+            Object domainProperty = copier.getAssociation(domainModel, slot.getIndex());
+            if (slot.getChild() != null) {
+                Object targetProperty = copier.getAssociation(target, slot.getIndex());
+                Object propertyValue = mergeDomainProperty(domainProperty, targetProperty, slot, walkContext, mergedTargets);
+                if (propertyValue != targetProperty) {
+                    LOGGER.trace("Property [{}] merged and set to [{}]", slot.getName(), propertyValue);
+                    copier.setAssociation(target, slot.getIndex(), propertyValue);
                 }
+            } else if (this.keepReferences) {
+                copier.setAssociation(target, slot.getIndex(), domainProperty);
             }
+        }
+        return target;
+    }
 
-            clonedModel = (T) clonedDomainBeanMap.getBean();
-        } catch (InstantiationException e) {
-            LOGGER.error("Domain cannot be cloned [{}]", domainModel);
-            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor", e);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("Domain cannot be cloned [{}]", domainModel);
-            throw new IllegalArgumentException("Cannot access the domain", e);
+    @SuppressWarnings("unchecked")
+    private Object mergeDomainProperty(Object domainProperty, Object targetProperty, PropertySlot slot,
+                                       WalkContext walkContext, Set<Object> mergedTargets) {
+        if (domainProperty == null) {
+            return null;
         }
+        DomainGraphPlan childPlan = slot.getChild();
+        if (slot.getKind() == DomainGraphPlan.PropertyKind.DOMAIN) {
+            return merge(domainProperty, targetProperty, childPlan, walkContext, mergedTargets);
+        } else if (targetProperty == null) {
+            return walkDomainProperty(domainProperty, slot, walkContext);
+        }
+        switch (slot.getKind()) {
+            case LIST:
+                mergeList((List) domainProperty, (List) targetProperty, childPlan, walkContext, mergedTargets);
+                break;
+            case SET:
+                mergeSet((Set) domainProperty, (Set) targetProperty, childPlan, walkContext, mergedTargets);
+                break;
+            default:
+                mergeMap((Map) domainProperty, (Map) targetProperty, childPlan, walkContext, mergedTargets);
+        }
+        return targetProperty;
+    }
 
-        return clonedModel;
+    private <T> void mergeList(List<T> domainModels, List<T> targets, DomainGraphPlan<T> domainGraphPlan,
+                               WalkContext walkContext, Set<Object> mergedTargets) {
+        int keyIndex = getKeyIndex(domainGraphPlan);
+        if (keyIndex >= 0) {
+            mergeListByKey(domainModels, targets, domainGraphPlan, keyIndex, walkContext, mergedTargets);
+            return;
+        }
+        ListIterator<T> iterator = targets.listIterator();
+        for (T domainModel : domainModels) {
+            boolean positioned = iterator.hasNext();
+            T target = positioned ? iterator.next() : null;
+            T mergedModel = merge(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+            if (mergedModel == null && domainModel != null) {
+                // domain models left out by a truncating budget are left out of the list
+                if (positioned) {
+                    iterator.remove();
+                }
+            } else if (!positioned) {
+                iterator.add(mergedModel);
+            } else if (mergedModel != target) {
+                iterator.set(mergedModel);
+            }
+        }
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
 
+    private <T> void mergeListByKey(List<T> domainModels, List<T> targets, DomainGraphPlan<T> domainGraphPlan,
+                                    int keyIndex, WalkContext walkContext, Set<Object> mergedTargets) {
+        Map<Object, T> unmatchedTargets = getTargetsByKey(targets, domainGraphPlan, keyIndex);
+        ListIterator<T> iterator = targets.listIterator();
+        for (T domainModel : domainModels) {
+            T target = removeTarget(unmatchedTargets, domainModel, domainGraphPlan, keyIndex);
+            T mergedModel = merge(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+            if (mergedModel == null && domainModel != null) {
+                // domain models left out by a truncating budget are left out of the list
+                continue;
+            }
+            if (!iterator.hasNext()) {
+                iterator.add(mergedModel);
+            } else if (iterator.next() != mergedModel) {
+                iterator.set(mergedModel);
+            }
+        }
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private <T> void mergeSet(Set<T> domainModels, Set<T> targets, DomainGraphPlan<T> domainGraphPlan,
+                              WalkContext walkContext, Set<Object> mergedTargets) {
+        int keyIndex = getKeyIndex(domainGraphPlan);
+        if (keyIndex >= 0) {
+            Map<Object, T> unmatchedTargets = getTargetsByKey(targets, domainGraphPlan, keyIndex);
+            List<T> mergedModels = new ArrayList<T>(domainModels.size());
+            for (T domainModel : domainModels) {
+                T target = removeTarget(unmatchedTargets, domainModel, domainGraphPlan, keyIndex);
+                T mergedModel = merge(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+                if (mergedModel != null || domainModel == null) {
+                    mergedModels.add(mergedModel);
+                }
+            }
+            // merged targets are added again as merging may have changed their hash codes
+            targets.clear();
+            targets.addAll(mergedModels);
+            return;
+        }
+        Map<T, T> unmatchedTargets = new HashMap<T, T>((int) (targets.size() / 0.75f) + 1);
+        for (T target : targets) {
+            unmatchedTargets.put(target, target);
+        }
+        for (T domainModel : domainModels) {
+            T target = unmatchedTargets.remove(domainModel);
+            T mergedModel = merge(domainModel, target, domainGraphPlan, walkContext, mergedTargets);
+            if (mergedModel != target) {
+                if (target != null) {
+                    targets.remove(target);
+                }
+                if (mergedModel != null || domainModel == null) {
+                    targets.add(mergedModel);
+                }
+            }
+        }
+        targets.removeAll(unmatchedTargets.keySet());
+    }
+
+    private <K, V> void mergeMap(Map<K, V> domainModels, Map<K, V> targets, DomainGraphPlan<V> domainGraphPlan,
+                                 WalkContext walkContext, Set<Object> mergedTargets) {
+        for (Entry<K, V> domainEntry : domainModels.entrySet()) {
+            V target = targets.get(domainEntry.getKey());
+            V mergedModel = merge(domainEntry.getValue(), target, domainGraphPlan, walkContext, mergedTargets);
+            if (mergedModel == null && domainEntry.getValue() != null) {
+                // domain models left out by a truncating budget are left out of the map
+                targets.remove(domainEntry.getKey());
+            } else if (mergedModel != target || !targets.containsKey(domainEntry.getKey())) {
+                targets.put(domainEntry.getKey(), mergedModel);
+            }
+        }
+        Iterator<K> keys = targets.keySet().iterator();
+        while (keys.hasNext()) {
+            if (!domainModels.containsKey(keys.next())) {
+                keys.remove();
+            }
+        }
     }
 
-    private Object walkDomainProperty(Map<String, Object> domainMap, String propertyName, DomainGraphDefinition childDef, Class<?> actualPropertyClass) {
-        Object propertyValue;
-        if (List.class.isAssignableFrom(actualPropertyClass)) {
-            propertyValue = walkList((List<?>) domainMap.get(propertyName), childDef);
-        } else if (Set.class.isAssignableFrom(actualPropertyClass)) {
-            propertyValue = walkSet((Set<?>) domainMap.get(propertyName), childDef);
-        } else if (Map.class.isAssignableFrom(actualPropertyClass)) {
-            propertyValue = walkMap((Map<?, ?>) domainMap.get(propertyName), childDef);
+    /**
+     * Maps the targets by their key, the first target is kept for duplicate keys and targets without a key are left
+     * out.
+     *
+     * @param targets
+     * @param domainGraphPlan
+     * @param keyIndex
+     * @param <T>
+     * @return
+     */
+    private static <T> Map<Object, T> getTargetsByKey(Collection<T> targets, DomainGraphPlan<T> domainGraphPlan,
+                                                      int keyIndex) {
+        Map<Object, T> targetsByKey = new HashMap<Object, T>((int) (targets.size() / 0.75f) + 1);
+        for (T target : targets) {
+            Object key = getKey(target, domainGraphPlan, keyIndex);
+            if (key != null && !targetsByKey.containsKey(key)) {
+                targetsByKey.put(key, target);
+            }
+        }
+        return targetsByKey;
+    }
+
+    private static <T> T removeTarget(Map<Object, T> targetsByKey, T domainModel, DomainGraphPlan<T> domainGraphPlan,
+                                      int keyIndex) {
+        Object key = getKey(domainModel, domainGraphPlan, keyIndex);
+        // domain models without a key are new and never matched
+        return key == null ? null : targetsByKey.remove(key);
+    }
+
+    private static Object getKey(Object element, DomainGraphPlan<?> domainGraphPlan, int keyIndex) {
+        if (element == null) {
+            return null;
+        }
+        return domainGraphPlan.getDomainDefinition().getPropertyAccessor().getValue(element, keyIndex);
+    }
+
+    private int getKeyIndex(DomainGraphPlan<?> elementPlan) {
+        String keyProperty = elementKeys.get(elementPlan.getDomainClass());
+        if (keyProperty == null) {
+            return -1;
+        }
+        int keyIndex = elementPlan.getDomainDefinition().getPropertyIndex(keyProperty);
+        Validate.isTrue(keyIndex >= 0, keyProperty + " :property doesn't exist in the domain: " + elementPlan.getDomainClass());
+        return keyIndex;
+    }
+
+    /**
+     * Clones a root domain model, in the fork join pool if the walk spans several threads.
+     *
+     * @param domainModel
+     * @param domainGraphPlan
+     * @param walkContext
+     * @param <T>
+     * @return
+     */
+    private <T> T walkRoot(T domainModel, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+        if (isForking() && !isInForkJoinPool()) {
+            return getForkJoinPool().invoke(new CloningTask<T>(domainModel, domainGraphPlan, walkContext));
+        }
+        return walk(domainModel, domainGraphPlan, walkContext);
+    }
+
+    /**
+     * Clones the domain model unless it has already been cloned during the current walk, in which case the existing
+     * clone is returned.
+     *
+     * @param domainModel
+     * @param domainGraphPlan
+     * @param walkContext
+     * @param <T>
+     * @return
+     */
+    @Override
+    protected <T> T walk(T domainModel, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+        if (domainModel == null) {
+            return null;
+        }
+
+        T clonedModel = walkContext.getWalked(domainModel);
+        if (clonedModel != null) {
+            LOGGER.trace("Domain [{}] already cloned; reusing the clone", domainModel);
+            return clonedModel;
+        }
+
+        if (!walkContext.enter(domainGraphPlan.getPath())) {
+            LOGGER.debug("Domain [{}] not cloned; walk budget exceeded", domainGraphPlan.getName());
+            return null;
+        }
+        WalkListener walkListener = getWalkListener();
+        try {
+            if (walkListener == null) {
+                return cloneModel(domainModel, domainGraphPlan, walkContext);
+            }
+            walkListener.nodeEnter(domainGraphPlan.getPath(), domainModel);
+            try {
+                return cloneModel(domainModel, domainGraphPlan, walkContext);
+            } finally {
+                walkListener.nodeExit(domainGraphPlan.getPath(), domainModel);
+            }
+        } finally {
+            walkContext.exit();
+        }
+    }
+
+    private <T> T cloneModel(T domainModel, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+        LOGGER.debug("Domain cloning started for [{}];", domainGraphPlan.getName());
+        LOGGER.trace("Domain cloning started for [{}]; domain graph def was for class [{}]", domainModel, domainGraphPlan.getDomainClass());
+
+        Validate.isTrue(domainGraphPlan.getDomainClass() == DomainGraphPlan.getModelClass(domainModel), "Domain model and graph definition passed do not match");
+
+        DomainCopier<T> copier = getCopier(domainGraphPlan.getDomainDefinition());
+
+        LazyAssociationInterceptor<T> lazyInterceptor = null;
+        T clonedModel;
+        if (lazyAssociations && domainGraphPlan.getAssociationCount() > 0
+                && LazyCloneFactory.isSupported(domainGraphPlan.getDomainDefinition())) {
+            LazyCloneFactory<T> lazyCloneFactory = getLazyCloneFactory(domainGraphPlan.getDomainDefinition());
+            lazyInterceptor = new LazyAssociationInterceptor<T>(domainModel, domainGraphPlan, copier, lazyCloneFactory,
+                    walkContext);
+            clonedModel = lazyCloneFactory.newInstance(lazyInterceptor);
+        } else {
+            clonedModel = copier.newInstance();
+        }
+        // register the clone before walking the children so that cyclic references resolve to it; another thread of a
+        // parallel walk may have registered its clone first
+        T registeredModel = walkContext.putWalkedIfAbsent(domainModel, clonedModel);
+        if (registeredModel != null) {
+            return registeredModel;
+        }
+        copier.copySimpleProperties(domainModel, clonedModel);
+        if (copyMutableValues && copier.hasMutableValues()) {
+            copier.copyMutableValues(domainModel, clonedModel, rejectOpaqueValues);
+        }
+        LOGGER.trace("Simple properties copied for [{}]", domainModel);
+
+        if (lazyInterceptor != null) {
+            // walked associations are cloned by the interceptor on first access
+            for (int i = 0; i < domainGraphPlan.getAssociationCount(); i++) {
+                PropertySlot slot = domainGraphPlan.getAssociationSlot(i);
+                if (slot.getChild() == null) {
+                    walkAssociation(domainModel, clonedModel, copier, slot, walkContext);
+                }
+            }
+        } else if (forkAssociations && walkContext.isConcurrent() && isInForkJoinPool()) {
+            walkAssociationsInParallel(domainModel, clonedModel, copier, domainGraphPlan, walkContext);
         } else {
-            propertyValue = walk(domainMap.get(propertyName), childDef);
+            for (int i = 0; i < domainGraphPlan.getAssociationCount(); i++) {
+                walkAssociation(domainModel, clonedModel, copier, domainGraphPlan.getAssociationSlot(i), walkContext);
+            }
         }
-        return propertyValue;
+
+        return clonedModel;
+
     }
 
-    private <T> DomainGraphDefinition<T> wrapInDecorator(DomainGraphDefinition<T> underlyingDomainGraphDefinition) {
-        DomainGraphDefinition<T> domainGraphDefinition;
-        if (underlyingDomainGraphDefinition instanceof DomainGraphDefinitionDecorator) {
-            domainGraphDefinition = underlyingDomainGraphDefinition;
+    private <T> void walkAssociation(T domainModel, T clonedModel, DomainCopier<T> copier, PropertySlot slot,
+                                     WalkContext walkContext) {
+        //walk the child tree if the child plan was found
+        if (slot.getChild() != null) {
+
+            Object propertyValue = walkDomainProperty(copier.getAssociation(domainModel, slot.getIndex()), slot, walkContext);
+
+            LOGGER.trace("Property [{}] cloned and set to [{}]", slot.getName(), propertyValue);
+            copier.setAssociation(clonedModel, slot.getIndex(), propertyValue);
+        } else if (this.keepReferences) {
+            LOGGER.trace("Property [{}] cloned as original for original object [{}]; property type was [{}]",
+                    new Object[]{slot.getName(), domainModel, slot.getActualClass().getSimpleName()});
+            copier.setAssociation(clonedModel, slot.getIndex(), copier.getAssociation(domainModel, slot.getIndex()));
         } else {
-            domainGraphDefinition = new DomainGraphDefinitionDecorator<T>(underlyingDomainGraphDefinition);
+            LOGGER.trace("Property [{}] not cloned for original object [{}]; property type was [{}]",
+                    new Object[]{slot.getName(), domainModel, slot.getActualClass().getSimpleName()});
+        }
+    }
+
+    /**
+     * Forks the walked associations which are at least as large as the fork threshold and walks the others on the
+     * current thread, before joining the forked ones into the cloned model.
+     *
+     * @param domainModel
+     * @param clonedModel
+     * @param copier
+     * @param domainGraphPlan
+     * @param walkContext
+     * @param <T>
+     */
+    private <T> void walkAssociationsInParallel(T domainModel, T clonedModel, DomainCopier<T> copier,
+                                                DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+        List<AssociationTask> forkedTasks = null;
+        for (int i = 0; i < domainGraphPlan.getAssociationCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getAssociationSlot(i);
+            if (slot.getChild() != null) {
+                Object domainProperty = copier.getAssociation(domainModel, slot.getIndex());
+                if (estimateSize(domainProperty) >= associationForkThreshold) {
+                    if (forkedTasks == null) {
+                        forkedTasks = new ArrayList<AssociationTask>();
+                    }
+                    AssociationTask task = new AssociationTask(domainProperty, slot, walkContext);
+                    task.fork();
+                    forkedTasks.add(task);
+                    continue;
+                }
+            }
+            walkAssociation(domainModel, clonedModel, copier, slot, walkContext);
+        }
+
+        if (forkedTasks != null) {
+            // join in reverse order so that tasks not stolen yet are run on this thread
+            for (int i = forkedTasks.size() - 1; i >= 0; i--) {
+                AssociationTask task = forkedTasks.get(i);
+                Object propertyValue = task.join();
+                LOGGER.trace("Property [{}] cloned in parallel and set to [{}]", task.slot.getName(), propertyValue);
+                copier.setAssociation(clonedModel, task.slot.getIndex(), propertyValue);
+            }
+        }
+    }
+
+    private static int estimateSize(Object domainProperty) {
+        if (domainProperty == null) {
+            return 0;
+        } else if (domainProperty instanceof Collection) {
+            return ((Collection<?>) domainProperty).size();
+        } else if (domainProperty instanceof Map) {
+            return ((Map<?, ?>) domainProperty).size();
         }
-        return domainGraphDefinition;
+        return 1;
+    }
+
+    private boolean isForking() {
+        return forkAssociations && getForkJoinPool() != null;
+    }
+
+    /**
+     * Returns true if the current thread is a worker of the fork join pool of the walker. Workers of other pools, e.g.
+     * the common pool running the tasks of the caller, must not fork associations into their own pool.
+     *
+     * @return
+     */
+    private boolean isInForkJoinPool() {
+        ForkJoinPool forkJoinPool = getForkJoinPool();
+        return forkJoinPool != null && ForkJoinTask.getPool() == forkJoinPool;
+    }
+
+    private WalkContext createWalkContext() {
+        return newWalkContext(isForking());
+    }
+
+    @Override
+    protected WalkContext newWalkContext(boolean concurrent) {
+        // lazy clones may clone their associations on any thread
+        return super.newWalkContext(concurrent || lazyAssociations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object walkDomainProperty(Object domainProperty, PropertySlot slot, WalkContext walkContext) {
+        DomainGraphPlan childPlan = slot.getChild();
+        switch (slot.getKind()) {
+            case LIST:
+                List listModels = (List) domainProperty;
+                List emptyList = createEmptyList(listModels);
+                if (!isAssignable(emptyList, slot)) {
+                    emptyList = createEmptyList(listModels, slot.getActualClass());
+                }
+                return walk(listModels, emptyList, childPlan, walkContext);
+            case SET:
+                Set setModels = (Set) domainProperty;
+                Set emptySet = createEmptySet(setModels);
+                if (!isAssignable(emptySet, slot)) {
+                    emptySet = createEmptySet(setModels, slot.getActualClass());
+                }
+                return walk(setModels, emptySet, childPlan, walkContext);
+            case MAP:
+                Map mapModels = (Map) domainProperty;
+                Map emptyMap = createEmptyMap(mapModels);
+                if (!isAssignable(emptyMap, slot)) {
+                    emptyMap = createEmptyMap(mapModels, slot.getActualClass());
+                }
+                return walkMap(mapModels, emptyMap, childPlan, walkContext);
+            default:
+                return walk(domainProperty, childPlan, walkContext);
+        }
+    }
+
+    /**
+     * Returns true if the provided empty collection, created by an overridable createEmpty method, can be set on the
+     * property of the provided slot.
+     *
+     * @param emptyCollection
+     * @param slot
+     * @return
+     */
+    private static boolean isAssignable(Object emptyCollection, PropertySlot slot) {
+        Class<?> declaredClass = slot.getActualClass();
+        return emptyCollection != null && (declaredClass == null || declaredClass.isInstance(emptyCollection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> LazyCloneFactory<T> getLazyCloneFactory(DomainDefinition<T> domainDefinition) {
+        LazyCloneFactory<?> lazyCloneFactory = lazyCloneFactories.get(domainDefinition);
+        if (lazyCloneFactory == null) {
+            lazyCloneFactory = new LazyCloneFactory<T>(domainDefinition);
+            LazyCloneFactory<?> existingFactory = lazyCloneFactories.putIfAbsent(domainDefinition, lazyCloneFactory);
+            if (existingFactory != null) {
+                lazyCloneFactory = existingFactory;
+            }
+        }
+        return (LazyCloneFactory<T>) lazyCloneFactory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> DomainCopier<T> getCopier(DomainDefinition<T> domainDefinition) {
+        DomainCopier<T> copier = (DomainCopier<T>) copiers.get(domainDefinition);
+        if (copier == null) {
+            copier = new DomainCopier<T>(domainDefinition);
+            DomainCopier<T> existingCopier = (DomainCopier<T>) copiers.putIfAbsent(domainDefinition, copier);
+            if (existingCopier != null) {
+                copier = existingCopier;
+            }
+        } else if (!copier.isCurrent(domainDefinition)) {
+            // the domain definition was initialised again
+            copier = new DomainCopier<T>(domainDefinition);
+            copiers.put(domainDefinition, copier);
+        }
+        return copier;
     }
 
     @Override
     public <K, V> Map<K, V> walkMap(Map<K, V> domainModels, Map<K, V> returnMap,
                                     DomainGraphDefinition<V> domainGraphDefinition) {
-        if (domainModels != null && returnMap != null) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        DomainGraphPlan<V> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        WalkContext walkContext = newWalkContext(false);
+        Map<K, V> clonedModels = walkMap(domainModels, returnMap, domainGraphPlan, walkContext);
+        warnIfTruncated(domainGraphPlan, walkContext);
+        return clonedModels;
+    }
 
-            // keep local cache for cloned objects
-            Map<V, V> localCache = createCache();
+    private <K, V> Map<K, V> walkMap(Map<K, V> domainModels, Map<K, V> returnMap,
+                                     DomainGraphPlan<V> domainGraphPlan, WalkContext walkContext) {
+        if (domainModels != null && returnMap != null) {
+            WalkListener walkListener = getWalkListener();
+            if (walkListener != null) {
+                walkListener.collectionStart(domainGraphPlan.getPath(), domainModels.size());
+            }
             for (Entry<K, V> domainEntry : domainModels.entrySet()) {
-
-                // check local cache first
-                V domainModel = domainEntry.getValue();
-                V clonedModel = localCache.get(domainModel);
-                if (clonedModel == null) {
-                    clonedModel = walk(domainModel, domainGraphDefinition);
-                    localCache.put(domainModel, clonedModel);
+                V walkedModel = walk(domainEntry.getValue(), domainGraphPlan, walkContext);
+                // domain models left out by a truncating budget are left out of the map
+                if (walkedModel != null || domainEntry.getValue() == null) {
+                    returnMap.put(domainEntry.getKey(), walkedModel);
                 }
-                returnMap.put(domainEntry.getKey(), clonedModel);
+            }
+            if (walkListener != null) {
+                walkListener.collectionEnd(domainGraphPlan.getPath(), domainModels.size());
             }
         }
         return returnMap;
@@ -134,33 +769,256 @@ public class CloningDomainWalker extends AbstractDomainWalker {
     @Override
     public <T, Z extends Collection<T>> Z walk(Collection<T> domainModels, Z returnCollection,
                                                DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        DomainGraphPlan<T> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        WalkContext walkContext = newWalkContext(false);
+        Z clonedModels = walk(domainModels, returnCollection, domainGraphPlan, walkContext);
+        warnIfTruncated(domainGraphPlan, walkContext);
+        return clonedModels;
+    }
+
+    private <T, Z extends Collection<T>> Z walk(Collection<T> domainModels, Z returnCollection,
+                                                DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
         if (domainModels != null) {
 
             Validate.notNull(returnCollection, "Collection object cannot be null");
 
-            // keep local cache for cloned objects
-            Map<T, T> localCache = createCache();
+            WalkListener walkListener = getWalkListener();
+            if (walkListener != null) {
+                walkListener.collectionStart(domainGraphPlan.getPath(), domainModels.size());
+            }
             for (T domainModel : domainModels) {
-
-                // check local cache first
-                T clonedModel = localCache.get(domainModel);
-                if (clonedModel == null) {
-                    clonedModel = walk(domainModel, domainGraphDefinition);
-                    localCache.put(domainModel, clonedModel);
+                T walkedModel = walk(domainModel, domainGraphPlan, walkContext);
+                // domain models left out by a truncating budget are left out of the collection
+                if (walkedModel != null || domainModel == null) {
+                    returnCollection.add(walkedModel);
                 }
-                returnCollection.add(clonedModel);
+            }
+            if (walkListener != null) {
+                walkListener.collectionEnd(domainGraphPlan.getPath(), domainModels.size());
             }
         }
         return returnCollection;
     }
 
-    private <T> Map<T, T> createCache() {
-        // TODO find a better data structure such that map algorithm uses object reference to find keys not equals
-        // methods. That will make lookup much faster.
-        return new HashMap<T, T>();
-    }
-
     public void setKeepReferences(boolean keepReferences) {
         this.keepReferences = keepReferences;
     }
+
+    /**
+     * Enables cloning the associations of a single domain model in parallel on the fork join pool of the walker.
+     * Associations are forked only when they hold at least the association fork threshold of domain models. Has no
+     * effect unless a fork join pool is set.
+     *
+     * @param forkAssociations
+     */
+    public void setForkAssociations(boolean forkAssociations) {
+        this.forkAssociations = forkAssociations;
+    }
+
+    /**
+     * Sets the number of domain models from which an association is forked. Defaults to
+     * {@link #DEFAULT_ASSOCIATION_FORK_THRESHOLD}.
+     *
+     * @param associationForkThreshold
+     */
+    public void setAssociationForkThreshold(int associationForkThreshold) {
+        Validate.isTrue(associationForkThreshold > 0, "Association fork threshold must be positive");
+        this.associationForkThreshold = associationForkThreshold;
+    }
+
+    /**
+     * Enables lazy clones: domain models are cloned as instances of a generated subclass with their simple properties
+     * copied right away, while the associations walked by the domain graph definition are cloned, lazily again, the
+     * first time they are read or written. Lazily cloned associations reflect the original domain models at the time
+     * of the first access; associations not walked by the definition are set right away. Domain classes which are final
+     * or lack a visible no-arg constructor are cloned eagerly.
+     * <p>Associations cloned on access reuse the domain models cloned by the walk and are reported to the listener,
+     * but are not limited by the walk budget: a lazy clone is complete however late its associations are read.
+     * Lazy clones are instances of the generated subclass; walkers treat them as instances of the domain class.</p>
+     *
+     * @param lazyAssociations
+     */
+    public void setLazyAssociations(boolean lazyAssociations) {
+        this.lazyAssociations = lazyAssociations;
+    }
+
+    /**
+     * Enables copying the mutable values of simple properties, e.g. dates, arrays and collections of simple values,
+     * so that clones don't share them with the original domain models. Values are classified by the
+     * {@link com.knaptus.domainiser.core.ValueTypeRegistry}; immutable values are always shared. Disabled by default,
+     * i.e. clones share every simple value with the original domain models, as they always have.
+     *
+     * @param copyMutableValues
+     */
+    public void setCopyMutableValues(boolean copyMutableValues) {
+        this.copyMutableValues = copyMutableValues;
+    }
+
+    /**
+     * Makes cloning fail with an IllegalArgumentException when a simple property holds a value of an opaque type, i.e.
+     * a type registered neither as immutable nor as mutable. Opaque values are shared by default. Has no effect unless
+     * mutable values are copied.
+     *
+     * @param rejectOpaqueValues
+     */
+    public void setRejectOpaqueValues(boolean rejectOpaqueValues) {
+        this.rejectOpaqueValues = rejectOpaqueValues;
+    }
+
+    /**
+     * Sets the property the elements of merged lists and sets of the provided domain class are matched by, e.g. an
+     * id. Elements with equal keys are merged into each other, elements without a key are cloned.
+     *
+     * @param domainClass
+     * @param keyProperty
+     */
+    public void setElementKey(Class<?> domainClass, String keyProperty) {
+        Validate.notNull(domainClass, "Domain class cannot be null");
+        Validate.notNull(keyProperty, "Key property cannot be null");
+        elementKeys.put(domainClass, keyProperty);
+    }
+
+    /**
+     * Matches the elements of merged lists and sets of the provided domain class by position and equals again.
+     *
+     * @param domainClass
+     */
+    public void removeElementKey(Class<?> domainClass) {
+        elementKeys.remove(domainClass);
+    }
+
+    /**
+     * Clones the walked associations of a lazy clone on first access. The original domain model is released once all
+     * of them have been cloned.
+     */
+    private final class LazyAssociationInterceptor<T> implements MethodInterceptor {
+
+        private final DomainGraphPlan<T> domainGraphPlan;
+
+        private final DomainCopier<T> copier;
+
+        private final LazyCloneFactory<T> lazyCloneFactory;
+
+        // indexed by domain definition property index
+        private final boolean[] pending;
+
+        private volatile int pendingCount;
+
+        private T domainModel;
+
+        private WalkContext walkContext;
+
+        private LazyAssociationInterceptor(T domainModel, DomainGraphPlan<T> domainGraphPlan, DomainCopier<T> copier,
+                                           LazyCloneFactory<T> lazyCloneFactory, WalkContext walkContext) {
+            this.domainModel = domainModel;
+            this.domainGraphPlan = domainGraphPlan;
+            this.copier = copier;
+            this.lazyCloneFactory = lazyCloneFactory;
+            // associations may be cloned long after the walk, when its budget has run out
+            this.walkContext = walkContext.withoutWalkBudget();
+
+            this.pending = new boolean[domainGraphPlan.getSlotCount()];
+            int count = 0;
+            for (int i = 0; i < domainGraphPlan.getAssociationCount(); i++) {
+                PropertySlot slot = domainGraphPlan.getAssociationSlot(i);
+                if (slot.getChild() != null) {
+                    pending[slot.getIndex()] = true;
+                    count++;
+                }
+            }
+            this.pendingCount = count;
+        }
+
+        @Override
+        public Object intercept(Object proxy, Method method, Object[] arguments, MethodProxy methodProxy) throws Throwable {
+            if (pendingCount != 0) {
+                boolean read = arguments.length == 0;
+                int index = read ? lazyCloneFactory.getReadIndex(method) : lazyCloneFactory.getWriteIndex(method);
+                if (index >= 0) {
+                    resolve(proxy, index, read);
+                }
+            }
+            return methodProxy.invokeSuper(proxy, arguments);
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized void resolve(Object proxy, int index, boolean read) {
+            if (!pending[index]) {
+                return;
+            }
+            pending[index] = false;
+
+            // a written association replaces the lazy clone
+            if (read) {
+                PropertySlot slot = domainGraphPlan.getSlot(index);
+                Object propertyValue = walkDomainProperty(copier.getAssociation(domainModel, index), slot, walkContext);
+                LOGGER.trace("Property [{}] cloned on access and set to [{}]", slot.getName(), propertyValue);
+                copier.setAssociation((T) proxy, index, propertyValue);
+            }
+
+            pendingCount--;
+            if (pendingCount == 0) {
+                domainModel = null;
+                walkContext = null;
+            }
+        }
+    }
+
+    /**
+     * Clones a root domain model in the fork join pool.
+     */
+    private final class CloningTask<T> extends RecursiveTask<T> {
+
+        private final T domainModel;
+
+        private final DomainGraphPlan<T> domainGraphPlan;
+
+        private final WalkContext walkContext;
+
+        private CloningTask(T domainModel, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+            this.domainModel = domainModel;
+            this.domainGraphPlan = domainGraphPlan;
+            this.walkContext = walkContext;
+        }
+
+        @Override
+        protected T compute() {
+            return walk(domainModel, domainGraphPlan, walkContext);
+        }
+    }
+
+    /**
+     * Clones the value of a single association.
+     */
+    private final class AssociationTask extends RecursiveTask<Object> {
+
+        private final Object domainProperty;
+
+        private final PropertySlot slot;
+
+        private final WalkContext walkContext;
+
+        // depth of the forking thread
+        private final int depth;
+
+        private AssociationTask(Object domainProperty, PropertySlot slot, WalkContext walkContext) {
+            this.domainProperty = domainProperty;
+            this.slot = slot;
+            this.walkContext = walkContext;
+            this.depth = walkContext.getDepth();
+        }
+
+        @Override
+        protected Object compute() {
+            // the thread may be running this task while joining another one
+            int threadDepth = walkContext.getDepth();
+            walkContext.setDepth(depth);
+            try {
+                return walkDomainProperty(domainProperty, slot, walkContext);
+            } finally {
+                walkContext.setDepth(threadDepth);
+            }
+        }
+    }
 }
@@ -0,0 +1,188 @@
+package com.knaptus.domainiser.clone;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.PropertyAccessor;
+import com.knaptus.domainiser.core.PropertyTransfer;
+import com.knaptus.domainiser.core.ValueType;
+import com.knaptus.domainiser.core.ValueTypeRegistry;
+import net.sf.cglib.reflect.FastClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Copies domain models of a single domain class through classes generated once per domain class. Simple properties
+ * are transferred through the {@link PropertyTransfer} of the domain definition, without boxing primitives, and
+ * associations are read and written through its {@link PropertyAccessor}, so no property is looked up by name while
+ * cloning.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class DomainCopier<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainCopier.class);
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Class<K> clazz;
+
+    private final FastClass fastClass;
+
+    private final int constructorIndex;
+
+    private final PropertyTransfer simpleProperties;
+
+    private final PropertyAccessor propertyAccessor;
+
+    // simple properties whose values may be mutable, the others are immutable and always shared
+    private final int[] valueIndexes;
+
+    private final Class<?>[] valueClasses;
+
+    private final String[] valueNames;
+
+    /**
+     * Generates the copier for the domain class of the provided domain definition.
+     *
+     * @param domainDefinition
+     */
+    DomainCopier(DomainDefinition<K> domainDefinition) {
+        this.clazz = domainDefinition.getClazz();
+        LOGGER.info("Generating domain copier for [{}]", clazz);
+
+        this.fastClass = FastClass.create(clazz);
+        this.constructorIndex = fastClass.getIndex(new Class[0]);
+
+        int propertyCount = domainDefinition.getPropertyCount();
+        int valueCount = 0;
+        int[] indexes = new int[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            if (domainDefinition.getUnderlyingDomainModel(i) == null
+                    && domainDefinition.getValueType(i) != ValueType.IMMUTABLE) {
+                indexes[valueCount++] = i;
+            }
+        }
+
+        this.valueIndexes = new int[valueCount];
+        this.valueClasses = new Class<?>[valueCount];
+        this.valueNames = new String[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            int index = indexes[i];
+            valueIndexes[i] = index;
+            valueClasses[i] = domainDefinition.getActualClass(index);
+            valueNames[i] = domainDefinition.getPropertyName(index);
+        }
+
+        this.simpleProperties = domainDefinition.getPropertyTransfer();
+        this.propertyAccessor = domainDefinition.getPropertyAccessor();
+    }
+
+    /**
+     * Returns true if the copier was generated for the current properties of the domain definition, i.e. it hasn't
+     * been initialised again since.
+     *
+     * @param domainDefinition
+     * @return
+     */
+    boolean isCurrent(DomainDefinition<K> domainDefinition) {
+        return simpleProperties == domainDefinition.getPropertyTransfer()
+                && propertyAccessor == domainDefinition.getPropertyAccessor();
+    }
+
+    /**
+     * Creates a new domain model using the default constructor.
+     *
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    K newInstance() {
+        if (constructorIndex < 0) {
+            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor: " + clazz);
+        }
+        try {
+            return (K) fastClass.newInstance(constructorIndex, NO_ARGUMENTS);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Copies all the simple (non domain) properties from one domain model to the other.
+     *
+     * @param source
+     * @param target
+     */
+    void copySimpleProperties(K source, K target) {
+        simpleProperties.copy(source, target);
+    }
+
+    /**
+     * Replaces the mutable values of the simple properties of the target, as copied by
+     * {@link #copySimpleProperties(Object, Object)}, by copies. Values are classified by their runtime class, so a
+     * property declared as Serializable holding a Date is copied too. Opaque values are shared unless rejected.
+     *
+     * @param source
+     * @param target
+     * @param rejectOpaqueValues
+     * @throws IllegalArgumentException if an opaque value is rejected
+     */
+    void copyMutableValues(K source, K target, boolean rejectOpaqueValues) {
+        ValueTypeRegistry valueTypeRegistry = ValueTypeRegistry.getInstance();
+        for (int i = 0; i < valueIndexes.length; i++) {
+            Object value = propertyAccessor.getValue(source, valueIndexes[i]);
+            if (value == null) {
+                continue;
+            }
+            ValueType valueType = valueTypeRegistry.getValueType(value.getClass());
+            if (valueType == ValueType.MUTABLE) {
+                propertyAccessor.setValue(target, valueIndexes[i], valueTypeRegistry.copy(value, valueClasses[i]));
+            } else if (valueType == ValueType.OPAQUE && rejectOpaqueValues) {
+                throw new IllegalArgumentException("Property " + valueNames[i] + " of " + clazz
+                        + " holds a value of opaque type " + value.getClass());
+            }
+        }
+    }
+
+    /**
+     * Returns true if the domain class has simple properties which may hold mutable values.
+     *
+     * @return
+     */
+    boolean hasMutableValues() {
+        return valueIndexes.length > 0;
+    }
+
+    /**
+     * Reads the association at the provided domain definition property index.
+     *
+     * @param domainModel
+     * @param index
+     * @return
+     */
+    Object getAssociation(K domainModel, int index) {
+        return propertyAccessor.getValue(domainModel, index);
+    }
+
+    /**
+     * Writes the association at the provided domain definition property index.
+     *
+     * @param domainModel
+     * @param index
+     * @param value
+     */
+    void setAssociation(K domainModel, int index, Object value) {
+        propertyAccessor.setValue(domainModel, index, value);
+    }
+
+    private RuntimeException rethrow(InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        } else if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        LOGGER.error("Domain cannot be accessed [{}]", clazz);
+        return new IllegalArgumentException("Cannot access the domain", e.getCause());
+    }
+}
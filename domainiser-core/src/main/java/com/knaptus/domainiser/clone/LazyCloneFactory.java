@@ -0,0 +1,112 @@
+package com.knaptus.domainiser.clone;
+
+import com.knaptus.domainiser.core.AccessMode;
+import com.knaptus.domainiser.core.DomainDefinition;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates lazy clones of a single domain class: instances of a subclass generated once per domain class, whose
+ * accessors are intercepted so that associations can be cloned on first access.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class LazyCloneFactory<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazyCloneFactory.class);
+
+    private final Factory prototype;
+
+    // accessor method to domain definition property index
+    private final Map<Method, Integer> readIndexes = new HashMap<Method, Integer>();
+
+    private final Map<Method, Integer> writeIndexes = new HashMap<Method, Integer>();
+
+    /**
+     * Generates the subclass of the domain class of the provided domain definition.
+     *
+     * @param domainDefinition
+     */
+    LazyCloneFactory(DomainDefinition<K> domainDefinition) {
+        Class<K> clazz = domainDefinition.getClazz();
+        LOGGER.info("Generating lazy clone class for [{}]", clazz);
+
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(clazz);
+        enhancer.setClassLoader(clazz.getClassLoader());
+        enhancer.setCallback(new MethodInterceptor() {
+            @Override
+            public Object intercept(Object proxy, Method method, Object[] arguments, MethodProxy methodProxy) throws Throwable {
+                return methodProxy.invokeSuper(proxy, arguments);
+            }
+        });
+        this.prototype = (Factory) enhancer.create();
+
+        for (int i = 0; i < domainDefinition.getPropertyCount(); i++) {
+            readIndexes.put(domainDefinition.getReadMethod(i), i);
+            writeIndexes.put(domainDefinition.getWriteMethod(i), i);
+        }
+    }
+
+    /**
+     * Returns true if lazy clones can be generated for the domain class of the provided definition. Domain classes in
+     * field access mode are not supported as their fields are read without calling the intercepted accessors.
+     *
+     * @param domainDefinition
+     * @return
+     */
+    static boolean isSupported(DomainDefinition<?> domainDefinition) {
+        Class<?> clazz = domainDefinition.getClazz();
+        if (domainDefinition.getAccessMode() != AccessMode.PROPERTY || Modifier.isFinal(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return !Modifier.isPrivate(clazz.getDeclaredConstructor().getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a lazy clone whose accessors are intercepted by the provided interceptor.
+     *
+     * @param interceptor
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    K newInstance(MethodInterceptor interceptor) {
+        return (K) prototype.newInstance(interceptor);
+    }
+
+    /**
+     * Returns the property index of the provided read method or -1 if it isn't a read method.
+     *
+     * @param method
+     * @return
+     */
+    int getReadIndex(Method method) {
+        Integer index = readIndexes.get(method);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the property index of the provided write method or -1 if it isn't a write method.
+     *
+     * @param method
+     * @return
+     */
+    int getWriteIndex(Method method) {
+        Integer index = writeIndexes.get(method);
+        return index == null ? -1 : index;
+    }
+}
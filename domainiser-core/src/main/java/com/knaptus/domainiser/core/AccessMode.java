@@ -0,0 +1,22 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * How the properties of a domain class are discovered and accessed.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public enum AccessMode {
+
+    /**
+     * Java Bean properties with both a read and a write method, accessed through them.
+     */
+    PROPERTY,
+
+    /**
+     * Instance fields which are neither static, transient nor final, including private fields and fields declared
+     * by super classes, accessed directly so that accessor side effects such as lazy loading are skipped. Fields of
+     * super classes hidden by a field of the same name are named after their declaring class, e.g. Entity#id.
+     */
+    FIELD
+}
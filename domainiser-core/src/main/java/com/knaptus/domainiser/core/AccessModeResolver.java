@@ -0,0 +1,19 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * Implemented by domain resolvers which choose how the properties of domain classes are accessed. Domain classes of
+ * resolvers which don't implement it are accessed through their Java Bean properties.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public interface AccessModeResolver {
+
+    /**
+     * Returns the access mode of the provided domain class, null for {@link AccessMode#PROPERTY}.
+     *
+     * @param domain
+     * @return
+     */
+    AccessMode getAccessMode(Class<?> domain);
+}
@@ -0,0 +1,31 @@
+package com.knaptus.domainiser.core;
+
+import java.util.List;
+
+/**
+ * Loads the associations of domain objects from a data source, e.g. an ORM session, in batches. Used by walkers which
+ * hydrate a domain graph level by level so that every level costs a single round-trip to the data source.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public interface BatchLoader {
+
+    /**
+     * Returns true if the provided value of the association of the domain object has been loaded.
+     *
+     * @param domainModel
+     * @param property
+     * @param value
+     * @return
+     */
+    boolean isLoaded(Object domainModel, String property, Object value);
+
+    /**
+     * Loads all the provided associations in one round-trip and resolves each of them with its loaded value.
+     * Associations left unresolved keep their current value.
+     *
+     * @param associations
+     */
+    void load(List<UnresolvedAssociation> associations);
+}
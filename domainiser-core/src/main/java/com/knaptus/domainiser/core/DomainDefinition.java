@@ -7,13 +7,14 @@ import org.slf4j.LoggerFactory;
 
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Holds the RW properties for a domain Model and also provides information about the nested
@@ -27,26 +28,34 @@ public final class DomainDefinition<K> implements Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DomainDefinition.class);
     public static final String UNINITIALISED_ERROR_MESSAGE = "DomainDefinition has not been initiliased with a DomainResolver";
 
+    // separates the declaring class from the name of a field hidden by a sub class in AccessMode.FIELD
+    public static final String HIDDEN_FIELD_SEPARATOR = "#";
+
     private final Class<K> clazz;
 
-    private final Map<String, PropertyDefinition> properties;
+    private Map<String, PropertyDefinition> properties;
+
+    // properties in index order
+    private PropertyDefinition[] indexedProperties;
 
     private boolean isInitialised = false;
 
+    private AccessMode accessMode = AccessMode.PROPERTY;
+
+    // generated on first use, so definitions which are only inspected never load a class
+    private transient volatile PropertyTransfer propertyTransfer;
+
+    private transient volatile PropertyAccessor propertyAccessor;
+
     private DomainDefinition(Class<K> clazz) {
         this.clazz = clazz;
         properties = new HashMap<String, PropertyDefinition>();
+        indexedProperties = new PropertyDefinition[0];
     }
 
-    private static Lock domainResolverCacheLock = new ReentrantLock();
-    private static Lock classDefinitionCacheLock = new ReentrantLock();
-
-    private static final Map<DomainResolver, Map<Class<?>, DomainDefinition<?>>> CACHED_DEFINITIONS =
-            new WeakHashMap<DomainResolver, Map<Class<?>, DomainDefinition<?>>>();
-
-
     /**
-     * Provides instance of domain definition for the provided domain resolver.
+     * Provides instance of domain definition for the provided domain resolver. Definitions are cached per domain
+     * resolver and class; cached definitions are read without locking.
      *
      * @param clazz
      * @param domainResolver
@@ -54,112 +63,186 @@ public final class DomainDefinition<K> implements Serializable {
      * @return
      */
     public static <T> DomainDefinition<T> getInstance(Class<T> clazz, DomainResolver domainResolver) {
-        if (CACHED_DEFINITIONS.get(domainResolver) == null) {
-            domainResolverCacheLock.lock();
-            try {
-                if (CACHED_DEFINITIONS.get(domainResolver) == null) {
-                   CACHED_DEFINITIONS.put(domainResolver, new WeakHashMap<Class<?>, DomainDefinition<?>>());
-                }
-            } finally {
-                domainResolverCacheLock.unlock();
-            }
-        }
-
-        Map<Class<?>, DomainDefinition<?>> cachedClassDef =  CACHED_DEFINITIONS.get(domainResolver);
+        return DomainDefinitionCache.getInstance(clazz, domainResolver);
+    }
 
-        if(cachedClassDef.get(clazz) == null) {
-            classDefinitionCacheLock.lock();
+    /**
+     * Creates and initialises a new domain definition.
+     *
+     * @param clazz
+     * @param domainResolver
+     * @param <T>
+     * @return
+     */
+    static <T> DomainDefinition<T> create(Class<T> clazz, DomainResolver domainResolver) {
+        DomainDefinition<T> domainDefinition = new DomainDefinition<T>(clazz);
+        domainDefinition.init(domainResolver);
+        return domainDefinition;
+    }
 
-            try {
-                if(cachedClassDef.get(clazz) == null) {
-                    DomainDefinition<T> domainDefinition = new DomainDefinition<T>(clazz);
-                    domainDefinition.init(domainResolver);
-                    cachedClassDef.put(clazz, domainDefinition);
-                }
-            } finally {
-                classDefinitionCacheLock.unlock();
-            }
+    /**
+     * Restores a domain definition from previously resolved property metadata, without introspecting the class. All
+     * the arrays are indexed by property index.
+     *
+     * @param clazz
+     * @param names
+     * @param actualClasses
+     * @param domainClasses
+     * @param readMethods
+     * @param writeMethods
+     * @param <T>
+     * @return
+     */
+    static <T> DomainDefinition<T> restore(Class<T> clazz, String[] names, Class<?>[] actualClasses,
+                                           Class<?>[] domainClasses, Method[] readMethods, Method[] writeMethods) {
+        Map<String, PropertyDefinition> properties = new LinkedHashMap<String, PropertyDefinition>();
+        for (int i = 0; i < names.length; i++) {
+            properties.put(names[i], new PropertyDefinition(i, names[i], actualClasses[i], domainClasses[i],
+                    readMethods[i], writeMethods[i], null));
         }
 
-        return (DomainDefinition<T>) cachedClassDef.get(clazz);
+        DomainDefinition<T> domainDefinition = new DomainDefinition<T>(clazz);
+        domainDefinition.properties = properties;
+        domainDefinition.indexedProperties = properties.values().toArray(new PropertyDefinition[properties.size()]);
+        domainDefinition.isInitialised = true;
+        return domainDefinition;
     }
 
     /**
      * Initialises the domain definition with the properties and its types. This is critical for the functioning
-     * of utilities using this class.
+     * of utilities using this class. The property transfer and accessor generated for earlier properties are dropped.
      *
      * @param domainResolver
      */
     public void init(DomainResolver domainResolver) {
         Validate.notNull(domainResolver, "Domain resolver cannot be null");
 
-        LOGGER.info("Initialising Domain Definition for [{}]", getClazz());
-        PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(clazz);
-        if (propertyDescriptors != null) {
-
-            for(PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-
-                //process only readable and writable properties
-                if (propertyDescriptor.getReadMethod() != null
-                        && propertyDescriptor.getWriteMethod() != null) {
-
-                    Type type = propertyDescriptor.getReadMethod().getGenericReturnType();
-                    Class rawType = propertyDescriptor.getPropertyType();
-
-                    Class<?> domainClass = rawType; //default value
-                    boolean isUnknownType = false;
-
-                    if (type instanceof Class) {
-                        domainClass = (Class) type;
-                    } else if (type instanceof ParameterizedType) {
-                        Type[] actualTypeArguments = ((ParameterizedType) type).getActualTypeArguments();
-                        int underlyingTypeIndex = getUnderlyingTypeIndex(rawType);
-                        //extract underlying type
-                        if(actualTypeArguments.length > underlyingTypeIndex) {
-                            Type actualTypeArgument = actualTypeArguments[underlyingTypeIndex];
-                            if (actualTypeArgument instanceof Class) {
-                                domainClass = (Class<?>) actualTypeArgument;
-                            } else if (actualTypeArgument instanceof WildcardType) {
-                                WildcardType wildcardType = (WildcardType) actualTypeArgument;
-                                if (wildcardType.getLowerBounds() != null
-                                        && wildcardType.getLowerBounds().length == 1
-                                        && wildcardType.getLowerBounds()[0] instanceof Class) {
-                                    domainClass = (Class<?>) wildcardType.getLowerBounds()[0];
-                                } else if (wildcardType.getUpperBounds() != null
-                                        && wildcardType.getUpperBounds().length == 1
-                                        && wildcardType.getUpperBounds()[0] instanceof Class) {
-                                    domainClass = (Class<?>) wildcardType.getUpperBounds()[0];
-                                } else {
-                                    isUnknownType = true;
-                                }
-                            } else {
-                                isUnknownType = true;
-                            }
-
-                        } else {
-                            isUnknownType = true;
-                        }
-
-                    } else if (type instanceof WildcardType) {
-                        isUnknownType = true;
+        AccessMode mode = domainResolver instanceof AccessModeResolver
+                ? ((AccessModeResolver) domainResolver).getAccessMode(clazz) : null;
+        mode = mode == null ? AccessMode.PROPERTY : mode;
 
-                    } else if (type instanceof GenericArrayType) {
-                        isUnknownType = true;
+        LOGGER.info("Initialising Domain Definition for [{}] with [{}] access", getClazz(), mode);
+        Map<String, PropertyDefinition> properties = new LinkedHashMap<String, PropertyDefinition>();
+        if (mode == AccessMode.FIELD) {
+            initFields(properties, domainResolver);
+        } else {
+            PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(clazz);
+            if (propertyDescriptors != null) {
+                for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                    //process only readable and writable properties
+                    if (propertyDescriptor.getReadMethod() != null
+                            && propertyDescriptor.getWriteMethod() != null) {
+                        addProperty(properties, propertyDescriptor.getName(),
+                                propertyDescriptor.getReadMethod().getGenericReturnType(),
+                                propertyDescriptor.getPropertyType(), propertyDescriptor.getReadMethod(),
+                                propertyDescriptor.getWriteMethod(), null, domainResolver);
                     }
+                }
+            }
+        }
+
+        synchronized (this) {
+            this.accessMode = mode;
+            this.properties = properties;
+            this.indexedProperties = properties.values().toArray(new PropertyDefinition[properties.size()]);
+            // generated for the earlier property indexes
+            this.propertyTransfer = null;
+            this.propertyAccessor = null;
+            isInitialised = true;
+        }
+    }
+
+    private void initFields(Map<String, PropertyDefinition> properties, DomainResolver domainResolver) {
+        for (Class<?> declaringClass = clazz; declaringClass != null && declaringClass != Object.class;
+             declaringClass = declaringClass.getSuperclass()) {
+            for (Field field : declaringClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)
+                        || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                } catch (SecurityException e) {
+                    throw new IllegalArgumentException("Cannot access field " + field.getName() + " of " + clazz, e);
+                }
+                addProperty(properties, getFieldPropertyName(properties, field), field.getGenericType(),
+                        field.getType(), null, null, field, domainResolver);
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the field, qualified as SimpleName#field by its declaring class when the field is hidden by
+     * a field of the same name of a sub class, and by the fully qualified name of its declaring class if need be.
+     *
+     * @param properties
+     * @param field
+     * @return
+     */
+    private static String getFieldPropertyName(Map<String, PropertyDefinition> properties, Field field) {
+        String name = field.getName();
+        if (properties.containsKey(name)) {
+            name = field.getDeclaringClass().getSimpleName() + HIDDEN_FIELD_SEPARATOR + field.getName();
+            if (properties.containsKey(name)) {
+                name = field.getDeclaringClass().getName() + HIDDEN_FIELD_SEPARATOR + field.getName();
+            }
+        }
+        return name;
+    }
 
-                    if (domainClass!= null && domainResolver.isDomainModel(domainClass)) {
-                        properties.put(propertyDescriptor.getName(), new PropertyDefinition(propertyDescriptor.getPropertyType(), domainClass));
-                    } else if (isUnknownType || domainClass.equals(Object.class)) {
-                        LOGGER.warn("Unknown property type [{}]; for method [{}]", type, propertyDescriptor.getReadMethod());
-                        properties.put(propertyDescriptor.getName(), new PropertyDefinition(propertyDescriptor.getPropertyType(), domainClass));
+    private void addProperty(Map<String, PropertyDefinition> properties, String name, Type type, Class rawType,
+                             Method readMethod, Method writeMethod, Field field, DomainResolver domainResolver) {
+        Class<?> domainClass = rawType; //default value
+        boolean isUnknownType = false;
+
+        if (type instanceof Class) {
+            domainClass = (Class) type;
+        } else if (type instanceof ParameterizedType) {
+            Type[] actualTypeArguments = ((ParameterizedType) type).getActualTypeArguments();
+            int underlyingTypeIndex = getUnderlyingTypeIndex(rawType);
+            //extract underlying type
+            if(actualTypeArguments.length > underlyingTypeIndex) {
+                Type actualTypeArgument = actualTypeArguments[underlyingTypeIndex];
+                if (actualTypeArgument instanceof Class) {
+                    domainClass = (Class<?>) actualTypeArgument;
+                } else if (actualTypeArgument instanceof WildcardType) {
+                    WildcardType wildcardType = (WildcardType) actualTypeArgument;
+                    if (wildcardType.getLowerBounds() != null
+                            && wildcardType.getLowerBounds().length == 1
+                            && wildcardType.getLowerBounds()[0] instanceof Class) {
+                        domainClass = (Class<?>) wildcardType.getLowerBounds()[0];
+                    } else if (wildcardType.getUpperBounds() != null
+                            && wildcardType.getUpperBounds().length == 1
+                            && wildcardType.getUpperBounds()[0] instanceof Class) {
+                        domainClass = (Class<?>) wildcardType.getUpperBounds()[0];
                     } else {
-                        properties.put(propertyDescriptor.getName(), new PropertyDefinition(propertyDescriptor.getPropertyType(), null));
+                        isUnknownType = true;
                     }
+                } else {
+                    isUnknownType = true;
                 }
+
+            } else {
+                isUnknownType = true;
             }
+
+        } else if (type instanceof WildcardType) {
+            isUnknownType = true;
+
+        } else if (type instanceof GenericArrayType) {
+            isUnknownType = true;
         }
 
-        isInitialised = true;
+        int index = properties.size();
+        if (domainClass!= null && domainResolver.isDomainModel(domainClass)) {
+            properties.put(name, new PropertyDefinition(index, name, rawType, domainClass, readMethod, writeMethod, field));
+        } else if (isUnknownType || domainClass.equals(Object.class)) {
+            LOGGER.warn("Unknown property type [{}]; for property [{}] of [{}]", new Object[]{type, name, clazz});
+            properties.put(name, new PropertyDefinition(index, name, rawType, domainClass, readMethod, writeMethod, field));
+        } else {
+            properties.put(name, new PropertyDefinition(index, name, rawType, null, readMethod, writeMethod, field));
+        }
     }
 
     private int getUnderlyingTypeIndex(Class wrappingClass) {
@@ -187,6 +270,121 @@ public final class DomainDefinition<K> implements Serializable {
         return properties.keySet();
     }
 
+    /**
+     * Returns the number of read-write properties. Properties are indexed from 0 to count - 1.
+     *
+     * @return
+     */
+    public int getPropertyCount() {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties.length;
+    }
+
+    /**
+     * Returns the index of the provided property or -1 if the property doesn't exist.
+     *
+     * @param property
+     * @return
+     */
+    public int getPropertyIndex(String property) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        PropertyDefinition propertyDefinition = properties.get(property);
+        if (propertyDefinition != null) {
+            return propertyDefinition.index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the name of the property at the provided index.
+     *
+     * @param index
+     * @return
+     */
+    public String getPropertyName(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].name;
+    }
+
+    /**
+     * Returns the Class type of the property at the provided index, if the property is a domain object. Otherwise
+     * null is returned.
+     *
+     * @param index
+     * @return
+     */
+    public Class<?> getUnderlyingDomainModel(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].domainClass;
+    }
+
+    /**
+     * Returns the actual Class of the property at the provided index i.e. List, Map or specific class if property is
+     * an association.
+     *
+     * @param index
+     * @return
+     */
+    public Class<?> getActualClass(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].actualClass;
+    }
+
+    /**
+     * Returns the {@link ValueType} of the simple property at the provided index, as classified by the
+     * {@link ValueTypeRegistry} from its actual class.
+     *
+     * @param index
+     * @return
+     */
+    public ValueType getValueType(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return ValueTypeRegistry.getInstance().getValueType(indexedProperties[index].actualClass);
+    }
+
+    /**
+     * Returns the read method of the property at the provided index, null in {@link AccessMode#FIELD} mode.
+     *
+     * @param index
+     * @return
+     */
+    public Method getReadMethod(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].readMethod;
+    }
+
+    /**
+     * Returns the write method of the property at the provided index, null in {@link AccessMode#FIELD} mode.
+     *
+     * @param index
+     * @return
+     */
+    public Method getWriteMethod(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].writeMethod;
+    }
+
+    /**
+     * Returns the accessible field of the property at the provided index, null in {@link AccessMode#PROPERTY} mode.
+     *
+     * @param index
+     * @return
+     */
+    public Field getField(int index) {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return indexedProperties[index].field;
+    }
+
+    /**
+     * Returns how the properties of the domain class are discovered and accessed.
+     *
+     * @return
+     */
+    public AccessMode getAccessMode() {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        return accessMode;
+    }
+
     /**
      * Returns the Class type of the provided property, if the property is a domain object. Otherwise null is returned.
      *
@@ -217,6 +415,78 @@ public final class DomainDefinition<K> implements Serializable {
         return null;
     }
 
+    /**
+     * Returns the transfer copying the simple properties, i.e. the properties which are not domain models, between
+     * domain models of this definition. Primitive properties are copied through their typed accessors, or typed field
+     * accessors in {@link AccessMode#FIELD} mode, without boxing.
+     * The transfer is generated on first use and then kept by the definition.
+     *
+     * @return
+     */
+    public PropertyTransfer getPropertyTransfer() {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        PropertyTransfer transfer = propertyTransfer;
+        if (transfer == null) {
+            synchronized (this) {
+                transfer = propertyTransfer;
+                if (transfer == null) {
+                    LOGGER.info("Generating property transfer for [{}]", clazz);
+                    transfer = accessMode == AccessMode.FIELD
+                            ? new FieldPropertyTransfer(this) : new PropertyTransferGenerator(this).create();
+                    propertyTransfer = transfer;
+                }
+            }
+        }
+        return transfer;
+    }
+
+    /**
+     * Returns the accessor reading and writing the properties of domain models of this definition by index. The
+     * accessor calls the read and write methods directly, or the fields in {@link AccessMode#FIELD} mode.
+     * The accessor is generated on first use and then kept by the definition.
+     *
+     * @return
+     */
+    public PropertyAccessor getPropertyAccessor() {
+        Validate.isTrue(isInitialised, UNINITIALISED_ERROR_MESSAGE);
+        PropertyAccessor accessor = propertyAccessor;
+        if (accessor == null) {
+            synchronized (this) {
+                accessor = propertyAccessor;
+                if (accessor == null) {
+                    LOGGER.info("Generating property accessor for [{}]", clazz);
+                    accessor = accessMode == AccessMode.FIELD
+                            ? new FieldPropertyAccessor(this) : new PropertyAccessorGenerator(this).create();
+                    propertyAccessor = accessor;
+                }
+            }
+        }
+        return accessor;
+    }
+
+    /**
+     * Returns the value of the property at the provided index of the domain model, primitive values are boxed.
+     *
+     * @param domainModel
+     * @param index
+     * @return
+     */
+    public Object getValue(K domainModel, int index) {
+        return getPropertyAccessor().getValue(domainModel, index);
+    }
+
+    /**
+     * Sets the value of the property at the provided index of the domain model. Null is set to primitive properties as
+     * zero or false.
+     *
+     * @param domainModel
+     * @param index
+     * @param value
+     */
+    public void setValue(K domainModel, int index, Object value) {
+        getPropertyAccessor().setValue(domainModel, index, value);
+    }
+
     /**
      * Returns the domain object class of the domain definition.
      *
@@ -230,12 +500,23 @@ public final class DomainDefinition<K> implements Serializable {
      * Holds the property specific information.
      */
     private static final class PropertyDefinition {
+        private final int index;
+        private final String name;
         private Class<?> actualClass;
         private Class<?> domainClass;
-
-        private PropertyDefinition(Class<?> actualClass, Class<?> domainClass) {
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Field field;
+
+        private PropertyDefinition(int index, String name, Class<?> actualClass, Class<?> domainClass,
+                                   Method readMethod, Method writeMethod, Field field) {
+            this.index = index;
+            this.name = name;
             this.actualClass = actualClass;
             this.domainClass = domainClass;
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            this.field = field;
         }
     }
 }
@@ -0,0 +1,155 @@
+package com.knaptus.domainiser.core;
+
+import org.apache.commons.lang.Validate;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches domain definitions per domain resolver and class.
+ * <p>Cached definitions are read without locking. Domain resolvers are weakly referenced and definitions are
+ * attached to their classes through {@link ClassValue}, so neither unused resolvers nor classes of undeployed class
+ * loaders are kept in memory. A missing definition is introspected under a lock of its own class only, so unrelated
+ * classes are introspected in parallel.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class DomainDefinitionCache {
+
+    private static final ConcurrentMap<ResolverKey, ResolverDefinitions> CACHED_DEFINITIONS =
+            new ConcurrentHashMap<ResolverKey, ResolverDefinitions>();
+
+    private static final ReferenceQueue<DomainResolver> STALE_RESOLVERS = new ReferenceQueue<DomainResolver>();
+
+    private DomainDefinitionCache() {
+    }
+
+    /**
+     * Returns the cached domain definition, creating it if it doesn't exist yet.
+     *
+     * @param clazz
+     * @param domainResolver
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static <T> DomainDefinition<T> getInstance(Class<T> clazz, DomainResolver domainResolver) {
+        Validate.notNull(clazz, "Domain class cannot be null");
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+
+        ResolverDefinitions resolverDefinitions = CACHED_DEFINITIONS.get(new ResolverKey(domainResolver, null));
+        if (resolverDefinitions == null) {
+            resolverDefinitions = register(domainResolver);
+        }
+        return (DomainDefinition<T>) resolverDefinitions.get(clazz).get(clazz, domainResolver);
+    }
+
+    /**
+     * Caches the provided domain definition unless a definition of the same class is already cached.
+     *
+     * @param domainDefinition
+     * @param domainResolver
+     * @return true if the provided definition was cached
+     */
+    static boolean putIfAbsent(DomainDefinition<?> domainDefinition, DomainResolver domainResolver) {
+        Validate.notNull(domainDefinition, "Domain definition cannot be null");
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+
+        ResolverDefinitions resolverDefinitions = CACHED_DEFINITIONS.get(new ResolverKey(domainResolver, null));
+        if (resolverDefinitions == null) {
+            resolverDefinitions = register(domainResolver);
+        }
+        return resolverDefinitions.get(domainDefinition.getClazz()).putIfAbsent(domainDefinition);
+    }
+
+    private static ResolverDefinitions register(DomainResolver domainResolver) {
+        expungeStaleResolvers();
+
+        ResolverDefinitions resolverDefinitions = new ResolverDefinitions();
+        ResolverDefinitions existingDefinitions =
+                CACHED_DEFINITIONS.putIfAbsent(new ResolverKey(domainResolver, STALE_RESOLVERS), resolverDefinitions);
+        return existingDefinitions != null ? existingDefinitions : resolverDefinitions;
+    }
+
+    private static void expungeStaleResolvers() {
+        Reference<? extends DomainResolver> staleResolver;
+        while ((staleResolver = STALE_RESOLVERS.poll()) != null) {
+            CACHED_DEFINITIONS.remove(staleResolver);
+        }
+    }
+
+    /**
+     * Weak key of a domain resolver, equal to keys of equal domain resolvers.
+     */
+    private static final class ResolverKey extends WeakReference<DomainResolver> {
+
+        private final int hashCode;
+
+        private ResolverKey(DomainResolver domainResolver, ReferenceQueue<DomainResolver> queue) {
+            super(domainResolver, queue);
+            this.hashCode = domainResolver.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResolverKey)) {
+                return false;
+            }
+            DomainResolver domainResolver = get();
+            return domainResolver != null && domainResolver.equals(((ResolverKey) o).get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Domain definitions of a single domain resolver, attached to the classes they are defined for.
+     */
+    private static final class ResolverDefinitions extends ClassValue<DefinitionHolder> {
+
+        @Override
+        protected DefinitionHolder computeValue(Class<?> type) {
+            return new DefinitionHolder();
+        }
+    }
+
+    /**
+     * Holds the domain definition of a single class, initialising it once.
+     */
+    private static final class DefinitionHolder {
+
+        private volatile DomainDefinition<?> domainDefinition;
+
+        private DomainDefinition<?> get(Class<?> clazz, DomainResolver domainResolver) {
+            DomainDefinition<?> definition = domainDefinition;
+            if (definition == null) {
+                synchronized (this) {
+                    definition = domainDefinition;
+                    if (definition == null) {
+                        definition = DomainDefinition.create(clazz, domainResolver);
+                        domainDefinition = definition;
+                    }
+                }
+            }
+            return definition;
+        }
+
+        private synchronized boolean putIfAbsent(DomainDefinition<?> definition) {
+            if (domainDefinition == null) {
+                domainDefinition = definition;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.knaptus.domainiser.core;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes resolved domain definitions to a compact binary index and loads them back, so that a later JVM start doesn't
+ * need to introspect the domain classes again.
+ * <p>Every indexed class carries a fingerprint of its public accessors. Loading an entry only looks up the indexed
+ * accessor methods and compares the fingerprint; entries of classes which have changed or can no longer be loaded are
+ * skipped and introspected as usual when first needed. Definitions in field access mode are not indexed.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class DomainDefinitionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainDefinitionIndex.class);
+
+    private static final int MAGIC = 0x444D4958;
+
+    private static final short VERSION = 2;
+
+    private static final String NO_CLASS = "";
+
+    private static final Map<String, Class<?>> PRIMITIVE_CLASSES = new HashMap<String, Class<?>>();
+
+    static {
+        for (Class<?> primitiveClass : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class}) {
+            PRIMITIVE_CLASSES.put(primitiveClass.getName(), primitiveClass);
+        }
+    }
+
+    private DomainDefinitionIndex() {
+    }
+
+    /**
+     * Writes the provided domain definitions, resolved with the provided domain resolver, to the output stream. The
+     * stream is flushed but not closed.
+     *
+     * @param domainDefinitions
+     * @param domainResolver
+     * @param outputStream
+     * @throws IOException
+     */
+    public static void write(Collection<? extends DomainDefinition<?>> domainDefinitions, DomainResolver domainResolver,
+                             OutputStream outputStream) throws IOException {
+        Validate.notNull(domainDefinitions, "Domain definitions cannot be null");
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeUTF(domainResolver.getClass().getName());
+
+        // definitions in field access mode are introspected again, they have no accessors to look up
+        List<DomainDefinition<?>> indexedDefinitions = new ArrayList<DomainDefinition<?>>();
+        for (DomainDefinition<?> domainDefinition : domainDefinitions) {
+            if (domainDefinition.getAccessMode() == AccessMode.PROPERTY) {
+                indexedDefinitions.add(domainDefinition);
+            }
+        }
+        output.writeInt(indexedDefinitions.size());
+
+        for (DomainDefinition<?> domainDefinition : indexedDefinitions) {
+            Class<?> clazz = domainDefinition.getClazz();
+            output.writeUTF(clazz.getName());
+            output.writeLong(fingerprint(clazz));
+
+            int propertyCount = domainDefinition.getPropertyCount();
+            output.writeShort(propertyCount);
+            for (int i = 0; i < propertyCount; i++) {
+                Class<?> domainClass = domainDefinition.getUnderlyingDomainModel(i);
+                output.writeUTF(domainDefinition.getPropertyName(i));
+                output.writeUTF(domainDefinition.getActualClass(i).getName());
+                output.writeUTF(domainClass == null ? NO_CLASS : domainClass.getName());
+                output.writeUTF(domainDefinition.getReadMethod(i).getName());
+                output.writeUTF(domainDefinition.getWriteMethod(i).getName());
+            }
+        }
+        output.flush();
+        LOGGER.info("Domain definition index written for [{}] classes", indexedDefinitions.size());
+    }
+
+    /**
+     * Loads the domain definitions from the input stream and caches them for the provided domain resolver. Classes
+     * are loaded with the provided class loader. The stream is not closed.
+     *
+     * @param inputStream
+     * @param domainResolver
+     * @param classLoader
+     * @return number of domain definitions loaded
+     * @throws IOException if the stream is not a domain definition index
+     */
+    public static int load(InputStream inputStream, DomainResolver domainResolver, ClassLoader classLoader)
+            throws IOException {
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+        Validate.notNull(classLoader, "Class loader cannot be null");
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a domain definition index");
+        }
+        short version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported domain definition index version: " + version);
+        }
+
+        String resolverClassName = input.readUTF();
+        if (!resolverClassName.equals(domainResolver.getClass().getName())) {
+            LOGGER.warn("Domain definition index was written for resolver [{}]; ignoring it for [{}]",
+                    resolverClassName, domainResolver.getClass().getName());
+            return 0;
+        }
+
+        int loaded = 0;
+        int definitionCount = input.readInt();
+        for (int i = 0; i < definitionCount; i++) {
+            String className = input.readUTF();
+            long fingerprint = input.readLong();
+            int propertyCount = input.readShort();
+            String[][] properties = new String[propertyCount][];
+            for (int j = 0; j < propertyCount; j++) {
+                properties[j] = new String[]{input.readUTF(), input.readUTF(), input.readUTF(), input.readUTF(),
+                        input.readUTF()};
+            }
+
+            DomainDefinition<?> domainDefinition = restore(className, fingerprint, properties, domainResolver, classLoader);
+            if (domainDefinition != null && DomainDefinitionCache.putIfAbsent(domainDefinition, domainResolver)) {
+                loaded++;
+            }
+        }
+        LOGGER.info("Domain definition index loaded [{}] of [{}] classes", loaded, definitionCount);
+        return loaded;
+    }
+
+    private static DomainDefinition<?> restore(String className, long fingerprint, String[][] properties,
+                                               DomainResolver domainResolver, ClassLoader classLoader) {
+        try {
+            Class<?> clazz = loadClass(className, classLoader);
+            if (domainResolver instanceof AccessModeResolver
+                    && ((AccessModeResolver) domainResolver).getAccessMode(clazz) == AccessMode.FIELD) {
+                LOGGER.warn("Domain class [{}] is now accessed through its fields", className);
+                return null;
+            }
+            if (fingerprint(clazz) != fingerprint) {
+                LOGGER.warn("Domain class [{}] has changed since it was indexed", className);
+                return null;
+            }
+
+            int propertyCount = properties.length;
+            String[] names = new String[propertyCount];
+            Class<?>[] actualClasses = new Class<?>[propertyCount];
+            Class<?>[] domainClasses = new Class<?>[propertyCount];
+            Method[] readMethods = new Method[propertyCount];
+            Method[] writeMethods = new Method[propertyCount];
+            for (int i = 0; i < propertyCount; i++) {
+                String[] property = properties[i];
+                names[i] = property[0];
+                actualClasses[i] = loadClass(property[1], classLoader);
+                domainClasses[i] = NO_CLASS.equals(property[2]) ? null : loadClass(property[2], classLoader);
+                readMethods[i] = clazz.getMethod(property[3]);
+                writeMethods[i] = clazz.getMethod(property[4], actualClasses[i]);
+
+                if (readMethods[i].getReturnType() != actualClasses[i]) {
+                    LOGGER.warn("Property [{}] of [{}] has changed since it was indexed", names[i], className);
+                    return null;
+                }
+                if (domainClasses[i] != null && !domainClasses[i].equals(Object.class)
+                        && !domainResolver.isDomainModel(domainClasses[i])) {
+                    LOGGER.warn("Property [{}] of [{}] is no longer a domain model", names[i], className);
+                    return null;
+                }
+            }
+            return DomainDefinition.restore(clazz, names, actualClasses, domainClasses, readMethods, writeMethods);
+        } catch (ClassNotFoundException e) {
+            LOGGER.warn("Indexed domain class [{}] cannot be loaded: {}", className, e.getMessage());
+        } catch (NoSuchMethodException e) {
+            LOGGER.warn("Indexed domain class [{}] has changed: {}", className, e.getMessage());
+        }
+        return null;
+    }
+
+    private static Class<?> loadClass(String className, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitiveClass = PRIMITIVE_CLASSES.get(className);
+        if (primitiveClass != null) {
+            return primitiveClass;
+        }
+        return Class.forName(className, false, classLoader);
+    }
+
+    /**
+     * Computes a fingerprint of the public accessors of the class, independent of the order they are reported in.
+     * Generic types are part of the fingerprint, so changing the element type of a collection changes it too.
+     *
+     * @param clazz
+     * @return
+     */
+    static long fingerprint(Class<?> clazz) {
+        long fingerprint = 0;
+        for (Method method : clazz.getMethods()) {
+            String name = method.getName();
+            if (name.startsWith("get") || name.startsWith("is") || name.startsWith("set")) {
+                long methodHash = name.hashCode();
+                methodHash = 31 * methodHash + typeName(method.getGenericReturnType()).hashCode();
+                for (Type parameterType : method.getGenericParameterTypes()) {
+                    methodHash = 31 * methodHash + typeName(parameterType).hashCode();
+                }
+                fingerprint += methodHash * 0x9E3779B97F4A7C15L;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static String typeName(Type type) {
+        return type instanceof Class ? ((Class<?>) type).getName() : type.toString();
+    }
+}
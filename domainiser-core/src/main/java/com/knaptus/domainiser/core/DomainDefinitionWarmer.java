@@ -0,0 +1,249 @@
+package com.knaptus.domainiser.core;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Builds the domain definitions of a domain model up front, typically while the application starts, so that the first
+ * walks don't pay for introspecting the domain classes.
+ * <p>Starting from root classes, or all the domain classes of a package, the warmer follows the domain associations
+ * identified by the {@link DomainResolver} and builds the definitions in parallel. The warmed definitions can be
+ * written to an index with {@link DomainDefinitionIndex}.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class DomainDefinitionWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainDefinitionWarmer.class);
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final DomainResolver domainResolver;
+
+    // when not set a pool is created for every warm up
+    private ExecutorService executorService;
+
+    private ClassLoader classLoader;
+
+    public DomainDefinitionWarmer(DomainResolver domainResolver) {
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+        this.domainResolver = domainResolver;
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * Warms up the domain definitions of the provided classes and all the domain classes reachable from them.
+     *
+     * @param rootClasses
+     * @return all the warmed up domain definitions
+     */
+    public List<DomainDefinition<?>> warmUp(Class<?>... rootClasses) {
+        return warmUp(Arrays.asList(rootClasses));
+    }
+
+    /**
+     * Warms up the domain definitions of the provided classes and all the domain classes reachable from them.
+     *
+     * @param rootClasses
+     * @return all the warmed up domain definitions
+     */
+    public List<DomainDefinition<?>> warmUp(Collection<Class<?>> rootClasses) {
+        Validate.notNull(rootClasses, "Root classes cannot be null");
+
+        ExecutorService executor = executorService;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+        try {
+            return warmUp(rootClasses, executor);
+        } finally {
+            if (executor != executorService) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private List<DomainDefinition<?>> warmUp(Collection<Class<?>> rootClasses, ExecutorService executor) {
+        long start = System.currentTimeMillis();
+        CompletionService<DomainDefinition<?>> completionService = new ExecutorCompletionService<DomainDefinition<?>>(executor);
+        Set<Class<?>> submittedClasses = new HashSet<Class<?>>();
+        List<DomainDefinition<?>> domainDefinitions = new ArrayList<DomainDefinition<?>>();
+
+        int pending = 0;
+        for (Class<?> rootClass : rootClasses) {
+            if (submittedClasses.add(rootClass)) {
+                completionService.submit(new DefinitionTask(rootClass));
+                pending++;
+            }
+        }
+
+        try {
+            while (pending > 0) {
+                DomainDefinition<?> domainDefinition = completionService.take().get();
+                pending--;
+                domainDefinitions.add(domainDefinition);
+
+                for (int i = 0; i < domainDefinition.getPropertyCount(); i++) {
+                    Class<?> domainClass = domainDefinition.getUnderlyingDomainModel(i);
+                    if (domainClass != null && domainResolver.isDomainModel(domainClass)
+                            && submittedClasses.add(domainClass)) {
+                        completionService.submit(new DefinitionTask(domainClass));
+                        pending++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while warming up domain definitions", e);
+        } catch (ExecutionException e) {
+            LOGGER.error("Domain definitions cannot be warmed up", e.getCause());
+            throw new IllegalArgumentException("Cannot warm up domain definition", e.getCause());
+        }
+
+        LOGGER.info("Warmed up [{}] domain definitions in [{}] ms", domainDefinitions.size(), System.currentTimeMillis() - start);
+        return domainDefinitions;
+    }
+
+    /**
+     * Warms up the domain definitions of all the domain classes found in the provided package, its sub packages and
+     * all the domain classes reachable from them.
+     *
+     * @param packageName
+     * @return all the warmed up domain definitions
+     */
+    public List<DomainDefinition<?>> warmUpPackage(String packageName) {
+        return warmUp(findDomainClasses(packageName));
+    }
+
+    /**
+     * Finds the domain classes in the provided package and its sub packages. Both directories and jar files on the
+     * class path are scanned.
+     *
+     * @param packageName
+     * @return
+     */
+    public List<Class<?>> findDomainClasses(String packageName) {
+        Validate.notNull(packageName, "Package name cannot be null");
+
+        String packagePath = packageName.replace('.', '/');
+        Set<String> classNames = new HashSet<String>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(packagePath);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                URLConnection connection = resource.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    findClassNames(((JarURLConnection) connection).getJarFile(), packagePath, classNames);
+                } else if ("file".equals(resource.getProtocol())) {
+                    findClassNames(new File(resource.toURI()), packageName, classNames);
+                } else {
+                    LOGGER.warn("Cannot scan [{}] for domain classes", resource);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot scan package " + packageName, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Cannot scan package " + packageName, e);
+        }
+
+        List<Class<?>> domainClasses = new ArrayList<Class<?>>();
+        for (String className : classNames) {
+            try {
+                Class<?> clazz = Class.forName(className, false, classLoader);
+                if (!clazz.isInterface() && !clazz.isAnonymousClass() && !clazz.isAnnotation() && !clazz.isEnum()
+                        && domainResolver.isDomainModel(clazz)) {
+                    domainClasses.add(clazz);
+                }
+            } catch (ClassNotFoundException e) {
+                LOGGER.warn("Class [{}] cannot be loaded", className);
+            } catch (LinkageError e) {
+                LOGGER.warn("Class [{}] cannot be linked: {}", className, e.getMessage());
+            }
+        }
+        return domainClasses;
+    }
+
+    private void findClassNames(File directory, String packageName, Set<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                if (file.isDirectory()) {
+                    findClassNames(file, packageName + "." + fileName, classNames);
+                } else if (fileName.endsWith(CLASS_FILE_SUFFIX)) {
+                    classNames.add(packageName + "." + fileName.substring(0, fileName.length() - CLASS_FILE_SUFFIX.length()));
+                }
+            }
+        }
+    }
+
+    private void findClassNames(JarFile jarFile, String packagePath, Set<String> classNames) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            String entryName = entries.nextElement().getName();
+            if (entryName.startsWith(packagePath + "/") && entryName.endsWith(CLASS_FILE_SUFFIX)) {
+                classNames.add(entryName.substring(0, entryName.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.'));
+            }
+        }
+    }
+
+    /**
+     * Sets the executor the definitions are built with. The executor is not shut down by the warmer.
+     *
+     * @param executorService
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Sets the class loader packages are scanned with. Defaults to the context class loader.
+     *
+     * @param classLoader
+     */
+    public void setClassLoader(ClassLoader classLoader) {
+        Validate.notNull(classLoader, "Class loader cannot be null");
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Builds the domain definition of a single class.
+     */
+    private final class DefinitionTask implements Callable<DomainDefinition<?>> {
+
+        private final Class<?> clazz;
+
+        private DefinitionTask(Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public DomainDefinition<?> call() throws Exception {
+            return DomainDefinition.getInstance(clazz, domainResolver);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.knaptus.domainiser.core;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -94,4 +95,42 @@ public interface DomainWalker {
      */
     <K, V> Map<K, V> walkMap(Map<K, V> domainModels, Class<V> clazz);
 
+    /**
+     * Walks domain objects lazily with the provided domain graph def. Every domain object is walked when the returned
+     * iterator reaches it, independently of the other domain objects, so neither the domain objects nor the results
+     * need to be held in memory together.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    <T> Iterator<T> walkIterator(Iterator<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition);
+
+    /**
+     * Walks domain objects lazily with the provided domain graph def, see {@link #walkIterator(Iterator,
+     * DomainGraphDefinition)}.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    <T> Iterable<T> walkIterable(Iterable<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition);
+
+    /**
+     * Walks domain objects lazily in chunks of the provided size with the provided domain graph def. Domain objects
+     * reachable from several domain objects of a chunk are walked once. The state of the walk is dropped between
+     * chunks when resetBetweenChunks is true, keeping memory flat; otherwise it is kept for the whole iteration.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param chunkSize
+     * @param resetBetweenChunks
+     * @param <T>
+     * @return
+     */
+    <T> Iterator<List<T>> walkChunks(Iterator<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition,
+                                     int chunkSize, boolean resetBetweenChunks);
+
 }
@@ -0,0 +1,52 @@
+package com.knaptus.domainiser.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the properties of domain classes in {@link AccessMode#FIELD} mode through their fields.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class FieldPropertyAccessor extends PropertyAccessor {
+
+    private final Field[] fields;
+
+    FieldPropertyAccessor(DomainDefinition<?> domainDefinition) {
+        this.fields = new Field[domainDefinition.getPropertyCount()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = domainDefinition.getField(i);
+        }
+    }
+
+    @Override
+    public Object getValue(Object domainModel, int index) {
+        try {
+            return getField(index).get(domainModel);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the domain field " + fields[index].getName(), e);
+        }
+    }
+
+    @Override
+    public void setValue(Object domainModel, int index, Object value) {
+        Field field = getField(index);
+        try {
+            if (value == null && field.getType().isPrimitive()) {
+                // like generated accessors, null is written to primitives as zero or false
+                value = Array.get(Array.newInstance(field.getType(), 1), 0);
+            }
+            field.set(domainModel, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the domain field " + field.getName(), e);
+        }
+    }
+
+    private Field getField(int index) {
+        if (index < 0 || index >= fields.length) {
+            throw new IllegalArgumentException("Unknown property index");
+        }
+        return fields[index];
+    }
+}
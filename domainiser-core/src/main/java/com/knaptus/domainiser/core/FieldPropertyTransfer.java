@@ -0,0 +1,104 @@
+package com.knaptus.domainiser.core;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies the simple properties of domain classes in {@link AccessMode#FIELD} mode through their fields. Primitive
+ * fields are copied with the typed field accessors, so their values are never boxed.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class FieldPropertyTransfer extends PropertyTransfer {
+
+    private static final int OBJECT = 0;
+    private static final int BOOLEAN = 1;
+    private static final int BYTE = 2;
+    private static final int CHAR = 3;
+    private static final int SHORT = 4;
+    private static final int INT = 5;
+    private static final int LONG = 6;
+    private static final int FLOAT = 7;
+    private static final int DOUBLE = 8;
+
+    private final Field[] fields;
+
+    // kind of every field, one of the constants above
+    private final int[] kinds;
+
+    FieldPropertyTransfer(DomainDefinition<?> domainDefinition) {
+        List<Field> simpleFields = new ArrayList<Field>();
+        for (int i = 0; i < domainDefinition.getPropertyCount(); i++) {
+            if (domainDefinition.getUnderlyingDomainModel(i) == null) {
+                simpleFields.add(domainDefinition.getField(i));
+            }
+        }
+        this.fields = simpleFields.toArray(new Field[simpleFields.size()]);
+        this.kinds = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            kinds[i] = kindOf(fields[i].getType());
+        }
+    }
+
+    private static int kindOf(Class<?> type) {
+        if (type == boolean.class) {
+            return BOOLEAN;
+        } else if (type == byte.class) {
+            return BYTE;
+        } else if (type == char.class) {
+            return CHAR;
+        } else if (type == short.class) {
+            return SHORT;
+        } else if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == double.class) {
+            return DOUBLE;
+        }
+        return OBJECT;
+    }
+
+    @Override
+    public void copy(Object source, Object target) {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                switch (kinds[i]) {
+                    case BOOLEAN:
+                        field.setBoolean(target, field.getBoolean(source));
+                        break;
+                    case BYTE:
+                        field.setByte(target, field.getByte(source));
+                        break;
+                    case CHAR:
+                        field.setChar(target, field.getChar(source));
+                        break;
+                    case SHORT:
+                        field.setShort(target, field.getShort(source));
+                        break;
+                    case INT:
+                        field.setInt(target, field.getInt(source));
+                        break;
+                    case LONG:
+                        field.setLong(target, field.getLong(source));
+                        break;
+                    case FLOAT:
+                        field.setFloat(target, field.getFloat(source));
+                        break;
+                    case DOUBLE:
+                        field.setDouble(target, field.getDouble(source));
+                        break;
+                    default:
+                        field.set(target, field.get(source));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the domain fields", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * Reads and writes the properties of domain models of a single domain class by property index. Implementations are
+ * generated per domain class by {@link DomainDefinition#getPropertyAccessor()} and call the accessors directly, or
+ * access the fields in {@link AccessMode#FIELD} mode, so walkers don't need reflection of their own.
+ * <p>Primitive values are boxed; null is written to primitive properties as zero or false.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public abstract class PropertyAccessor {
+
+    /**
+     * Reads the property at the provided index.
+     *
+     * @param domainModel
+     * @param index
+     * @return
+     * @throws IllegalArgumentException if there is no property at the index
+     */
+    public abstract Object getValue(Object domainModel, int index);
+
+    /**
+     * Writes the property at the provided index.
+     *
+     * @param domainModel
+     * @param index
+     * @param value
+     * @throws IllegalArgumentException if there is no property at the index
+     */
+    public abstract void setValue(Object domainModel, int index, Object value);
+}
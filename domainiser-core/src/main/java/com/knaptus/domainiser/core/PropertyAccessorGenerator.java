@@ -0,0 +1,139 @@
+package com.knaptus.domainiser.core;
+
+import net.sf.cglib.asm.ClassVisitor;
+import net.sf.cglib.asm.Label;
+import net.sf.cglib.asm.Type;
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.EmitUtils;
+import net.sf.cglib.core.ProcessSwitchCallback;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+
+import java.lang.reflect.Method;
+
+/**
+ * Generates the {@link PropertyAccessor} of a domain definition in {@link AccessMode#PROPERTY} mode. Both methods
+ * switch on the property index and invoke the read or write method of the property directly.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class PropertyAccessorGenerator extends AbstractClassGenerator {
+
+    private static final Source SOURCE = new Source(PropertyAccessor.class.getName());
+
+    private static final Type PROPERTY_ACCESSOR = Type.getType(PropertyAccessor.class);
+
+    private static final Type ILLEGAL_ARGUMENT_EXCEPTION = Type.getType(IllegalArgumentException.class);
+
+    private static final Signature GET_VALUE = new Signature("getValue", Constants.TYPE_OBJECT,
+            new Type[]{Constants.TYPE_OBJECT, Type.INT_TYPE});
+
+    private static final Signature SET_VALUE = new Signature("setValue", Type.VOID_TYPE,
+            new Type[]{Constants.TYPE_OBJECT, Type.INT_TYPE, Constants.TYPE_OBJECT});
+
+    private static final String UNKNOWN_INDEX = "Unknown property index";
+
+    private final DomainDefinition<?> domainDefinition;
+
+    PropertyAccessorGenerator(DomainDefinition<?> domainDefinition) {
+        super(SOURCE);
+        this.domainDefinition = domainDefinition;
+        setNamePrefix(domainDefinition.getClazz().getName());
+        // accessors are cached by their domain definitions
+        setUseCache(false);
+    }
+
+    PropertyAccessor create() {
+        return (PropertyAccessor) super.create(domainDefinition.getClazz().getName());
+    }
+
+    @Override
+    protected ClassLoader getDefaultClassLoader() {
+        return domainDefinition.getClazz().getClassLoader();
+    }
+
+    @Override
+    public void generateClass(ClassVisitor v) throws Exception {
+        final Type domainType = Type.getType(domainDefinition.getClazz());
+        int[] indexes = new int[domainDefinition.getPropertyCount()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+
+        ClassEmitter ce = new ClassEmitter(v);
+        ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC, getClassName(), PROPERTY_ACCESSOR, null, Constants.SOURCE_FILE);
+        EmitUtils.null_constructor(ce);
+
+        final CodeEmitter getter = ce.begin_method(Constants.ACC_PUBLIC, GET_VALUE, null);
+        getter.load_arg(1);
+        processSwitch(getter, indexes, new ProcessSwitchCallback() {
+            @Override
+            public void processCase(int index, Label end) throws Exception {
+                Method readMethod = domainDefinition.getReadMethod(index);
+                getter.load_arg(0);
+                getter.checkcast(domainType);
+                getter.invoke(ReflectUtils.getMethodInfo(readMethod));
+                getter.box(Type.getType(readMethod.getReturnType()));
+                getter.return_value();
+            }
+
+            @Override
+            public void processDefault() throws Exception {
+                getter.throw_exception(ILLEGAL_ARGUMENT_EXCEPTION, UNKNOWN_INDEX);
+            }
+        });
+        getter.end_method();
+
+        final CodeEmitter setter = ce.begin_method(Constants.ACC_PUBLIC, SET_VALUE, null);
+        setter.load_arg(1);
+        processSwitch(setter, indexes, new ProcessSwitchCallback() {
+            @Override
+            public void processCase(int index, Label end) throws Exception {
+                Method writeMethod = domainDefinition.getWriteMethod(index);
+                setter.load_arg(0);
+                setter.checkcast(domainType);
+                setter.load_arg(2);
+                setter.unbox_or_zero(Type.getType(writeMethod.getParameterTypes()[0]));
+                setter.invoke(ReflectUtils.getMethodInfo(writeMethod));
+                Class<?> returnType = writeMethod.getReturnType();
+                if (returnType == long.class || returnType == double.class) {
+                    setter.pop2();
+                } else if (returnType != void.class) {
+                    setter.pop();
+                }
+                setter.return_value();
+            }
+
+            @Override
+            public void processDefault() throws Exception {
+                setter.throw_exception(ILLEGAL_ARGUMENT_EXCEPTION, UNKNOWN_INDEX);
+            }
+        });
+        setter.end_method();
+
+        ce.end_class();
+    }
+
+    private static void processSwitch(CodeEmitter e, int[] indexes, ProcessSwitchCallback callback) throws Exception {
+        if (indexes.length == 0) {
+            e.pop();
+            callback.processDefault();
+        } else {
+            e.process_switch(indexes, callback);
+        }
+    }
+
+    @Override
+    protected Object firstInstance(Class type) throws Exception {
+        return ReflectUtils.newInstance(type);
+    }
+
+    @Override
+    protected Object nextInstance(Object instance) throws Exception {
+        return ReflectUtils.newInstance(instance.getClass());
+    }
+}
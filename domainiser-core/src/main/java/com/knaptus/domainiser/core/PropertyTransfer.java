@@ -0,0 +1,20 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * Copies the simple properties, i.e. the properties which are not domain models, of one domain model to another of
+ * the same domain class. Implementations are generated per domain class by {@link DomainDefinition#getPropertyTransfer()}
+ * and call the typed accessors directly, so primitive properties are copied without boxing and nothing is allocated.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public abstract class PropertyTransfer {
+
+    /**
+     * Copies the simple properties of the source domain model to the target domain model.
+     *
+     * @param source
+     * @param target
+     */
+    public abstract void copy(Object source, Object target);
+}
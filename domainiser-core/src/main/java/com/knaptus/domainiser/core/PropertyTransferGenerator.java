@@ -0,0 +1,108 @@
+package com.knaptus.domainiser.core;
+
+import net.sf.cglib.asm.ClassVisitor;
+import net.sf.cglib.asm.Type;
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.EmitUtils;
+import net.sf.cglib.core.Local;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+
+import java.lang.reflect.Method;
+
+/**
+ * Generates the {@link PropertyTransfer} of a domain definition. The generated copy method reads every simple property
+ * of the source with its read method and passes the value straight to the write method of the target, e.g.
+ * target.setAge(source.getAge()), keeping primitive values on the operand stack.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+final class PropertyTransferGenerator extends AbstractClassGenerator {
+
+    private static final Source SOURCE = new Source(PropertyTransfer.class.getName());
+
+    private static final Type PROPERTY_TRANSFER = Type.getType(PropertyTransfer.class);
+
+    private static final Signature COPY = new Signature("copy", Type.VOID_TYPE,
+            new Type[]{Constants.TYPE_OBJECT, Constants.TYPE_OBJECT});
+
+    private final DomainDefinition<?> domainDefinition;
+
+    PropertyTransferGenerator(DomainDefinition<?> domainDefinition) {
+        super(SOURCE);
+        this.domainDefinition = domainDefinition;
+        setNamePrefix(domainDefinition.getClazz().getName());
+        // transfers are cached by their domain definitions
+        setUseCache(false);
+    }
+
+    PropertyTransfer create() {
+        return (PropertyTransfer) super.create(domainDefinition.getClazz().getName());
+    }
+
+    @Override
+    protected ClassLoader getDefaultClassLoader() {
+        return domainDefinition.getClazz().getClassLoader();
+    }
+
+    @Override
+    public void generateClass(ClassVisitor v) throws Exception {
+        Type domainType = Type.getType(domainDefinition.getClazz());
+
+        ClassEmitter ce = new ClassEmitter(v);
+        ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC, getClassName(), PROPERTY_TRANSFER, null, Constants.SOURCE_FILE);
+        EmitUtils.null_constructor(ce);
+
+        CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, COPY, null);
+        Local source = e.make_local(domainType);
+        Local target = e.make_local(domainType);
+        e.load_arg(0);
+        e.checkcast(domainType);
+        e.store_local(source);
+        e.load_arg(1);
+        e.checkcast(domainType);
+        e.store_local(target);
+
+        for (int i = 0; i < domainDefinition.getPropertyCount(); i++) {
+            if (domainDefinition.getUnderlyingDomainModel(i) != null) {
+                continue;
+            }
+            Method readMethod = domainDefinition.getReadMethod(i);
+            Method writeMethod = domainDefinition.getWriteMethod(i);
+            Class<?> writeType = writeMethod.getParameterTypes()[0];
+
+            e.load_local(target);
+            e.load_local(source);
+            e.invoke(ReflectUtils.getMethodInfo(readMethod));
+            // generic read methods may be erased to a super type of the write type
+            if (!writeType.isPrimitive() && !writeType.isAssignableFrom(readMethod.getReturnType())) {
+                e.checkcast(Type.getType(writeType));
+            }
+            e.invoke(ReflectUtils.getMethodInfo(writeMethod));
+            Class<?> returnType = writeMethod.getReturnType();
+            if (returnType == long.class || returnType == double.class) {
+                e.pop2();
+            } else if (returnType != void.class) {
+                e.pop();
+            }
+        }
+
+        e.return_value();
+        e.end_method();
+        ce.end_class();
+    }
+
+    @Override
+    protected Object firstInstance(Class type) throws Exception {
+        return ReflectUtils.newInstance(type);
+    }
+
+    @Override
+    protected Object nextInstance(Object instance) throws Exception {
+        return ReflectUtils.newInstance(instance.getClass());
+    }
+}
@@ -0,0 +1,88 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * Association of a domain object which hasn't been loaded yet, see {@link BatchLoader}.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class UnresolvedAssociation {
+
+    private final Object domainModel;
+
+    private final String property;
+
+    private final Class<?> propertyClass;
+
+    private final Class<?> domainClass;
+
+    private Object value;
+
+    private boolean resolved;
+
+    public UnresolvedAssociation(Object domainModel, String property, Class<?> propertyClass, Class<?> domainClass) {
+        this.domainModel = domainModel;
+        this.property = property;
+        this.propertyClass = propertyClass;
+        this.domainClass = domainClass;
+    }
+
+    /**
+     * Returns the domain object owning the association.
+     *
+     * @return
+     */
+    public Object getDomainModel() {
+        return domainModel;
+    }
+
+    /**
+     * Returns the property name of the association.
+     *
+     * @return
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Returns the declared class of the property e.g. List
+     *
+     * @return
+     */
+    public Class<?> getPropertyClass() {
+        return propertyClass;
+    }
+
+    /**
+     * Returns the class of the associated domain objects e.g. the element class of a List
+     *
+     * @return
+     */
+    public Class<?> getDomainClass() {
+        return domainClass;
+    }
+
+    /**
+     * Resolves the association with its loaded value.
+     *
+     * @param value
+     */
+    public void resolve(Object value) {
+        this.value = value;
+        this.resolved = true;
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return domainModel + "." + property;
+    }
+}
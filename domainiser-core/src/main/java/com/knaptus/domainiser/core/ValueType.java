@@ -0,0 +1,26 @@
+package com.knaptus.domainiser.core;
+
+/**
+ * Classification of the values of simple properties, i.e. properties which are not domain models, telling walkers
+ * whether a value can be shared between domain models.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public enum ValueType {
+
+    /**
+     * Values cannot change once created and are shared e.g. String, Integer, enums.
+     */
+    IMMUTABLE,
+
+    /**
+     * Values can change and have a known copy e.g. Date, arrays, lists, sets and maps.
+     */
+    MUTABLE,
+
+    /**
+     * Values of unknown mutability; they are shared or rejected depending on the walker.
+     */
+    OPAQUE
+}
@@ -0,0 +1,339 @@
+package com.knaptus.domainiser.core;
+
+import com.knaptus.domainiser.core.impl.CollectionFactory;
+import com.knaptus.domainiser.core.impl.DefaultCollectionFactory;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies the classes of simple property values as {@link ValueType#IMMUTABLE}, {@link ValueType#MUTABLE} or
+ * {@link ValueType#OPAQUE} and copies mutable values.
+ * <p>A class is classified by the registration of the class itself, of its closest registered super class or of the
+ * closest registered interface it implements, interfaces of a class before those of its super class. Primitives and
+ * enums are immutable, arrays are mutable and unregistered classes are opaque. Classifications are computed once per
+ * class.</p>
+ * <p>Known JDK value types are registered up front; application value types should be registered before walking, as
+ * the walkers read the classification of a property once.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class ValueTypeRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValueTypeRegistry.class);
+
+    private static final ValueTypeRegistry INSTANCE = new ValueTypeRegistry();
+
+    // all value types of java.time are immutable, matched by name to stay loadable on older runtimes
+    private static final String JAVA_TIME_PACKAGE = "java.time.";
+
+    // unmodifiable JDK collections and maps, copied into unmodifiable copies, matched by name as the classes are private
+    private static final String[] UNMODIFIABLE_CLASS_PREFIXES = {"java.util.Collections$Unmodifiable",
+            "java.util.Collections$Empty", "java.util.Collections$Singleton", "java.util.ImmutableCollections$"};
+
+    private static final ClassValue<Boolean> UNMODIFIABLE_CLASSES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (String prefix : UNMODIFIABLE_CLASS_PREFIXES) {
+                if (type.getName().startsWith(prefix)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    };
+
+    private final ConcurrentMap<Class<?>, ValueType> registeredTypes = new ConcurrentHashMap<Class<?>, ValueType>();
+
+    private final CollectionFactory collectionFactory = new DefaultCollectionFactory();
+
+    // replaced on registration so that earlier classifications are computed again
+    private volatile ClassValue<ValueType> valueTypes = newValueTypes();
+
+    private ValueTypeRegistry() {
+        for (Class<?> immutableClass : new Class<?>[]{String.class, Boolean.class, Character.class, Byte.class,
+                Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class,
+                Class.class, UUID.class, URI.class, URL.class, Locale.class, Currency.class, Pattern.class, File.class}) {
+            registeredTypes.put(immutableClass, ValueType.IMMUTABLE);
+        }
+        for (Class<?> mutableClass : new Class<?>[]{Date.class, Calendar.class, Collection.class, Map.class}) {
+            registeredTypes.put(mutableClass, ValueType.MUTABLE);
+        }
+    }
+
+    /**
+     * Returns the registry shared by the domain definitions and walkers.
+     *
+     * @return
+     */
+    public static ValueTypeRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the value type of the provided class and its sub classes. Mutable classes which are neither dates,
+     * calendars, arrays, lists, sets nor maps are copied through a public clone method.
+     *
+     * @param clazz
+     * @param valueType
+     */
+    public void register(Class<?> clazz, ValueType valueType) {
+        Validate.notNull(clazz, "Class cannot be null");
+        Validate.notNull(valueType, "Value type cannot be null");
+        registeredTypes.put(clazz, valueType);
+        valueTypes = newValueTypes();
+    }
+
+    /**
+     * Returns the value type of the provided class.
+     *
+     * @param clazz
+     * @return
+     */
+    public ValueType getValueType(Class<?> clazz) {
+        Validate.notNull(clazz, "Class cannot be null");
+        return valueTypes.get(clazz);
+    }
+
+    /**
+     * Returns a copy of the provided value if it is mutable, otherwise the value itself. Elements of arrays,
+     * collections and maps are copied the same way; arrays, collections and maps reached again, e.g. ones containing
+     * themselves, are replaced by their copy. Copies of unmodifiable collections and maps are unmodifiable. Collections
+     * other than lists and sets, e.g. queues, are copied into an instance of their own class. The copy is an instance
+     * of the provided declared class.
+     *
+     * @param value
+     * @param declaredClass class of the property holding the value
+     * @return
+     */
+    public Object copy(Object value, Class<?> declaredClass) {
+        return copy(value, declaredClass, null);
+    }
+
+    /**
+     * Copies the value, the copies of the arrays, collections and maps being copied are created on the first one.
+     *
+     * @param value
+     * @param declaredClass
+     * @param copies copies of the arrays, collections and maps copied so far or null
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private Object copy(Object value, Class<?> declaredClass, Map<Object, Object> copies) {
+        if (value == null || getValueType(value.getClass()) != ValueType.MUTABLE) {
+            return value;
+        } else if (value instanceof Date) {
+            return ((Date) value).clone();
+        } else if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        } else if (!value.getClass().isArray() && !(value instanceof Collection) && !(value instanceof Map)) {
+            return copyByClone(value);
+        }
+
+        if (copies == null) {
+            copies = new IdentityHashMap<Object, Object>();
+        } else if (copies.containsKey(value)) {
+            return copies.get(value);
+        }
+        if (value.getClass().isArray()) {
+            return copyArray(value, copies);
+        }
+        boolean unmodifiable = UNMODIFIABLE_CLASSES.get(value.getClass());
+        if (value instanceof List) {
+            List<Object> copy = collectionFactory.createList((List) value, unmodifiable ? null : declaredClass);
+            Object result = unmodifiable ? Collections.unmodifiableList(copy) : copy;
+            copies.put(value, result);
+            copyElements((Collection) value, copy, copies);
+            return result;
+        } else if (value instanceof Set) {
+            Set<Object> copy = collectionFactory.createSet((Set) value, unmodifiable ? null : declaredClass);
+            Object result = !unmodifiable ? copy : copy instanceof SortedSet
+                    ? Collections.unmodifiableSortedSet((SortedSet<Object>) copy) : Collections.unmodifiableSet(copy);
+            copies.put(value, result);
+            copyElements((Collection) value, copy, copies);
+            return result;
+        } else if (value instanceof Map) {
+            Map<Object, Object> copy = collectionFactory.createMap((Map) value, unmodifiable ? null : declaredClass);
+            Object result = !unmodifiable ? copy : copy instanceof SortedMap
+                    ? Collections.unmodifiableSortedMap((SortedMap<Object, Object>) copy) : Collections.unmodifiableMap(copy);
+            copies.put(value, result);
+            copyEntries((Map<Object, Object>) value, copy, copies);
+            return result;
+        }
+        Collection<Object> copy = unmodifiable ? new ArrayList<Object>(((Collection) value).size())
+                : newCollection((Collection<Object>) value);
+        if (copy == null) {
+            return copyByClone(value);
+        }
+        Object result = unmodifiable ? Collections.unmodifiableCollection(copy) : copy;
+        copies.put(value, result);
+        copyElements((Collection) value, copy, copies);
+        return result;
+    }
+
+    /**
+     * Creates an empty collection of the class of the provided collection, e.g. a queue, with its copy constructor,
+     * which carries over the comparator of priority queues, or its default constructor.
+     *
+     * @param value
+     * @return the empty collection or null if the class has neither public constructor
+     */
+    @SuppressWarnings("unchecked")
+    private Collection<Object> newCollection(Collection<Object> value) {
+        Class<?> clazz = value.getClass();
+        try {
+            Constructor<?> constructor = getConstructor(clazz, clazz);
+            if (constructor != null) {
+                Collection<Object> collection = (Collection<Object>) constructor.newInstance(value);
+                collection.clear();
+                return collection;
+            }
+            constructor = getConstructor(clazz);
+            return constructor == null ? null : (Collection<Object>) constructor.newInstance();
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("Mutable value cannot be copied: " + clazz, e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Mutable value cannot be copied: " + clazz, e);
+        } catch (InvocationTargetException e) {
+            LOGGER.error("Mutable value [{}] cannot be copied", clazz);
+            throw new IllegalArgumentException("Mutable value cannot be copied: " + clazz, e.getCause());
+        }
+    }
+
+    private static Constructor<?> getConstructor(Class<?> clazz, Class<?>... parameterTypes) {
+        try {
+            return clazz.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private Object copyArray(Object array, Map<Object, Object> copies) {
+        int length = Array.getLength(array);
+        Class<?> componentType = array.getClass().getComponentType();
+        Object copy = Array.newInstance(componentType, length);
+        copies.put(array, copy);
+        System.arraycopy(array, 0, copy, 0, length);
+        if (getValueType(componentType) != ValueType.IMMUTABLE) {
+            Object[] elements = (Object[]) copy;
+            for (int i = 0; i < length; i++) {
+                elements[i] = copy(elements[i], componentType, copies);
+            }
+        }
+        return copy;
+    }
+
+    private void copyElements(Collection<Object> values, Collection<Object> copy, Map<Object, Object> copies) {
+        for (Object value : values) {
+            copy.add(copy(value, null, copies));
+        }
+    }
+
+    private void copyEntries(Map<Object, Object> values, Map<Object, Object> copy, Map<Object, Object> copies) {
+        for (Map.Entry<Object, Object> entry : values.entrySet()) {
+            // keys are shared, copying them would break the lookup of sorted and identity maps
+            copy.put(entry.getKey(), copy(entry.getValue(), null, copies));
+        }
+    }
+
+    private Object copyByClone(Object value) {
+        try {
+            Method cloneMethod = value.getClass().getMethod("clone");
+            return cloneMethod.invoke(value);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Mutable value has no public clone method: " + value.getClass());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Mutable value cannot be cloned: " + value.getClass(), e);
+        } catch (InvocationTargetException e) {
+            LOGGER.error("Mutable value [{}] cannot be cloned", value.getClass());
+            throw new IllegalArgumentException("Mutable value cannot be cloned: " + value.getClass(), e.getCause());
+        }
+    }
+
+    private ClassValue<ValueType> newValueTypes() {
+        return new ClassValue<ValueType>() {
+            @Override
+            protected ValueType computeValue(Class<?> type) {
+                return classify(type);
+            }
+        };
+    }
+
+    private ValueType classify(Class<?> clazz) {
+        if (clazz.isPrimitive() || Enum.class.isAssignableFrom(clazz)) {
+            return ValueType.IMMUTABLE;
+        } else if (clazz.isArray()) {
+            return ValueType.MUTABLE;
+        }
+
+        for (Class<?> superClass = clazz; superClass != null; superClass = superClass.getSuperclass()) {
+            ValueType valueType = registeredTypes.get(superClass);
+            if (valueType != null) {
+                return valueType;
+            }
+        }
+        ValueType interfaceType = classifyByInterfaces(clazz);
+        if (interfaceType != null) {
+            return interfaceType;
+        }
+
+        if (clazz.getName().startsWith(JAVA_TIME_PACKAGE) && Modifier.isPublic(clazz.getModifiers())) {
+            return ValueType.IMMUTABLE;
+        }
+        return ValueType.OPAQUE;
+    }
+
+    /**
+     * Returns the value type of the closest registered interface of the class, searching the interfaces of the class
+     * and then of its super classes breadth first in declaration order, or null.
+     *
+     * @param clazz
+     * @return
+     */
+    private ValueType classifyByInterfaces(Class<?> clazz) {
+        Deque<Class<?>> interfaces = new ArrayDeque<Class<?>>();
+        for (Class<?> superClass = clazz; superClass != null; superClass = superClass.getSuperclass()) {
+            Collections.addAll(interfaces, superClass.getInterfaces());
+            while (!interfaces.isEmpty()) {
+                Class<?> candidate = interfaces.poll();
+                ValueType valueType = registeredTypes.get(candidate);
+                if (valueType != null) {
+                    return valueType;
+                }
+                Collections.addAll(interfaces, candidate.getInterfaces());
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.knaptus.domainiser.core.builder;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.knaptus.domainiser.core.DomainDefinition;
 import com.knaptus.domainiser.core.DomainGraphDefinition;
 import com.knaptus.domainiser.core.DomainResolver;
@@ -8,6 +10,10 @@ import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -110,11 +116,67 @@ public class DomainGraphDefinitionBuilder<T> {
     }
 
     public DomainGraphDefinitionBuilder<T> withDefinitionJson(String json) {
-        Map def = DomainGraphDefinitionImpl.GSON.fromJson(json, Map.class);
-        withDefinitionMap(def);
+        if (json != null) {
+            withDefinitionJson(new StringReader(json));
+        }
         return this;
     }
 
+    /**
+     * Adds the children of the JSON definition read from the provided reader, e.g. {"spouse": {"children": null}}.
+     * The definition is streamed into the child builders without building an intermediate Map.
+     *
+     * @param json
+     * @return
+     */
+    public DomainGraphDefinitionBuilder<T> withDefinitionJson(Reader json) {
+        JsonReader reader = new JsonReader(json);
+        reader.setLenient(true);
+        try {
+            // blank definitions add no children, like null ones
+            JsonToken token = peek(reader);
+            if (token == JsonToken.BEGIN_OBJECT) {
+                withDefinitionJson(reader);
+            } else if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (token != null) {
+                throw new IllegalArgumentException("Domain graph definition must be a JSON object");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid domain graph definition JSON", e);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Invalid domain graph definition JSON", e);
+        }
+        return this;
+    }
+
+    private void withDefinitionJson(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String property = reader.nextName();
+            LOGGER.trace("Property [{}]", property);
+
+            DomainGraphDefinitionBuilder<?> childBuilder = getAndSetChildBuilder(property);
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT) {
+                childBuilder.withDefinitionJson(reader);
+            } else if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                throw new IllegalArgumentException("Values can only be of type Map or null");
+            }
+        }
+        reader.endObject();
+    }
+
+    static JsonToken peek(JsonReader reader) throws IOException {
+        try {
+            return reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
     public DomainGraphDefinitionBuilder<T> withDefinitionMap(Map childrenPropertyMap) {
         if(childrenPropertyMap != null) {
             for(Object key : childrenPropertyMap.keySet()) {
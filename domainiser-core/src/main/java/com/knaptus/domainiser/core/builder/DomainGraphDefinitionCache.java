@@ -0,0 +1,287 @@
+package com.knaptus.domainiser.core.builder;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.core.impl.ImmutableDomainGraphDefinition;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of domain graph definitions built from dot notation paths or JSON definitions, e.g. field lists
+ * supplied by clients with every request.
+ * <p>Definitions are cached per root class, domain resolver and canonical form of the spec: properties are sorted
+ * and duplicate or prefix paths are merged, so "spouse.children,spouse" and {"spouse": {"children": null}} share an
+ * entry. Cached definitions are immutable and shared by all the callers. The least recently used definition is
+ * evicted once the maximum size is reached.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class DomainGraphDefinitionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainGraphDefinitionCache.class);
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private final int maximumSize;
+
+    // access ordered, guarded by itself
+    private final Map<SpecKey, DomainGraphDefinition<?>> definitions;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public DomainGraphDefinitionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public DomainGraphDefinitionCache(int maximumSize) {
+        Validate.isTrue(maximumSize > 0, "Maximum size must be positive");
+        this.maximumSize = maximumSize;
+        this.definitions = new LinkedHashMap<SpecKey, DomainGraphDefinition<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SpecKey, DomainGraphDefinition<?>> eldest) {
+                if (size() > DomainGraphDefinitionCache.this.maximumSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the domain graph definition of the provided dot notation paths e.g. "spouse.children", building it if
+     * it isn't cached.
+     *
+     * @param clazz
+     * @param domainResolver
+     * @param paths
+     * @param <T>
+     * @return immutable domain graph definition
+     */
+    public <T> DomainGraphDefinition<T> getForPaths(Class<T> clazz, DomainResolver domainResolver, String... paths) {
+        Map<String, Map> spec = new TreeMap<String, Map>();
+        if (paths != null) {
+            for (String path : paths) {
+                Validate.notNull(path, "Path cannot be null");
+                addPath(spec, path.split(DomainGraphDefinitionBuilder.DOT_DELIMITER));
+            }
+        }
+        return get(clazz, domainResolver, spec);
+    }
+
+    /**
+     * Returns the domain graph definition of the provided JSON definition e.g. {"spouse": {"children": null}},
+     * building it if it isn't cached.
+     *
+     * @param clazz
+     * @param domainResolver
+     * @param json
+     * @param <T>
+     * @return immutable domain graph definition
+     */
+    public <T> DomainGraphDefinition<T> getForJson(Class<T> clazz, DomainResolver domainResolver, String json) {
+        Map<String, Map> spec = new TreeMap<String, Map>();
+        if (json != null) {
+            JsonReader reader = new JsonReader(new StringReader(json));
+            reader.setLenient(true);
+            try {
+                JsonToken token = DomainGraphDefinitionBuilder.peek(reader);
+                if (token == JsonToken.BEGIN_OBJECT) {
+                    readSpec(reader, spec);
+                } else if (token != null && token != JsonToken.NULL) {
+                    throw new IllegalArgumentException("Domain graph definition must be a JSON object");
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid domain graph definition JSON", e);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException("Invalid domain graph definition JSON", e);
+            }
+        }
+        return get(clazz, domainResolver, spec);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> DomainGraphDefinition<T> get(Class<T> clazz, DomainResolver domainResolver, Map<String, Map> spec) {
+        Validate.notNull(clazz, "Class cannot be null");
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+
+        SpecKey key = new SpecKey(clazz, domainResolver, render(spec, new StringBuilder()).toString());
+        DomainGraphDefinition<?> definition;
+        synchronized (definitions) {
+            definition = definitions.get(key);
+        }
+        if (definition != null) {
+            hitCount.incrementAndGet();
+            return (DomainGraphDefinition<T>) definition;
+        }
+
+        missCount.incrementAndGet();
+        LOGGER.debug("Building domain graph definition [{}] for [{}]", key.spec, clazz);
+        DomainGraphDefinition<T> builtDefinition = ImmutableDomainGraphDefinition.copyOf(
+                new DomainGraphDefinitionBuilder<T>(domainResolver, clazz).withDefinitionMap(spec).build());
+        synchronized (definitions) {
+            // another thread may have built the same definition meanwhile
+            definition = definitions.get(key);
+            if (definition == null) {
+                definitions.put(key, builtDefinition);
+                definition = builtDefinition;
+            }
+        }
+        return (DomainGraphDefinition<T>) definition;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addPath(Map<String, Map> spec, String[] properties) {
+        Map<String, Map> children = spec;
+        for (String property : properties) {
+            String name = property.trim();
+            if (name.length() == 0) {
+                continue;
+            }
+            Map<String, Map> grandChildren = children.get(name);
+            if (grandChildren == null) {
+                grandChildren = new TreeMap<String, Map>();
+                children.put(name, grandChildren);
+            }
+            children = grandChildren;
+        }
+    }
+
+    private void readSpec(JsonReader reader, Map<String, Map> spec) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Map<String, Map> children = new TreeMap<String, Map>();
+            spec.put(reader.nextName().trim(), children);
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT) {
+                readSpec(reader, children);
+            } else if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                throw new IllegalArgumentException("Values can only be of type Map or null");
+            }
+        }
+        reader.endObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringBuilder render(Map<String, Map> spec, StringBuilder builder) {
+        boolean first = true;
+        for (Map.Entry<String, Map> child : spec.entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append(child.getKey());
+            if (!child.getValue().isEmpty()) {
+                render(child.getValue(), builder.append('{')).append('}');
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups which had to build the definition.
+     *
+     * @return
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of definitions evicted to stay within the maximum size.
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns the number of cached definitions.
+     *
+     * @return
+     */
+    public int size() {
+        synchronized (definitions) {
+            return definitions.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Removes all the cached definitions; statistics are kept.
+     */
+    public void clear() {
+        synchronized (definitions) {
+            definitions.clear();
+        }
+    }
+
+    /**
+     * Key of a cached definition.
+     */
+    private static final class SpecKey {
+
+        private final Class<?> clazz;
+
+        private final DomainResolver domainResolver;
+
+        private final String spec;
+
+        private final int hashCode;
+
+        private SpecKey(Class<?> clazz, DomainResolver domainResolver, String spec) {
+            this.clazz = clazz;
+            this.domainResolver = domainResolver;
+            this.spec = spec;
+            this.hashCode = 31 * (31 * clazz.hashCode() + domainResolver.hashCode()) + spec.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SpecKey)) {
+                return false;
+            }
+            SpecKey that = (SpecKey) o;
+            return hashCode == that.hashCode && clazz == that.clazz && spec.equals(that.spec)
+                    && domainResolver.equals(that.domainResolver);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
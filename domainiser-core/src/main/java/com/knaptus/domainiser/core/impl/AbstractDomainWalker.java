@@ -2,8 +2,13 @@ package com.knaptus.domainiser.core.impl;
 
 import com.knaptus.domainiser.core.*;
 import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Provides capability to traverse a specific section of domain graph and take action on the traversed path. For
@@ -15,8 +20,25 @@ import java.util.*;
  */
 public abstract class AbstractDomainWalker implements DomainWalker {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDomainWalker.class);
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
+
     private DomainResolver domainResolver;
 
+    // collections are walked in parallel only when a pool is set
+    private ForkJoinPool forkJoinPool;
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    // walks are not instrumented unless a listener is set
+    private WalkListener walkListener;
+
+    // budget of every walk, walks are unlimited unless set
+    private WalkBudget walkBudget;
+
+    private CollectionFactory collectionFactory = new DefaultCollectionFactory();
+
     /**
      * Walks a collection of domain objects and returns the result in the provided collection using the provided domain
      * graph definition.
@@ -51,7 +73,7 @@ public abstract class AbstractDomainWalker implements DomainWalker {
         Validate.notNull(domainModel, "Domain model to be cloned cannot be null");
 
         DomainGraphDefinitionDecorator<T> graphDecorator = new DomainGraphDefinitionDecorator<T>(
-                new DomainGraphDefinitionImpl<T>(DomainDefinition.getInstance((Class<T>) domainModel.getClass(), domainResolver))
+                new DomainGraphDefinitionImpl<T>(DomainDefinition.getInstance((Class<T>) DomainGraphPlan.getModelClass(domainModel), domainResolver))
         );
 
         return walk(domainModel, graphDecorator);
@@ -68,6 +90,9 @@ public abstract class AbstractDomainWalker implements DomainWalker {
 
     @Override
     public <T> List<T> walkList(List<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        if (isParallel(domainModels)) {
+            return addWalked(domainModels.toArray(), domainGraphDefinition, createEmptyList(domainModels));
+        }
         return walk(domainModels, createEmptyList(domainModels), domainGraphDefinition);
     }
 
@@ -81,6 +106,9 @@ public abstract class AbstractDomainWalker implements DomainWalker {
 
     @Override
     public <T> Set<T> walkSet(Set<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        if (isParallel(domainModels)) {
+            return addWalked(domainModels.toArray(), domainGraphDefinition, createEmptySet(domainModels));
+        }
         return walk(domainModels, createEmptySet(domainModels), domainGraphDefinition);
     }
 
@@ -90,41 +118,219 @@ public abstract class AbstractDomainWalker implements DomainWalker {
                 new DomainGraphDefinitionImpl<V>(DomainDefinition.getInstance(clazz, domainResolver))
         );
 
-        return walkMap(domainModels, createEmptyMap(domainModels), graphDecorator);
+        return walkMap(domainModels, graphDecorator);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <K, V> Map<K, V> walkMap(Map<K, V> domainModels, DomainGraphDefinition<V> domainGraphDefinition) {
+        if (domainModels != null && isParallel(domainModels.values())) {
+            Object[] keys = new Object[domainModels.size()];
+            Object[] values = new Object[keys.length];
+            int i = 0;
+            for (Entry<K, V> domainEntry : domainModels.entrySet()) {
+                keys[i] = domainEntry.getKey();
+                values[i++] = domainEntry.getValue();
+            }
+
+            V[] walkedValues = walkInParallel(values, domainGraphDefinition);
+            Map<K, V> returnMap = createEmptyMap(domainModels);
+            for (i = 0; i < keys.length; i++) {
+                // domain models left out by a truncating budget are left out of the map
+                if (walkedValues[i] != null || values[i] == null) {
+                    returnMap.put((K) keys[i], walkedValues[i]);
+                }
+            }
+            return returnMap;
+        }
         return walkMap(domainModels, createEmptyMap(domainModels), domainGraphDefinition);
     }
 
+    @Override
+    public <T> Iterator<T> walkIterator(Iterator<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainModels, "Domain models cannot be null");
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        return new WalkingIterator<T>(domainModels, DomainGraphPlan.compile(domainGraphDefinition));
+    }
+
+    @Override
+    public <T> Iterable<T> walkIterable(final Iterable<T> domainModels,
+                                        final DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainModels, "Domain models cannot be null");
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        final DomainGraphPlan<T> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new WalkingIterator<T>(domainModels.iterator(), domainGraphPlan);
+            }
+        };
+    }
+
+    @Override
+    public <T> Iterator<List<T>> walkChunks(Iterator<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition,
+                                            int chunkSize, boolean resetBetweenChunks) {
+        Validate.notNull(domainModels, "Domain models cannot be null");
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        Validate.isTrue(chunkSize > 0, "Chunk size must be positive");
+        return new ChunkingIterator<T>(domainModels, DomainGraphPlan.compile(domainGraphDefinition), chunkSize,
+                resetBetweenChunks);
+    }
+
     /**
-     * Creates an empty set for the provided model. Default implementation returns {@link HashSet}. If it needs
-     * to be optimised this method should be overriden.
+     * Walks a single domain model as part of a walk spanning several domain models, e.g. one element of a collection
+     * walked in parallel or one element of a chunk. The walk context is shared by all the domain models of the walk
+     * and may be used from several threads at once.
+     * <p>Default implementation ignores the context and walks the domain model with the domain graph definition the
+     * plan was compiled from. Implementations should override it to track the walked domain models in the context.</p>
+     *
+     * @param domainModel
+     * @param domainGraphPlan
+     * @param walkContext
+     * @param <T>
+     * @return
+     */
+    protected <T> T walk(T domainModel, DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext) {
+        return walk(domainModel, domainGraphPlan.getDomainGraphDefinition());
+    }
+
+    /**
+     * Creates the context of a new walk with the budget of the walker.
+     *
+     * @param concurrent true if the walk spans several threads
+     * @return
+     */
+    protected WalkContext newWalkContext(boolean concurrent) {
+        WalkContext walkContext = concurrent ? new ConcurrentWalkContext() : new WalkContext();
+        walkContext.setWalkBudget(walkBudget);
+        return walkContext;
+    }
+
+    /**
+     * Logs a warning if a truncating budget left domain models out of the walk with the provided context.
+     *
+     * @param domainGraphPlan
+     * @param walkContext
+     */
+    protected void warnIfTruncated(DomainGraphPlan<?> domainGraphPlan, WalkContext walkContext) {
+        if (walkContext.getTruncation() != null) {
+            LOGGER.warn("Walk of [{}] truncated; walk budget exceeded: [{}]", domainGraphPlan.getName(), walkContext.getTruncation());
+        }
+    }
+
+    private boolean isParallel(Collection<?> domainModels) {
+        return forkJoinPool != null && domainModels != null && domainModels.size() > parallelThreshold;
+    }
+
+    /**
+     * Walks the domain models in the fork join pool and adds the results to the provided collection in the same order
+     * as the domain models.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param returnCollection
+     * @param <T>
+     * @param <Z>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private <T, Z extends Collection<T>> Z addWalked(Object[] domainModels, DomainGraphDefinition<T> domainGraphDefinition,
+                                                     Z returnCollection) {
+        T[] walkedModels = walkInParallel(domainModels, domainGraphDefinition);
+        for (int i = 0; i < walkedModels.length; i++) {
+            // domain models left out by a truncating budget are left out of the collection
+            if (walkedModels[i] != null || domainModels[i] == null) {
+                returnCollection.add(walkedModels[i]);
+            }
+        }
+        return returnCollection;
+    }
+
+    /**
+     * Walks the domain models in the fork join pool and returns the results in the same order as the domain models.
+     * Domain models left out by a truncating budget are returned as null.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T[] walkInParallel(Object[] domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+
+        DomainGraphPlan<T> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        WalkContext walkContext = newWalkContext(true);
+        WalkListener listener = walkListener;
+        if (listener != null) {
+            listener.collectionStart(domainGraphPlan.getPath(), domainModels.length);
+        }
+        Object[] walkedModels = new Object[domainModels.length];
+        forkJoinPool.invoke(new WalkTask<T>(domainGraphPlan, walkContext, domainModels, walkedModels, 0,
+                domainModels.length));
+        if (listener != null) {
+            listener.collectionEnd(domainGraphPlan.getPath(), domainModels.length);
+        }
+        warnIfTruncated(domainGraphPlan, walkContext);
+        return (T[]) walkedModels;
+    }
+
+    /**
+     * Creates an empty set for the provided model with the {@link CollectionFactory} of the walker. The cloning walker
+     * creates the sets of associations with this method too, and falls back to
+     * {@link #createEmptySet(Set, Class)} if the set created cannot be set on the property.
      *
      * @param model
      * @param <T>
      * @return
      */
     protected <T> Set<T> createEmptySet(Set<T> model) {
-        return new HashSet<T>();
+        return createEmptySet(model, null);
+    }
+
+    /**
+     * Creates an empty set for the provided model, held by a property of the provided declared class, with the
+     * {@link CollectionFactory} of the walker.
+     *
+     * @param model
+     * @param declaredClass
+     * @param <T>
+     * @return
+     */
+    protected <T> Set<T> createEmptySet(Set<T> model, Class<?> declaredClass) {
+        return collectionFactory.createSet(model, declaredClass);
     }
 
     /**
-     * Creates an empty list for the provided model. Default implementation returns {@link ArrayList}. If it needs
-     * to be optimised this method should be overriden.
+     * Creates an empty list for the provided model with the {@link CollectionFactory} of the walker. The cloning walker
+     * creates the lists of associations with this method too, and falls back to
+     * {@link #createEmptyList(List, Class)} if the list created cannot be set on the property.
      *
      * @param model
      * @param <T>
      * @return
      */
     protected <T> List<T> createEmptyList(List<T> model) {
-        return new ArrayList<T>();
+        return createEmptyList(model, null);
     }
 
     /**
-     * Creates an empty map for the provided model. Default implementation returns {@link HashMap}. If it needs
-     * to be optimised this method should be overriden.
+     * Creates an empty list for the provided model, held by a property of the provided declared class, with the
+     * {@link CollectionFactory} of the walker.
+     *
+     * @param model
+     * @param declaredClass
+     * @param <T>
+     * @return
+     */
+    protected <T> List<T> createEmptyList(List<T> model, Class<?> declaredClass) {
+        return collectionFactory.createList(model, declaredClass);
+    }
+
+    /**
+     * Creates an empty map for the provided model with the {@link CollectionFactory} of the walker. The cloning walker
+     * creates the maps of associations with this method too, and falls back to
+     * {@link #createEmptyMap(Map, Class)} if the map created cannot be set on the property.
      *
      * @param model
      * @param <K>
@@ -132,7 +338,98 @@ public abstract class AbstractDomainWalker implements DomainWalker {
      * @return
      */
     protected <K, V> Map<K, V> createEmptyMap(Map<K, V> model) {
-        return new HashMap<K, V>();
+        return createEmptyMap(model, null);
+    }
+
+    /**
+     * Creates an empty map for the provided model, held by a property of the provided declared class, with the
+     * {@link CollectionFactory} of the walker.
+     *
+     * @param model
+     * @param declaredClass
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    protected <K, V> Map<K, V> createEmptyMap(Map<K, V> model, Class<?> declaredClass) {
+        return collectionFactory.createMap(model, declaredClass);
+    }
+
+    /**
+     * Sets the factory of the lists, sets and maps walked domain models are collected in. Defaults to
+     * {@link DefaultCollectionFactory}.
+     *
+     * @param collectionFactory
+     */
+    public void setCollectionFactory(CollectionFactory collectionFactory) {
+        Validate.notNull(collectionFactory, "Collection factory cannot be null");
+        this.collectionFactory = collectionFactory;
+    }
+
+    public CollectionFactory getCollectionFactory() {
+        return collectionFactory;
+    }
+
+    /**
+     * Sets the pool lists, sets and maps of domain models are walked in parallel with. Parallel walking is disabled
+     * when the pool is null, which is the default. The pool is not shut down by the walker.
+     *
+     * @param forkJoinPool
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Sets the number of domain models up to which a collection, or a part of it, is walked on a single thread.
+     * Defaults to {@link #DEFAULT_PARALLEL_THRESHOLD}.
+     *
+     * @param parallelThreshold
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        Validate.isTrue(parallelThreshold > 0, "Parallel threshold must be positive");
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the listener receiving the events of the walks, null to remove it.
+     *
+     * @param walkListener
+     */
+    public void setWalkListener(WalkListener walkListener) {
+        this.walkListener = walkListener;
+    }
+
+    public WalkListener getWalkListener() {
+        return walkListener;
+    }
+
+    /**
+     * Sets the budget every walk of the walker is limited by, null for unlimited walks. Every top level walk, chunk or
+     * streamed domain model is budgeted separately.
+     * <p>The budget cannot be truncating, as walks returning plain domain models, chunks or iterators couldn't tell a
+     * truncated result from a complete one; pass truncating budgets to the walks returning a {@link WalkResult}
+     * instead.</p>
+     *
+     * @param walkBudget
+     * @throws IllegalArgumentException if the budget is truncating
+     */
+    public void setWalkBudget(WalkBudget walkBudget) {
+        Validate.isTrue(walkBudget == null || !walkBudget.isTruncating(),
+                "Truncating walk budgets are only supported by walks returning a WalkResult");
+        this.walkBudget = walkBudget;
+    }
+
+    public WalkBudget getWalkBudget() {
+        return walkBudget;
     }
 
     public DomainResolver getDomainResolver() {
@@ -142,4 +439,146 @@ public abstract class AbstractDomainWalker implements DomainWalker {
     public void setDomainResolver(DomainResolver domainResolver) {
         this.domainResolver = domainResolver;
     }
+
+    /**
+     * Walks a range of domain models, splitting it in halves until it is within the parallel threshold.
+     */
+    private final class WalkTask<T> extends RecursiveAction {
+
+        private final DomainGraphPlan<T> domainGraphPlan;
+
+        private final WalkContext walkContext;
+
+        private final Object[] domainModels;
+
+        private final Object[] walkedModels;
+
+        private final int start;
+
+        private final int end;
+
+        private WalkTask(DomainGraphPlan<T> domainGraphPlan, WalkContext walkContext, Object[] domainModels,
+                         Object[] walkedModels, int start, int end) {
+            this.domainGraphPlan = domainGraphPlan;
+            this.walkContext = walkContext;
+            this.domainModels = domainModels;
+            this.walkedModels = walkedModels;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            if (end - start <= parallelThreshold) {
+                // the thread may be running this task while joining another one
+                int depth = walkContext.getDepth();
+                walkContext.setDepth(0);
+                try {
+                    for (int i = start; i < end; i++) {
+                        walkedModels[i] = walk((T) domainModels[i], domainGraphPlan, walkContext);
+                    }
+                } finally {
+                    walkContext.setDepth(depth);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new WalkTask<T>(domainGraphPlan, walkContext, domainModels, walkedModels, start, middle),
+                        new WalkTask<T>(domainGraphPlan, walkContext, domainModels, walkedModels, middle, end));
+            }
+        }
+    }
+
+    /**
+     * Walks every domain model when it is reached, each with a new walk context.
+     */
+    private final class WalkingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> domainModels;
+
+        private final DomainGraphPlan<T> domainGraphPlan;
+
+        private WalkingIterator(Iterator<T> domainModels, DomainGraphPlan<T> domainGraphPlan) {
+            this.domainModels = domainModels;
+            this.domainGraphPlan = domainGraphPlan;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return domainModels.hasNext();
+        }
+
+        @Override
+        public T next() {
+            WalkContext walkContext = newWalkContext(false);
+            T walkedModel = walk(domainModels.next(), domainGraphPlan, walkContext);
+            warnIfTruncated(domainGraphPlan, walkContext);
+            return walkedModel;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Walked domain models cannot be removed");
+        }
+    }
+
+    /**
+     * Walks the domain models a chunk at a time. Every chunk is walked within its own budget; unless reset between
+     * chunks, domain models walked by earlier chunks are reused.
+     */
+    private final class ChunkingIterator<T> implements Iterator<List<T>> {
+
+        private final Iterator<T> domainModels;
+
+        private final DomainGraphPlan<T> domainGraphPlan;
+
+        private final int chunkSize;
+
+        private final boolean resetBetweenChunks;
+
+        // created with the first chunk so that its deadline doesn't start before
+        private WalkContext walkContext;
+
+        private ChunkingIterator(Iterator<T> domainModels, DomainGraphPlan<T> domainGraphPlan, int chunkSize,
+                                 boolean resetBetweenChunks) {
+            this.domainModels = domainModels;
+            this.domainGraphPlan = domainGraphPlan;
+            this.chunkSize = chunkSize;
+            this.resetBetweenChunks = resetBetweenChunks;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return domainModels.hasNext();
+        }
+
+        @Override
+        public List<T> next() {
+            if (!domainModels.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (walkContext == null || resetBetweenChunks) {
+                walkContext = newWalkContext(false);
+            } else {
+                walkContext.restartWalkBudget();
+            }
+
+            List<T> chunk = new ArrayList<T>(chunkSize);
+            for (int i = 0; i < chunkSize && domainModels.hasNext(); i++) {
+                T domainModel = domainModels.next();
+                T walkedModel = walk(domainModel, domainGraphPlan, walkContext);
+                // domain models left out by a truncating budget are left out of the chunk
+                if (walkedModel != null || domainModel == null) {
+                    chunk.add(walkedModel);
+                }
+            }
+            warnIfTruncated(domainGraphPlan, walkContext);
+            return chunk;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Walked domain models cannot be removed");
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package com.knaptus.domainiser.core.impl;
+
+/**
+ * Cooperative cancellation of walks, see {@link WalkBudget#withCancellationToken(CancellationToken)}. A walk notices
+ * the cancellation within a few domain models.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the walks using this token.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,47 @@
+package com.knaptus.domainiser.core.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the empty collections walked domain models are collected in. Walkers pass the source collection, so that the
+ * created collection can be sized and typed after it, and the declared class of the property holding it, which the
+ * created collection must be an instance of.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public interface CollectionFactory {
+
+    /**
+     * Creates an empty list for the provided source list.
+     *
+     * @param model source list, may be null
+     * @param declaredClass class of the property holding the list or null for a top level list
+     * @param <T>
+     * @return
+     */
+    <T> List<T> createList(List<T> model, Class<?> declaredClass);
+
+    /**
+     * Creates an empty set for the provided source set.
+     *
+     * @param model source set, may be null
+     * @param declaredClass class of the property holding the set or null for a top level set
+     * @param <T>
+     * @return
+     */
+    <T> Set<T> createSet(Set<T> model, Class<?> declaredClass);
+
+    /**
+     * Creates an empty map for the provided source map.
+     *
+     * @param model source map, may be null
+     * @param declaredClass class of the property holding the map or null for a top level map
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    <K, V> Map<K, V> createMap(Map<K, V> model, Class<?> declaredClass);
+}
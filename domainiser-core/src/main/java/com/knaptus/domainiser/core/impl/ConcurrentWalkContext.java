@@ -0,0 +1,122 @@
+package com.knaptus.domainiser.core.impl;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link WalkContext} which can be shared by the threads of a parallel walk. Walked domain models are tracked in
+ * identity maps striped by identity hash code, so threads walking different domain models rarely contend. Stripes are
+ * created when a domain model is first put in them, so contexts of small walks stay cheap.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class ConcurrentWalkContext extends WalkContext {
+
+    private static final int STRIPES = 64;
+
+    private final AtomicReferenceArray<Map<Object, Object>> walkedModelStripes;
+
+    private final AtomicInteger nodeCount = new AtomicInteger();
+
+    // depth is tracked per thread as every thread walks its own part of the graph
+    private final ThreadLocal<int[]> depth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    public ConcurrentWalkContext() {
+        this(new AtomicReferenceArray<Map<Object, Object>>(STRIPES));
+    }
+
+    private ConcurrentWalkContext(AtomicReferenceArray<Map<Object, Object>> walkedModelStripes) {
+        // walked domain models are only tracked in the stripes
+        super(null);
+        this.walkedModelStripes = walkedModelStripes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getWalked(T domainModel) {
+        Map<Object, Object> walkedModels = walkedModelStripes.get(stripeIndex(domainModel));
+        if (walkedModels == null) {
+            return null;
+        }
+        synchronized (walkedModels) {
+            return (T) walkedModels.get(domainModel);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T putWalkedIfAbsent(T domainModel, T walkedModel) {
+        Map<Object, Object> walkedModels = stripe(domainModel);
+        synchronized (walkedModels) {
+            Object recordedModel = walkedModels.get(domainModel);
+            if (recordedModel == null) {
+                walkedModels.put(domainModel, walkedModel);
+            }
+            return (T) recordedModel;
+        }
+    }
+
+    @Override
+    protected WalkContext newSharingContext() {
+        return new ConcurrentWalkContext(walkedModelStripes);
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public int getWalkedCount() {
+        int walkedCount = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            Map<Object, Object> walkedModels = walkedModelStripes.get(i);
+            if (walkedModels != null) {
+                synchronized (walkedModels) {
+                    walkedCount += walkedModels.size();
+                }
+            }
+        }
+        return walkedCount;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth.get()[0];
+    }
+
+    @Override
+    public void setDepth(int depth) {
+        this.depth.get()[0] = depth;
+    }
+
+    @Override
+    protected int addNodeCount(int delta) {
+        return nodeCount.addAndGet(delta);
+    }
+
+    private Map<Object, Object> stripe(Object domainModel) {
+        int index = stripeIndex(domainModel);
+        Map<Object, Object> walkedModels = walkedModelStripes.get(index);
+        if (walkedModels == null) {
+            walkedModelStripes.compareAndSet(index, null, new IdentityHashMap<Object, Object>());
+            walkedModels = walkedModelStripes.get(index);
+        }
+        return walkedModels;
+    }
+
+    private static int stripeIndex(Object domainModel) {
+        int hash = System.identityHashCode(domainModel);
+        // spread the higher bits as identity hash codes are not evenly distributed in the lower bits
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,195 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates collections of the same family as the source collection, presized for its elements:
+ * <ul>
+ * <li>linked, sorted, identity, concurrent and enum collections keep their iteration order, comparator or key
+ * type</li>
+ * <li>other lists, sets and maps become {@link ArrayList}, {@link HashSet} and {@link HashMap}</li>
+ * </ul>
+ * <p>When the collection of the family is not an instance of the declared class of the property, the class of the
+ * source collection, and then the declared class, are instantiated instead: with the comparator of a sorted source
+ * collection, or presized with their int constructor, if they have such a public constructor, and with their default
+ * constructor otherwise.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class DefaultCollectionFactory implements CollectionFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultCollectionFactory.class);
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> createList(List<T> model, Class<?> declaredClass) {
+        List<T> list;
+        if (model instanceof LinkedList) {
+            list = new LinkedList<T>();
+        } else if (model instanceof CopyOnWriteArrayList) {
+            list = new CopyOnWriteArrayList<T>();
+        } else {
+            list = new ArrayList<T>(size(model));
+        }
+        return (List<T>) ensureDeclared(list, model, declaredClass, size(model));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Set<T> createSet(Set<T> model, Class<?> declaredClass) {
+        Set set;
+        if (model instanceof EnumSet) {
+            // the element type of an enum set can only be carried over by copying it
+            set = EnumSet.copyOf((EnumSet) model);
+            set.clear();
+        } else if (model instanceof ConcurrentSkipListSet) {
+            set = new ConcurrentSkipListSet<T>(((SortedSet<T>) model).comparator());
+        } else if (model instanceof SortedSet) {
+            set = new TreeSet<T>(((SortedSet<T>) model).comparator());
+        } else if (model instanceof LinkedHashSet) {
+            set = new LinkedHashSet<T>(capacity(model));
+        } else {
+            set = new HashSet<T>(capacity(model));
+        }
+        return (Set<T>) ensureDeclared(set, model, declaredClass, capacity(model));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> createMap(Map<K, V> model, Class<?> declaredClass) {
+        Map map;
+        if (model instanceof EnumMap) {
+            // the key type of an enum map can only be carried over by copying it
+            map = new EnumMap((EnumMap) model);
+            map.clear();
+        } else if (model instanceof ConcurrentSkipListMap) {
+            map = new ConcurrentSkipListMap<K, V>(((SortedMap<K, V>) model).comparator());
+        } else if (model instanceof SortedMap) {
+            map = new TreeMap<K, V>(((SortedMap<K, V>) model).comparator());
+        } else if (model instanceof LinkedHashMap) {
+            map = new LinkedHashMap<K, V>(capacity(size(model)));
+        } else if (model instanceof IdentityHashMap) {
+            map = new IdentityHashMap<K, V>(model.size());
+        } else if (model instanceof ConcurrentMap) {
+            map = new ConcurrentHashMap<K, V>(capacity(model.size()));
+        } else {
+            map = new HashMap<K, V>(capacity(size(model)));
+        }
+        return (Map<K, V>) ensureDeclared(map, model, declaredClass, capacity(size(model)));
+    }
+
+    private Object ensureDeclared(Object collection, Object model, Class<?> declaredClass, int capacity) {
+        if (declaredClass == null || declaredClass.isInstance(collection)) {
+            return collection;
+        }
+        Comparator<?> comparator = comparator(model);
+        if (model != null && declaredClass.isInstance(model)) {
+            Object instance = newInstance(model.getClass(), comparator, capacity);
+            if (instance != null) {
+                return instance;
+            }
+        }
+        Object instance = newInstance(declaredClass, comparator, capacity);
+        if (instance == null) {
+            throw new IllegalArgumentException("Cannot create an instance of the declared collection class: "
+                    + declaredClass);
+        }
+        return instance;
+    }
+
+    private Object newInstance(Class<?> clazz, Comparator<?> comparator, int capacity) {
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            return null;
+        }
+        try {
+            if (comparator != null) {
+                Constructor<?> constructor = getConstructor(clazz, Comparator.class);
+                if (constructor != null) {
+                    return constructor.newInstance(comparator);
+                }
+            }
+            Constructor<?> constructor = getConstructor(clazz, int.class);
+            if (constructor != null) {
+                return constructor.newInstance(capacity);
+            }
+            return clazz.newInstance();
+        } catch (InstantiationException e) {
+            LOGGER.debug("Collection [{}] cannot be instantiated: {}", clazz, e.getMessage());
+        } catch (IllegalAccessException e) {
+            LOGGER.debug("Collection [{}] cannot be instantiated: {}", clazz, e.getMessage());
+        } catch (InvocationTargetException e) {
+            LOGGER.debug("Collection [{}] cannot be instantiated: {}", clazz, e.getCause());
+        }
+        return null;
+    }
+
+    private static Constructor<?> getConstructor(Class<?> clazz, Class<?> parameterType) {
+        try {
+            return clazz.getConstructor(parameterType);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Comparator<?> comparator(Object model) {
+        if (model instanceof SortedSet) {
+            return ((SortedSet<?>) model).comparator();
+        } else if (model instanceof SortedMap) {
+            return ((SortedMap<?, ?>) model).comparator();
+        }
+        return null;
+    }
+
+    private static int size(Collection<?> model) {
+        return model == null ? 0 : model.size();
+    }
+
+    private static int size(Map<?, ?> model) {
+        return model == null ? 0 : model.size();
+    }
+
+    private static int capacity(Collection<?> model) {
+        return capacity(size(model));
+    }
+
+    /**
+     * Returns the capacity of a hash based collection holding the provided number of elements without rehashing.
+     *
+     * @param size
+     * @return
+     */
+    private static int capacity(int size) {
+        return Math.max((int) (size / 0.75f) + 1, MINIMUM_CAPACITY);
+    }
+}
@@ -0,0 +1,313 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.google.gson.stream.JsonWriter;
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import org.apache.commons.lang.Validate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes domain graph definitions as JSON and encodes them to, and decodes them from, a compact binary form which
+ * can be stored or sent to other nodes.
+ * <p>The binary form lists the definitions depth first. Class and property names are written once and referred to
+ * by index afterwards, and a definition reached again, e.g. through a cycle, is written as a reference to the first
+ * occurrence, so decoding reproduces the shape of the encoded definition.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class DomainGraphDefinitionCodec {
+
+    private static final int MAGIC = 0x44474446;
+
+    private static final short VERSION = 1;
+
+    private static final byte NEW_DEFINITION = 0;
+
+    private static final byte REFERENCED_DEFINITION = 1;
+
+    // counts and indexes are written as unsigned shorts
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private DomainGraphDefinitionCodec() {
+    }
+
+    /**
+     * Returns the JSON form of the provided domain graph definition, e.g. {"spouse":{"children":{}}}, written
+     * straight from the definition. The definition must not be cyclic.
+     *
+     * @param domainGraphDefinition
+     * @return
+     */
+    public static String toJson(DomainGraphDefinition<?> domainGraphDefinition) {
+        StringWriter json = new StringWriter();
+        try {
+            writeJson(domainGraphDefinition, new JsonWriter(json));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write JSON to a string", e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Writes the JSON form of the provided domain graph definition. The definition must not be cyclic.
+     *
+     * @param domainGraphDefinition
+     * @param writer
+     * @throws IOException
+     */
+    public static void writeJson(DomainGraphDefinition<?> domainGraphDefinition, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        for (String childName : domainGraphDefinition.getAllChildrenNames()) {
+            writer.name(childName);
+            writeJson(domainGraphDefinition.getChild(childName), writer);
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Encodes the provided domain graph definition.
+     *
+     * @param domainGraphDefinition
+     * @return
+     */
+    public static byte[] encode(DomainGraphDefinition<?> domainGraphDefinition) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            encode(domainGraphDefinition, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode to a byte array", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the provided domain graph definition to the output. Definitions with more than 65535 children, classes,
+     * property names or definitions cannot be encoded.
+     *
+     * @param domainGraphDefinition
+     * @param output
+     * @throws IOException
+     * @throws IllegalArgumentException if the definition is too large to encode
+     */
+    public static void encode(DomainGraphDefinition<?> domainGraphDefinition, DataOutput output) throws IOException {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        new Encoder(output).encode(domainGraphDefinition);
+    }
+
+    /**
+     * Decodes a domain graph definition, resolving its domain definitions with the provided domain resolver.
+     *
+     * @param bytes
+     * @param domainResolver
+     * @param classLoader
+     * @param <T>
+     * @return
+     * @throws IOException if the bytes are not an encoded domain graph definition
+     */
+    public static <T> DomainGraphDefinition<T> decode(byte[] bytes, DomainResolver domainResolver,
+                                                      ClassLoader classLoader) throws IOException {
+        return decode(new DataInputStream(new ByteArrayInputStream(bytes)), domainResolver, classLoader);
+    }
+
+    /**
+     * Decodes a domain graph definition from the input, resolving its domain definitions with the provided domain
+     * resolver. Classes are loaded with the provided class loader.
+     *
+     * @param input
+     * @param domainResolver
+     * @param classLoader
+     * @param <T>
+     * @return
+     * @throws IOException if the input is not an encoded domain graph definition
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DomainGraphDefinition<T> decode(DataInput input, DomainResolver domainResolver,
+                                                      ClassLoader classLoader) throws IOException {
+        Validate.notNull(domainResolver, "Domain resolver cannot be null");
+        Validate.notNull(classLoader, "Class loader cannot be null");
+
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not an encoded domain graph definition");
+        }
+        short version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported domain graph definition encoding version: " + version);
+        }
+        if (input.readByte() != NEW_DEFINITION) {
+            throw new IOException("Encoded domain graph definition starts with a reference");
+        }
+        return (DomainGraphDefinition<T>) new Decoder(input, domainResolver, classLoader).decode();
+    }
+
+    /**
+     * Encodes a single domain graph definition.
+     */
+    private static final class Encoder {
+
+        private final DataOutput output;
+
+        private final Map<Class<?>, Integer> classIndexes = new HashMap<Class<?>, Integer>();
+
+        private final Map<String, Integer> propertyIndexes = new HashMap<String, Integer>();
+
+        private final Map<DomainGraphDefinition<?>, Integer> definitionIndexes =
+                new IdentityHashMap<DomainGraphDefinition<?>, Integer>();
+
+        private Encoder(DataOutput output) {
+            this.output = output;
+        }
+
+        private void encode(DomainGraphDefinition<?> domainGraphDefinition) throws IOException {
+            output.writeByte(NEW_DEFINITION);
+            definitionIndexes.put(domainGraphDefinition, definitionIndexes.size());
+            writeClass(domainGraphDefinition.getDomainClass());
+
+            writeCount(domainGraphDefinition.getAllChildrenNames().size(), "children");
+            for (String childName : domainGraphDefinition.getAllChildrenNames()) {
+                writeProperty(childName);
+                DomainGraphDefinition<?> child = domainGraphDefinition.getChild(childName);
+                Integer definitionIndex = definitionIndexes.get(child);
+                if (definitionIndex != null) {
+                    output.writeByte(REFERENCED_DEFINITION);
+                    writeCount(definitionIndex, "definitions");
+                } else {
+                    encode(child);
+                }
+            }
+        }
+
+        private void writeClass(Class<?> clazz) throws IOException {
+            Integer index = classIndexes.get(clazz);
+            if (index != null) {
+                output.writeShort(index);
+            } else {
+                // a new class is written with the next free index followed by its name
+                writeCount(classIndexes.size(), "classes");
+                output.writeUTF(clazz.getName());
+                classIndexes.put(clazz, classIndexes.size());
+            }
+        }
+
+        private void writeProperty(String property) throws IOException {
+            Integer index = propertyIndexes.get(property);
+            if (index != null) {
+                output.writeShort(index);
+            } else {
+                writeCount(propertyIndexes.size(), "properties");
+                output.writeUTF(property);
+                propertyIndexes.put(property, propertyIndexes.size());
+            }
+        }
+
+        /**
+         * Writes a count or index as an unsigned short, failing rather than truncating larger ones.
+         *
+         * @param value
+         * @param name
+         * @throws IOException
+         */
+        private void writeCount(int value, String name) throws IOException {
+            if (value > MAX_COUNT) {
+                throw new IllegalArgumentException("Domain graph definition has more than " + MAX_COUNT + " " + name
+                        + " to encode");
+            }
+            output.writeShort(value);
+        }
+    }
+
+    /**
+     * Decodes a single domain graph definition.
+     */
+    private static final class Decoder {
+
+        private final DataInput input;
+
+        private final DomainResolver domainResolver;
+
+        private final ClassLoader classLoader;
+
+        private final List<DomainDefinition<?>> domainDefinitions = new ArrayList<DomainDefinition<?>>();
+
+        private final List<String> properties = new ArrayList<String>();
+
+        private final List<DomainGraphDefinition<?>> definitions = new ArrayList<DomainGraphDefinition<?>>();
+
+        private Decoder(DataInput input, DomainResolver domainResolver, ClassLoader classLoader) {
+            this.input = input;
+            this.domainResolver = domainResolver;
+            this.classLoader = classLoader;
+        }
+
+        @SuppressWarnings("unchecked")
+        private DomainGraphDefinition<?> decode() throws IOException {
+            DomainGraphDefinition<?> domainGraphDefinition = new DomainGraphDefinitionImpl(readDomainDefinition());
+            definitions.add(domainGraphDefinition);
+
+            int childCount = input.readUnsignedShort();
+            for (int i = 0; i < childCount; i++) {
+                String property = readProperty();
+                byte tag = input.readByte();
+                if (tag == NEW_DEFINITION) {
+                    domainGraphDefinition.addChild(property, decode());
+                } else if (tag == REFERENCED_DEFINITION) {
+                    domainGraphDefinition.addChild(property, definitions.get(readIndex(definitions.size())));
+                } else {
+                    throw new IOException("Unknown domain graph definition tag: " + tag);
+                }
+            }
+            return domainGraphDefinition;
+        }
+
+        private DomainDefinition<?> readDomainDefinition() throws IOException {
+            int index = readIndex(domainDefinitions.size() + 1);
+            if (index < domainDefinitions.size()) {
+                return domainDefinitions.get(index);
+            }
+            String className = input.readUTF();
+            try {
+                DomainDefinition<?> domainDefinition = DomainDefinition.getInstance(
+                        Class.forName(className, false, classLoader), domainResolver);
+                domainDefinitions.add(domainDefinition);
+                return domainDefinition;
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Cannot load domain class " + className, e);
+            }
+        }
+
+        private String readProperty() throws IOException {
+            int index = readIndex(properties.size() + 1);
+            if (index < properties.size()) {
+                return properties.get(index);
+            }
+            String property = input.readUTF();
+            properties.add(property);
+            return property;
+        }
+
+        private int readIndex(int bound) throws IOException {
+            int index = input.readUnsignedShort();
+            if (index >= bound) {
+                throw new IOException("Corrupt domain graph definition; index out of range: " + index);
+            }
+            return index;
+        }
+    }
+}
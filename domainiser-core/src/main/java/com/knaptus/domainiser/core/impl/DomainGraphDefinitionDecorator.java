@@ -5,21 +5,29 @@ import com.knaptus.domainiser.core.DomainGraphDefinition;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Decorates the {@link com.knaptus.domainiser.core.DomainGraphDefinition} with walking path
  * <p>For instance, <br/>
  * e.g. object.spouse.children.friends etc.
  * </p>
+ * <p>Children are decorated once per property and reused, and the walking path is only rendered when the name is
+ * asked for, so walking a graph doesn't allocate for path bookkeeping.</p>
  *
  * @author Aditya Bhardwaj
  * @since 0.0.1
  */
 public class DomainGraphDefinitionDecorator<K> implements DomainGraphDefinition<K> {
 
-    private DomainGraphDefinition<K> underlyingDomainGraphDefinition;
+    private final DomainGraphDefinition<K> underlyingDomainGraphDefinition;
 
-    private StringBuilder walkingPath;
+    private final WalkingPath walkingPath;
+
+    // decorated children are created once per property and reused for every walk
+    private final ConcurrentMap<String, DomainGraphDefinitionDecorator<?>> decoratedChildren =
+            new ConcurrentHashMap<String, DomainGraphDefinitionDecorator<?>>();
 
     /**
      * Constructor to wrap top level domain graph definition.
@@ -27,8 +35,7 @@ public class DomainGraphDefinitionDecorator<K> implements DomainGraphDefinition<
      * @param underlyingDomainGraphDefinition
      */
     public DomainGraphDefinitionDecorator(DomainGraphDefinition<K> underlyingDomainGraphDefinition) {
-        this.underlyingDomainGraphDefinition = underlyingDomainGraphDefinition;
-        this.walkingPath = new StringBuilder("root");
+        this(underlyingDomainGraphDefinition, WalkingPath.root());
     }
 
     /**
@@ -39,8 +46,18 @@ public class DomainGraphDefinitionDecorator<K> implements DomainGraphDefinition<
      * @param property
      */
     public DomainGraphDefinitionDecorator(DomainGraphDefinition<K> underlyingDomainGraphDefinition, StringBuilder walkingPath, String property) {
+        this(underlyingDomainGraphDefinition, WalkingPath.root(walkingPath.toString()).child(property));
+    }
+
+    /**
+     * Constructor to wrap domain graph definition found at the provided walking path.
+     *
+     * @param underlyingDomainGraphDefinition
+     * @param walkingPath
+     */
+    public DomainGraphDefinitionDecorator(DomainGraphDefinition<K> underlyingDomainGraphDefinition, WalkingPath walkingPath) {
         this.underlyingDomainGraphDefinition = underlyingDomainGraphDefinition;
-        this.walkingPath = new StringBuilder(walkingPath).append(".").append(property);
+        this.walkingPath = walkingPath;
     }
 
     @Override
@@ -61,22 +78,45 @@ public class DomainGraphDefinitionDecorator<K> implements DomainGraphDefinition<
 
     @Override
     public <T> DomainGraphDefinition<T> getChild(String property, Class<T> clazz) {
-        DomainGraphDefinition<T> child = underlyingDomainGraphDefinition.getChild(property, clazz);
-        if  (child != null) {
-            return new DomainGraphDefinitionDecorator<T>(child, walkingPath, property);
-        } else {
-            return null;
-        }
+        return decorate(property, underlyingDomainGraphDefinition.getChild(property, clazz));
     }
 
     @Override
     public DomainGraphDefinition<?> getChild(String property) {
-        DomainGraphDefinition<?> decoratedChild = null;
-        DomainGraphDefinition<?> child = underlyingDomainGraphDefinition.getChild(property);
-        if (child != null) {
-            decoratedChild = new DomainGraphDefinitionDecorator(child, walkingPath, property);
+        return decorate(property, underlyingDomainGraphDefinition.getChild(property));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> DomainGraphDefinition<T> decorate(String property, DomainGraphDefinition<T> child) {
+        if (child == null) {
+            return null;
+        }
+
+        DomainGraphDefinitionDecorator<?> decoratedChild = decoratedChildren.get(property);
+        // underlying children can be replaced, in which case the decorated child is replaced too
+        if (decoratedChild == null || decoratedChild.underlyingDomainGraphDefinition != child) {
+            decoratedChild = new DomainGraphDefinitionDecorator<T>(child, walkingPath.child(property));
+            decoratedChildren.put(property, decoratedChild);
         }
-        return decoratedChild;
+        return (DomainGraphDefinition<T>) decoratedChild;
+    }
+
+    /**
+     * Returns the walking path of the decorated definition.
+     *
+     * @return
+     */
+    public WalkingPath getWalkingPath() {
+        return walkingPath;
+    }
+
+    /**
+     * Returns the decorated domain graph definition.
+     *
+     * @return
+     */
+    public DomainGraphDefinition<K> getUnderlyingDomainGraphDefinition() {
+        return underlyingDomainGraphDefinition;
     }
 
     @Override
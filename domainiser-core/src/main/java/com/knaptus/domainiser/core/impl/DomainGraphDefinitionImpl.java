@@ -152,7 +152,7 @@ public class DomainGraphDefinitionImpl<K> implements Serializable, DomainGraphDe
 
     @Override
     public String toString() {
-        return GSON.toJson(getGraph());
+        return DomainGraphDefinitionCodec.toJson(this);
     }
 
 
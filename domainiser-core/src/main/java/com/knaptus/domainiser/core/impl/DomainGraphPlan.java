@@ -0,0 +1,375 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import net.sf.cglib.proxy.Factory;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable execution plan compiled from a {@link DomainGraphDefinition} and its {@link DomainDefinition}s. All the
+ * property names, property kinds and children definitions are resolved at compile time, so walkers executing the plan
+ * neither look up properties by name nor check property types while walking.
+ * <p>Cyclic domain graph definitions compile into cyclic plans. A definition reused at several positions of the graph
+ * compiles into one plan per position, so every plan reports its own walking path, up to {@link #MAX_PATH_PLANS}
+ * plans per definition; further positions share the plan compiled first, which reports the path it was compiled at.
+ * This bounds the compilation of definitions shared at many levels, which would otherwise expand exponentially.</p>
+ * <p>Plans of {@link ImmutableDomainGraphDefinition}s are compiled once and cached on the definition; mutable
+ * definitions are compiled on every call as they can still change.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class DomainGraphPlan<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DomainGraphPlan.class);
+
+    /**
+     * Number of plans compiled for a definition reused at several positions after which it shares its first plan.
+     */
+    public static final int MAX_PATH_PLANS = 64;
+
+    private final DomainGraphDefinition<K> domainGraphDefinition;
+
+    private final DomainDefinition<K> domainDefinition;
+
+    private final WalkingPath path;
+
+    // all the properties in domain definition index order
+    private final PropertySlot[] slots;
+
+    // properties referring to domain models in domain definition index order
+    private final PropertySlot[] associationSlots;
+
+    private DomainGraphPlan(DomainGraphDefinition<K> domainGraphDefinition, DomainDefinition<K> domainDefinition,
+                            WalkingPath path) {
+        this.domainGraphDefinition = domainGraphDefinition;
+        this.domainDefinition = domainDefinition;
+        this.path = path;
+
+        int propertyCount = domainDefinition.getPropertyCount();
+        List<PropertySlot> associations = new ArrayList<PropertySlot>();
+        this.slots = new PropertySlot[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            slots[i] = new PropertySlot(domainDefinition, i);
+            if (slots[i].kind != PropertyKind.SIMPLE) {
+                associations.add(slots[i]);
+            }
+        }
+        this.associationSlots = associations.toArray(new PropertySlot[associations.size()]);
+    }
+
+    /**
+     * Compiles the provided domain graph definition into a plan. Decorated definitions keep their walking path, plans
+     * of immutable definitions are returned from the definition.
+     *
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    public static <T> DomainGraphPlan<T> compile(DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        if (domainGraphDefinition instanceof ImmutableDomainGraphDefinition) {
+            return ((ImmutableDomainGraphDefinition<T>) domainGraphDefinition).getPlan();
+        }
+        WalkingPath path = domainGraphDefinition instanceof DomainGraphDefinitionDecorator
+                ? ((DomainGraphDefinitionDecorator<T>) domainGraphDefinition).getWalkingPath()
+                : WalkingPath.root();
+        return compile(domainGraphDefinition, path);
+    }
+
+    /**
+     * Compiles the provided domain graph definition into a plan found at the provided walking path.
+     *
+     * @param domainGraphDefinition
+     * @param path
+     * @param <T>
+     * @return
+     */
+    static <T> DomainGraphPlan<T> compile(DomainGraphDefinition<T> domainGraphDefinition, WalkingPath path) {
+        return compile(domainGraphDefinition, path, new Compilation());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> DomainGraphPlan<T> compile(DomainGraphDefinition<T> domainGraphDefinition, WalkingPath path,
+                                                  Compilation compilation) {
+        Map<DomainGraphDefinition<?>, DomainGraphPlan<?>> ancestorPlans = compilation.ancestorPlans;
+        DomainGraphDefinition<T> underlyingDefinition = unwrap(domainGraphDefinition);
+        DomainGraphPlan<T> plan = (DomainGraphPlan<T>) ancestorPlans.get(underlyingDefinition);
+        if (plan != null) {
+            // cyclic definition, walked again with the plan of its ancestor
+            return plan;
+        }
+        PlanCount planCount = compilation.planCounts.get(underlyingDefinition);
+        if (planCount == null) {
+            planCount = new PlanCount();
+            compilation.planCounts.put(underlyingDefinition, planCount);
+        } else if (planCount.count >= MAX_PATH_PLANS) {
+            LOGGER.debug("Reusing the domain graph plan of [{}] for [{}]", planCount.firstPlan.path, path);
+            return (DomainGraphPlan<T>) planCount.firstPlan;
+        }
+
+        LOGGER.debug("Compiling domain graph plan for [{}]", path);
+        plan = new DomainGraphPlan<T>(domainGraphDefinition, underlyingDefinition.getDomainDefinition(), path);
+        if (planCount.count++ == 0) {
+            planCount.firstPlan = plan;
+        }
+        // only ancestors are registered, definitions shared by siblings get a plan with their own path
+        ancestorPlans.put(underlyingDefinition, plan);
+
+        Set<String> childrenNames = underlyingDefinition.getAllChildrenNames();
+        if (childrenNames != null) {
+            for (String childName : childrenNames) {
+                int index = plan.domainDefinition.getPropertyIndex(childName);
+                Validate.isTrue(index >= 0, childName + " :property doesn't exist in the domain: " + plan.getDomainClass());
+                PropertySlot slot = plan.slots[index];
+
+                DomainGraphDefinition<?> childDefinition = underlyingDefinition.getChild(childName);
+                if (slot.kind == PropertyKind.SIMPLE) {
+                    LOGGER.warn("Property [{}] of [{}] is not a domain association; it will be copied as it is", childName, path);
+                } else if (childDefinition != null) {
+                    slot.child = compile(childDefinition, path.child(childName), compilation);
+                }
+            }
+        }
+        ancestorPlans.remove(underlyingDefinition);
+        return plan;
+    }
+
+    private static <T> DomainGraphDefinition<T> unwrap(DomainGraphDefinition<T> domainGraphDefinition) {
+        DomainGraphDefinition<T> underlyingDefinition = domainGraphDefinition;
+        while (underlyingDefinition instanceof DomainGraphDefinitionDecorator) {
+            underlyingDefinition = ((DomainGraphDefinitionDecorator<T>) underlyingDefinition).getUnderlyingDomainGraphDefinition();
+        }
+        return underlyingDefinition;
+    }
+
+    /**
+     * Returns the domain graph definition the plan was compiled from.
+     *
+     * @return
+     */
+    public DomainGraphDefinition<K> getDomainGraphDefinition() {
+        return domainGraphDefinition;
+    }
+
+    /**
+     * Returns the domain class the provided domain model is an instance of. Instances of classes generated for a domain
+     * class, such as lazy clones, are instances of the domain class they were generated for.
+     *
+     * @param domainModel
+     * @return
+     */
+    public static Class<?> getModelClass(Object domainModel) {
+        Class<?> clazz = domainModel.getClass();
+        return domainModel instanceof Factory ? clazz.getSuperclass() : clazz;
+    }
+
+    /**
+     * Returns the domain definition of the plan.
+     *
+     * @return
+     */
+    public DomainDefinition<K> getDomainDefinition() {
+        return domainDefinition;
+    }
+
+    /**
+     * Returns the domain class of the plan.
+     *
+     * @return
+     */
+    public Class<K> getDomainClass() {
+        return domainDefinition.getClazz();
+    }
+
+    /**
+     * Returns the walking path of the plan e.g. root.spouse.children
+     *
+     * @return
+     */
+    public String getName() {
+        return path.toString();
+    }
+
+    /**
+     * Returns the walking path of the plan.
+     *
+     * @return
+     */
+    public WalkingPath getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of property slots i.e. all the read-write properties of the domain.
+     *
+     * @return
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the property slot at the provided domain definition property index.
+     *
+     * @param index
+     * @return
+     */
+    public PropertySlot getSlot(int index) {
+        return slots[index];
+    }
+
+    /**
+     * Returns the number of property slots referring to domain models.
+     *
+     * @return
+     */
+    public int getAssociationCount() {
+        return associationSlots.length;
+    }
+
+    /**
+     * Returns the n-th property slot referring to domain models.
+     *
+     * @param n
+     * @return
+     */
+    public PropertySlot getAssociationSlot(int n) {
+        return associationSlots[n];
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    /**
+     * State of a single compilation.
+     */
+    private static final class Compilation {
+
+        // plans of the definitions being compiled, i.e. of the ancestors of the current definition
+        private final Map<DomainGraphDefinition<?>, DomainGraphPlan<?>> ancestorPlans =
+                new IdentityHashMap<DomainGraphDefinition<?>, DomainGraphPlan<?>>();
+
+        private final Map<DomainGraphDefinition<?>, PlanCount> planCounts =
+                new IdentityHashMap<DomainGraphDefinition<?>, PlanCount>();
+    }
+
+    /**
+     * Number of plans compiled for a definition and the first of them, shared once too many have been compiled.
+     */
+    private static final class PlanCount {
+
+        private int count;
+
+        private DomainGraphPlan<?> firstPlan;
+    }
+
+    /**
+     * Kinds of properties walkers need to distinguish.
+     */
+    public enum PropertyKind {
+        /** non domain property, copied as it is */
+        SIMPLE,
+        /** single domain model */
+        DOMAIN,
+        /** list of domain models */
+        LIST,
+        /** set of domain models */
+        SET,
+        /** map with domain models as values */
+        MAP
+    }
+
+    /**
+     * Precomputed information about a single property of the domain.
+     */
+    public static final class PropertySlot {
+        private final int index;
+        private final String name;
+        private final PropertyKind kind;
+        private final Class<?> actualClass;
+        private final Class<?> domainClass;
+        // set only while compiling
+        private DomainGraphPlan<?> child;
+
+        private PropertySlot(DomainDefinition<?> domainDefinition, int index) {
+            this.index = index;
+            this.name = domainDefinition.getPropertyName(index);
+            this.actualClass = domainDefinition.getActualClass(index);
+            this.domainClass = domainDefinition.getUnderlyingDomainModel(index);
+            this.kind = kindOf(actualClass, domainClass);
+        }
+
+        private static PropertyKind kindOf(Class<?> actualClass, Class<?> domainClass) {
+            if (domainClass == null) {
+                return PropertyKind.SIMPLE;
+            } else if (List.class.isAssignableFrom(actualClass)) {
+                return PropertyKind.LIST;
+            } else if (Set.class.isAssignableFrom(actualClass)) {
+                return PropertyKind.SET;
+            } else if (Map.class.isAssignableFrom(actualClass)) {
+                return PropertyKind.MAP;
+            }
+            return PropertyKind.DOMAIN;
+        }
+
+        /**
+         * Returns the domain definition index of the property.
+         *
+         * @return
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public PropertyKind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the declared class of the property i.e. List, Set, Map or the domain class.
+         *
+         * @return
+         */
+        public Class<?> getActualClass() {
+            return actualClass;
+        }
+
+        /**
+         * Returns the domain class the property refers to or null for simple properties.
+         *
+         * @return
+         */
+        public Class<?> getDomainClass() {
+            return domainClass;
+        }
+
+        /**
+         * Returns the plan to walk the property with or null if the property is not part of the domain graph.
+         *
+         * @return
+         */
+        public DomainGraphPlan<?> getChild() {
+            return child;
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + kind + ")";
+        }
+    }
+}
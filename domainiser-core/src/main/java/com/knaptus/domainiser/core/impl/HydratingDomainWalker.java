@@ -0,0 +1,271 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.BatchLoader;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.UnresolvedAssociation;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Hydrates domain graphs loaded lazily from a data source. The graph is walked breadth first: at every level, all the
+ * unloaded associations of all the domain models of the level are handed to the {@link BatchLoader} in a single call
+ * before walking the next level. Walking a collection of domain models hydrates all of them together, so the number of
+ * round-trips to the data source depends on the depth of the domain graph definition rather than on the number of
+ * domain models.
+ * <p>The walked domain models are hydrated in place and returned as they are. Instances of subclasses of the domain
+ * classes, e.g. proxies of ORM libraries, are hydrated like instances of the domain classes.</p>
+ * <p>The {@link WalkListener} of the walker receives the enter and exit events of a domain model around collecting
+ * its children, after the batch load of its level, so node times don't include the round-trips.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class HydratingDomainWalker extends AbstractDomainWalker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HydratingDomainWalker.class);
+
+    private BatchLoader batchLoader;
+
+    public HydratingDomainWalker() {
+    }
+
+    public HydratingDomainWalker(BatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public <T> T walk(T domainModel, DomainGraphDefinition<T> domainGraphDefinition) {
+        hydrate(Collections.singleton(domainModel), domainGraphDefinition, false);
+        return domainModel;
+    }
+
+    @Override
+    public <T> List<T> walkList(List<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        // all the roots are hydrated together, parallel walks would load every root separately
+        return walk(domainModels, createEmptyList(domainModels), domainGraphDefinition);
+    }
+
+    @Override
+    public <T> Set<T> walkSet(Set<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition) {
+        return walk(domainModels, createEmptySet(domainModels), domainGraphDefinition);
+    }
+
+    @Override
+    public <K, V> Map<K, V> walkMap(Map<K, V> domainModels, DomainGraphDefinition<V> domainGraphDefinition) {
+        return walkMap(domainModels, createEmptyMap(domainModels), domainGraphDefinition);
+    }
+
+    @Override
+    public <T, Z extends Collection<T>> Z walk(Collection<T> domainModels, Z returnCollection,
+                                               DomainGraphDefinition<T> domainGraphDefinition) {
+        if (domainModels != null) {
+            Validate.notNull(returnCollection, "Collection object cannot be null");
+            hydrate(domainModels, domainGraphDefinition, true);
+            returnCollection.addAll(domainModels);
+        }
+        return returnCollection;
+    }
+
+    @Override
+    public <K, V> Map<K, V> walkMap(Map<K, V> domainModels, Map<K, V> returnMap,
+                                    DomainGraphDefinition<V> domainGraphDefinition) {
+        if (domainModels != null && returnMap != null) {
+            hydrate(domainModels.values(), domainGraphDefinition, true);
+            returnMap.putAll(domainModels);
+        }
+        return returnMap;
+    }
+
+    /**
+     * Hydrates the domain models level by level with one batch load per level.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param collection true if the domain models are walked as a collection
+     * @param <T>
+     */
+    private <T> void hydrate(Collection<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition,
+                             boolean collection) {
+        Validate.notNull(batchLoader, "Batch loader cannot be null");
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+
+        DomainGraphPlan<T> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        WalkListener walkListener = getWalkListener();
+        if (collection && walkListener != null) {
+            walkListener.collectionStart(domainGraphPlan.getPath(), domainModels.size());
+        }
+        // plans every domain model has been hydrated with so far
+        Map<Object, List<DomainGraphPlan<?>>> hydratedPlans = new IdentityHashMap<Object, List<DomainGraphPlan<?>>>();
+
+        List<Node> level = new ArrayList<Node>();
+        for (T domainModel : domainModels) {
+            addNode(level, domainModel, domainGraphPlan, hydratedPlans);
+        }
+
+        int depth = 0;
+        while (!level.isEmpty()) {
+            LOGGER.debug("Hydrating [{}] domain models at depth [{}]", level.size(), depth);
+            load(level);
+
+            List<Node> nextLevel = new ArrayList<Node>();
+            for (Node node : level) {
+                if (walkListener == null) {
+                    addChildNodes(nextLevel, node, hydratedPlans, null);
+                    continue;
+                }
+                walkListener.nodeEnter(node.domainGraphPlan.getPath(), node.domainModel);
+                try {
+                    addChildNodes(nextLevel, node, hydratedPlans, walkListener);
+                } finally {
+                    walkListener.nodeExit(node.domainGraphPlan.getPath(), node.domainModel);
+                }
+            }
+            level = nextLevel;
+            depth++;
+        }
+
+        if (collection && walkListener != null) {
+            walkListener.collectionEnd(domainGraphPlan.getPath(), domainModels.size());
+        }
+    }
+
+    private void addChildNodes(List<Node> nextLevel, Node node, Map<Object, List<DomainGraphPlan<?>>> hydratedPlans,
+                               WalkListener walkListener) {
+        for (int i = 0; i < node.domainGraphPlan.getAssociationCount(); i++) {
+            PropertySlot slot = node.domainGraphPlan.getAssociationSlot(i);
+            if (slot.getChild() != null) {
+                addChildNodes(nextLevel, getValue(node, slot), slot, hydratedPlans, walkListener);
+            }
+        }
+    }
+
+    /**
+     * Loads all the unloaded walked associations of the level in one batch.
+     *
+     * @param level
+     */
+    private void load(List<Node> level) {
+        List<UnresolvedAssociation> associations = new ArrayList<UnresolvedAssociation>();
+        List<Node> owners = new ArrayList<Node>();
+        List<PropertySlot> slots = new ArrayList<PropertySlot>();
+        // a domain model reached with several plans is in the level once per plan, its associations are loaded once
+        Map<Object, Set<String>> loadedProperties = new IdentityHashMap<Object, Set<String>>();
+
+        for (Node node : level) {
+            for (int i = 0; i < node.domainGraphPlan.getAssociationCount(); i++) {
+                PropertySlot slot = node.domainGraphPlan.getAssociationSlot(i);
+                if (slot.getChild() != null
+                        && !batchLoader.isLoaded(node.domainModel, slot.getName(), getValue(node, slot))
+                        && addLoadedProperty(loadedProperties, node.domainModel, slot.getName())) {
+                    associations.add(new UnresolvedAssociation(node.domainModel, slot.getName(), slot.getActualClass(),
+                            slot.getDomainClass()));
+                    owners.add(node);
+                    slots.add(slot);
+                }
+            }
+        }
+
+        if (!associations.isEmpty()) {
+            LOGGER.debug("Loading [{}] associations in one batch", associations.size());
+            batchLoader.load(associations);
+            for (int i = 0; i < associations.size(); i++) {
+                UnresolvedAssociation association = associations.get(i);
+                if (association.isResolved()) {
+                    setValue(owners.get(i), slots.get(i), association.getValue());
+                } else {
+                    LOGGER.trace("Association [{}] was not resolved by the batch loader", association);
+                }
+            }
+        }
+    }
+
+    private static boolean addLoadedProperty(Map<Object, Set<String>> loadedProperties, Object domainModel,
+                                             String property) {
+        Set<String> properties = loadedProperties.get(domainModel);
+        if (properties == null) {
+            properties = new HashSet<String>();
+            loadedProperties.put(domainModel, properties);
+        }
+        return properties.add(property);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addChildNodes(List<Node> nextLevel, Object value, PropertySlot slot,
+                               Map<Object, List<DomainGraphPlan<?>>> hydratedPlans, WalkListener walkListener) {
+        if (value == null) {
+            return;
+        }
+        DomainGraphPlan<Object> childPlan = (DomainGraphPlan<Object>) slot.getChild();
+        if (slot.getKind() == DomainGraphPlan.PropertyKind.DOMAIN) {
+            addNode(nextLevel, value, childPlan, hydratedPlans);
+            return;
+        }
+
+        Collection<Object> domainModels = slot.getKind() == DomainGraphPlan.PropertyKind.MAP
+                ? ((Map<Object, Object>) value).values()
+                : (Collection<Object>) value;
+        if (walkListener != null) {
+            walkListener.collectionStart(childPlan.getPath(), domainModels.size());
+        }
+        for (Object domainModel : domainModels) {
+            addNode(nextLevel, domainModel, childPlan, hydratedPlans);
+        }
+        if (walkListener != null) {
+            walkListener.collectionEnd(childPlan.getPath(), domainModels.size());
+        }
+    }
+
+    private <T> void addNode(List<Node> level, T domainModel, DomainGraphPlan<T> domainGraphPlan,
+                             Map<Object, List<DomainGraphPlan<?>>> hydratedPlans) {
+        if (domainModel == null) {
+            return;
+        }
+        // every domain model is hydrated once per plan however many paths lead to it, so that a domain model reached
+        // by a shallow path first is still hydrated as deep as the other paths ask for
+        List<DomainGraphPlan<?>> plans = hydratedPlans.get(domainModel);
+        if (plans == null) {
+            plans = new ArrayList<DomainGraphPlan<?>>(1);
+            hydratedPlans.put(domainModel, plans);
+        } else {
+            for (DomainGraphPlan<?> plan : plans) {
+                if (plan == domainGraphPlan) {
+                    return;
+                }
+            }
+        }
+        Validate.isTrue(domainGraphPlan.getDomainClass().isAssignableFrom(domainModel.getClass()), "Domain model and graph definition passed do not match");
+        plans.add(domainGraphPlan);
+        level.add(new Node(domainModel, domainGraphPlan));
+    }
+
+    private static Object getValue(Node node, PropertySlot slot) {
+        return node.domainGraphPlan.getDomainDefinition().getPropertyAccessor().getValue(node.domainModel, slot.getIndex());
+    }
+
+    private static void setValue(Node node, PropertySlot slot, Object value) {
+        node.domainGraphPlan.getDomainDefinition().getPropertyAccessor().setValue(node.domainModel, slot.getIndex(), value);
+    }
+
+    public void setBatchLoader(BatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    /**
+     * Domain model of a level with the plan it is walked with.
+     */
+    private static final class Node {
+
+        private final Object domainModel;
+
+        private final DomainGraphPlan<?> domainGraphPlan;
+
+        private Node(Object domainModel, DomainGraphPlan<?> domainGraphPlan) {
+            this.domainModel = domainModel;
+            this.domainGraphPlan = domainGraphPlan;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import org.apache.commons.lang.Validate;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of a domain graph definition which can be shared by any number of threads and walks. Adding children
+ * fails with an UnsupportedOperationException.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class ImmutableDomainGraphDefinition<K> implements Serializable, DomainGraphDefinition<K> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DomainDefinition<K> domainDefinition;
+
+    // filled while copying, read only afterwards
+    private final Map<String, DomainGraphDefinition<?>> children = new HashMap<String, DomainGraphDefinition<?>>();
+
+    private final Set<String> childrenNames = Collections.unmodifiableSet(children.keySet());
+
+    // compiled on first walk, the definition cannot change afterwards
+    private transient volatile DomainGraphPlan<K> plan;
+
+    private ImmutableDomainGraphDefinition(DomainDefinition<K> domainDefinition) {
+        this.domainDefinition = domainDefinition;
+    }
+
+    /**
+     * Returns an immutable copy of the provided domain graph definition, or the definition itself if it is already
+     * immutable. Cyclic definitions are copied into cyclic definitions.
+     *
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    public static <T> ImmutableDomainGraphDefinition<T> copyOf(DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        return copyOf(domainGraphDefinition,
+                new IdentityHashMap<DomainGraphDefinition<?>, ImmutableDomainGraphDefinition<?>>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ImmutableDomainGraphDefinition<T> copyOf(DomainGraphDefinition<T> domainGraphDefinition,
+            Map<DomainGraphDefinition<?>, ImmutableDomainGraphDefinition<?>> copiedDefinitions) {
+        if (domainGraphDefinition instanceof ImmutableDomainGraphDefinition) {
+            return (ImmutableDomainGraphDefinition<T>) domainGraphDefinition;
+        }
+        ImmutableDomainGraphDefinition<T> copy = (ImmutableDomainGraphDefinition<T>) copiedDefinitions.get(domainGraphDefinition);
+        if (copy == null) {
+            copy = new ImmutableDomainGraphDefinition<T>(domainGraphDefinition.getDomainDefinition());
+            copiedDefinitions.put(domainGraphDefinition, copy);
+            for (String childName : domainGraphDefinition.getAllChildrenNames()) {
+                copy.children.put(childName, copyOf(domainGraphDefinition.getChild(childName), copiedDefinitions));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the plan compiled from this definition, compiling it on first use.
+     *
+     * @return
+     */
+    DomainGraphPlan<K> getPlan() {
+        DomainGraphPlan<K> compiledPlan = plan;
+        if (compiledPlan == null) {
+            // racing threads compile equal plans, any of them can be kept
+            compiledPlan = DomainGraphPlan.compile(this, WalkingPath.root());
+            plan = compiledPlan;
+        }
+        return compiledPlan;
+    }
+
+    @Override
+    public DomainDefinition<K> getDomainDefinition() {
+        return domainDefinition;
+    }
+
+    @Override
+    public Class<K> getDomainClass() {
+        return domainDefinition.getClazz();
+    }
+
+    @Override
+    public Set<String> getAllChildrenNames() {
+        return childrenNames;
+    }
+
+    @Override
+    public void addChild(String property, DomainGraphDefinition<?> child) {
+        throw new UnsupportedOperationException("Immutable domain graph definition cannot be changed");
+    }
+
+    @Override
+    public void addChild(String property, DomainDefinition<?> propertyDomainDefinition) {
+        throw new UnsupportedOperationException("Immutable domain graph definition cannot be changed");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> DomainGraphDefinition<T> getChild(String property, Class<T> clazz) {
+        DomainGraphDefinition<?> child = getChild(property);
+        if (child != null && clazz.isAssignableFrom(child.getDomainClass())) {
+            return (DomainGraphDefinition<T>) child;
+        }
+        return null;
+    }
+
+    @Override
+    public DomainGraphDefinition<?> getChild(String property) {
+        return children.get(property);
+    }
+
+    @Override
+    public String getName() {
+        return domainDefinition.getClazz().getSimpleName();
+    }
+
+    /**
+     * Returns Map representation of the graph.
+     *
+     * @return
+     */
+    @Override
+    public Map getGraph() {
+        Map graph = new HashMap();
+        for (Map.Entry<String, DomainGraphDefinition<?>> child : children.entrySet()) {
+            graph.put(child.getKey(), child.getValue().getGraph());
+        }
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        return DomainGraphDefinitionCodec.toJson(this);
+    }
+}
@@ -0,0 +1,168 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits of a single walk: number of domain models, depth of nesting, wall clock time and cooperative cancellation.
+ * When a limit is exceeded the walk either stops with a {@link WalkBudgetExceededException} or, if truncating, stops
+ * walking further domain models and returns a result marked as truncated, see {@link WalkResult}.
+ * <p>Budgets are immutable; every with method returns a new budget. The deadline and cancellation are checked every
+ * {@link #CHECK_INTERVAL} domain models, the other limits for every domain model.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class WalkBudget {
+
+    public static final int CHECK_INTERVAL = 64;
+
+    private static final WalkBudget UNLIMITED = new WalkBudget(0, -1, 0, null, false);
+
+    /**
+     * Limits a walk can exceed.
+     */
+    public enum Limit {
+        /** maximum number of walked domain models */
+        NODES,
+        /** maximum depth of a walked domain model, the root being at depth 0 */
+        DEPTH,
+        /** wall clock time */
+        DEADLINE,
+        /** cancellation token */
+        CANCELLED
+    }
+
+    private final int maxNodes;
+
+    private final int maxDepth;
+
+    private final long timeoutNanos;
+
+    private final CancellationToken cancellationToken;
+
+    private final boolean truncating;
+
+    private WalkBudget(int maxNodes, int maxDepth, long timeoutNanos, CancellationToken cancellationToken,
+                       boolean truncating) {
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+        this.timeoutNanos = timeoutNanos;
+        this.cancellationToken = cancellationToken;
+        this.truncating = truncating;
+    }
+
+    /**
+     * Returns a budget without limits, throwing when exceeded.
+     *
+     * @return
+     */
+    public static WalkBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public WalkBudget withMaxNodes(int maxNodes) {
+        Validate.isTrue(maxNodes > 0, "Maximum number of domain models must be positive");
+        return new WalkBudget(maxNodes, maxDepth, timeoutNanos, cancellationToken, truncating);
+    }
+
+    public WalkBudget withMaxDepth(int maxDepth) {
+        Validate.isTrue(maxDepth >= 0, "Maximum depth cannot be negative");
+        return new WalkBudget(maxNodes, maxDepth, timeoutNanos, cancellationToken, truncating);
+    }
+
+    public WalkBudget withTimeout(long timeout, TimeUnit unit) {
+        Validate.isTrue(timeout > 0, "Timeout must be positive");
+        return new WalkBudget(maxNodes, maxDepth, unit.toNanos(timeout), cancellationToken, truncating);
+    }
+
+    public WalkBudget withCancellationToken(CancellationToken cancellationToken) {
+        return new WalkBudget(maxNodes, maxDepth, timeoutNanos, cancellationToken, truncating);
+    }
+
+    /**
+     * Returns a budget truncating the walk instead of throwing when a limit is exceeded. Truncating budgets are only
+     * accepted by the walks returning a {@link WalkResult}, which tells whether domain models were left out.
+     *
+     * @return
+     */
+    public WalkBudget truncating() {
+        return new WalkBudget(maxNodes, maxDepth, timeoutNanos, cancellationToken, true);
+    }
+
+    /**
+     * Returns the deadline of a walk starting now, in {@link System#nanoTime()} terms, or 0 without timeout.
+     *
+     * @return
+     */
+    long startDeadline() {
+        if (timeoutNanos == 0) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        return deadline == 0 ? 1 : deadline;
+    }
+
+    /**
+     * Returns the limit exceeded by walking the n-th domain model at the provided depth, or null within budget.
+     *
+     * @param nodeCount
+     * @param depth
+     * @param deadline
+     * @return
+     */
+    Limit check(int nodeCount, int depth, long deadline) {
+        if (maxNodes != 0 && nodeCount > maxNodes) {
+            return Limit.NODES;
+        }
+        if (maxDepth >= 0 && depth > maxDepth) {
+            return Limit.DEPTH;
+        }
+        if (nodeCount % CHECK_INTERVAL == 1) {
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                return Limit.DEADLINE;
+            }
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                return Limit.CANCELLED;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the maximum number of domain models or 0 if unlimited.
+     *
+     * @return
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Returns the maximum depth or -1 if unlimited.
+     *
+     * @return
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public boolean isTruncating() {
+        return truncating;
+    }
+
+    @Override
+    public String toString() {
+        return "WalkBudget{maxNodes=" + maxNodes + ", maxDepth=" + maxDepth + ", timeoutNanos=" + timeoutNanos
+                + ", cancellable=" + (cancellationToken != null) + ", truncating=" + truncating + "}";
+    }
+}
@@ -0,0 +1,38 @@
+package com.knaptus.domainiser.core.impl;
+
+/**
+ * Thrown when a walk exceeds a limit of its {@link WalkBudget}.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class WalkBudgetExceededException extends RuntimeException {
+
+    private final WalkBudget.Limit limit;
+
+    private final WalkingPath path;
+
+    public WalkBudgetExceededException(WalkBudget.Limit limit, WalkingPath path, int walkedCount) {
+        super("Walk budget exceeded: " + limit + " at [" + path + "] after walking " + walkedCount + " domain models");
+        this.limit = limit;
+        this.path = path;
+    }
+
+    /**
+     * Returns the exceeded limit.
+     *
+     * @return
+     */
+    public WalkBudget.Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the walking path of the domain model which exceeded the budget.
+     *
+     * @return
+     */
+    public WalkingPath getPath() {
+        return path;
+    }
+}
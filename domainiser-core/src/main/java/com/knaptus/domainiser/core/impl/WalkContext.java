@@ -0,0 +1,243 @@
+package com.knaptus.domainiser.core.impl;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Holds the state of a single top level walk. It is created once per walk and passed through all the recursive
+ * walks, so that every domain model is walked only once however many paths lead to it.
+ * <p>Domain models are tracked by reference, their equals and hashCode methods are never invoked.</p>
+ * <p>The context also enforces the {@link WalkBudget} of the walk, if any: walkers call {@link #enter(WalkingPath)} and
+ * {@link #exit()} around every domain model they walk.</p>
+ * <p>This context must only be used by a single thread, see {@link ConcurrentWalkContext} for walks spanning
+ * several threads.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class WalkContext {
+
+    private final Map<Object, Object> walkedModels;
+
+    private WalkBudget walkBudget;
+
+    private long deadline;
+
+    private int nodeCount;
+
+    private int depth;
+
+    // first limit exceeded by a truncating walk
+    private volatile WalkBudget.Limit truncation;
+
+    // set once a limit stopping the rest of the walk is exceeded
+    private volatile boolean stopped;
+
+    // shares the walked domain models without the budget, created on first use
+    private volatile WalkContext unbudgetedContext;
+
+    public WalkContext() {
+        this(new IdentityHashMap<Object, Object>());
+    }
+
+    /**
+     * Creates a context tracking the walked domain models in the provided map.
+     *
+     * @param walkedModels
+     */
+    protected WalkContext(Map<Object, Object> walkedModels) {
+        this.walkedModels = walkedModels;
+    }
+
+    /**
+     * Returns the result of walking the provided domain model or null if it hasn't been walked yet.
+     *
+     * @param domainModel
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getWalked(T domainModel) {
+        return (T) walkedModels.get(domainModel);
+    }
+
+    /**
+     * Records the result of walking the provided domain model unless a result has already been recorded, in which
+     * case the recorded result is returned and should be used instead. Walkers should record the result before walking
+     * the children of the domain model so that cyclic references resolve to the same result.
+     *
+     * @param domainModel
+     * @param walkedModel
+     * @param <T>
+     * @return the previously recorded result or null if the provided result was recorded
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T putWalkedIfAbsent(T domainModel, T walkedModel) {
+        Object recordedModel = walkedModels.get(domainModel);
+        if (recordedModel == null) {
+            walkedModels.put(domainModel, walkedModel);
+        }
+        return (T) recordedModel;
+    }
+
+    /**
+     * Returns true if the context can be shared by several threads.
+     *
+     * @return
+     */
+    public boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Returns the number of domain models walked so far.
+     *
+     * @return
+     */
+    public int getWalkedCount() {
+        return walkedModels.size();
+    }
+
+    /**
+     * Sets the budget of the walk and starts its deadline.
+     *
+     * @param walkBudget
+     */
+    public void setWalkBudget(WalkBudget walkBudget) {
+        this.walkBudget = walkBudget;
+        this.deadline = walkBudget == null ? 0 : walkBudget.startDeadline();
+    }
+
+    public WalkBudget getWalkBudget() {
+        return walkBudget;
+    }
+
+    /**
+     * Returns a context sharing the domain models walked by this context but without its budget, e.g. to walk parts of
+     * the graph after the walk has ended. Returns this context if it has no budget.
+     *
+     * @return
+     */
+    public WalkContext withoutWalkBudget() {
+        if (walkBudget == null) {
+            return this;
+        }
+        WalkContext context = unbudgetedContext;
+        if (context == null) {
+            // racing threads create equivalent contexts, any of them can be kept
+            context = newSharingContext();
+            unbudgetedContext = context;
+        }
+        return context;
+    }
+
+    /**
+     * Creates a context without budget sharing the walked domain models of this context.
+     *
+     * @return
+     */
+    protected WalkContext newSharingContext() {
+        return new WalkContext(walkedModels);
+    }
+
+    /**
+     * Starts the budget of the walk again, e.g. for the next chunk of a chunked walk, while keeping the domain models
+     * walked so far. The node count, truncation and deadline start from scratch.
+     */
+    public void restartWalkBudget() {
+        addNodeCount(-getNodeCount());
+        setDepth(0);
+        truncation = null;
+        stopped = false;
+        deadline = walkBudget == null ? 0 : walkBudget.startDeadline();
+    }
+
+    /**
+     * Checks the budget before walking a domain model at the provided path. Returns false if the domain model must not
+     * be walked because a truncating budget is exceeded.
+     *
+     * @param path
+     * @return
+     * @throws WalkBudgetExceededException if a budget which is not truncating is exceeded
+     */
+    public boolean enter(WalkingPath path) {
+        WalkBudget budget = walkBudget;
+        if (budget == null) {
+            return true;
+        }
+        if (stopped) {
+            return false;
+        }
+
+        int currentDepth = getDepth();
+        int count = addNodeCount(1);
+        WalkBudget.Limit limit = budget.check(count, currentDepth, deadline);
+        if (limit == null) {
+            setDepth(currentDepth + 1);
+            return true;
+        }
+
+        addNodeCount(-1);
+        if (!budget.isTruncating()) {
+            throw new WalkBudgetExceededException(limit, path, getNodeCount());
+        }
+        if (truncation == null) {
+            truncation = limit;
+        }
+        // domain models at lower depths can still be walked
+        if (limit != WalkBudget.Limit.DEPTH) {
+            stopped = true;
+        }
+        return false;
+    }
+
+    /**
+     * Leaves a domain model entered with {@link #enter(WalkingPath)}.
+     */
+    public void exit() {
+        if (walkBudget != null) {
+            setDepth(getDepth() - 1);
+        }
+    }
+
+    /**
+     * Returns the first limit exceeded by a truncating walk or null if nothing was truncated.
+     *
+     * @return
+     */
+    public WalkBudget.Limit getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * Returns the number of domain models entered so far with a budget.
+     *
+     * @return
+     */
+    public int getNodeCount() {
+        return addNodeCount(0);
+    }
+
+    /**
+     * Returns the number of domain models entered and not exited yet by the current thread.
+     *
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Sets the depth of the current thread, e.g. when a task walking a part of the graph starts on another thread.
+     *
+     * @param depth
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    protected int addNodeCount(int delta) {
+        nodeCount += delta;
+        return nodeCount;
+    }
+}
@@ -0,0 +1,44 @@
+package com.knaptus.domainiser.core.impl;
+
+/**
+ * Receives the events of walks, e.g. to measure which parts of a domain graph definition cost the time. Events carry
+ * the walking path of the domain graph definition being walked. Listeners of parallel walks receive events from
+ * several threads at once; the enter and exit events of a domain model are always received on the same thread.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public interface WalkListener {
+
+    /**
+     * Called before walking a domain model.
+     *
+     * @param path
+     * @param domainModel
+     */
+    void nodeEnter(WalkingPath path, Object domainModel);
+
+    /**
+     * Called after walking a domain model, whether or not the walk succeeded.
+     *
+     * @param path
+     * @param domainModel
+     */
+    void nodeExit(WalkingPath path, Object domainModel);
+
+    /**
+     * Called before walking a list, set or map of domain models.
+     *
+     * @param path
+     * @param size
+     */
+    void collectionStart(WalkingPath path, int size);
+
+    /**
+     * Called after walking a list, set or map of domain models.
+     *
+     * @param path
+     * @param size
+     */
+    void collectionEnd(WalkingPath path, int size);
+}
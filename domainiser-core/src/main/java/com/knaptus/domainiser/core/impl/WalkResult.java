@@ -0,0 +1,59 @@
+package com.knaptus.domainiser.core.impl;
+
+/**
+ * Result of a walk with a truncating {@link WalkBudget}. A truncated result lacks the domain models which would have
+ * exceeded the budget: their associations are left null and they are left out of collections.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class WalkResult<T> {
+
+    private final T result;
+
+    private final WalkBudget.Limit truncation;
+
+    private final int walkedCount;
+
+    public WalkResult(T result, WalkBudget.Limit truncation, int walkedCount) {
+        this.result = result;
+        this.truncation = truncation;
+        this.walkedCount = walkedCount;
+    }
+
+    public T getResult() {
+        return result;
+    }
+
+    /**
+     * Returns true if domain models were left out because the budget was exceeded.
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+
+    /**
+     * Returns the first limit exceeded or null if the result is complete.
+     *
+     * @return
+     */
+    public WalkBudget.Limit getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * Returns the number of domain models walked.
+     *
+     * @return
+     */
+    public int getWalkedCount() {
+        return walkedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "WalkResult{truncation=" + truncation + ", walkedCount=" + walkedCount + ", result=" + result + "}";
+    }
+}
@@ -0,0 +1,131 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Path from the root of a domain graph to one of its positions e.g. root.spouse.children
+ * <p>Paths point to their parent path instead of copying it, so creating a child path is cheap. The String form is
+ * only rendered when asked for and is then kept.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class WalkingPath {
+
+    public static final String ROOT = "root";
+
+    private static final char SEPARATOR = '.';
+
+    private final WalkingPath parent;
+
+    private final String property;
+
+    private final int depth;
+
+    private final int hashCode;
+
+    // rendered lazily, racing threads render the same value
+    private String name;
+
+    private WalkingPath(WalkingPath parent, String property) {
+        this.parent = parent;
+        this.property = property;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.hashCode = 31 * (parent == null ? 0 : parent.hashCode) + property.hashCode();
+    }
+
+    /**
+     * Returns a new root path.
+     *
+     * @return
+     */
+    public static WalkingPath root() {
+        return root(ROOT);
+    }
+
+    /**
+     * Returns a new root path with the provided name.
+     *
+     * @param name
+     * @return
+     */
+    public static WalkingPath root(String name) {
+        Validate.notNull(name, "Name of the root path cannot be null");
+        return new WalkingPath(null, name);
+    }
+
+    /**
+     * Returns path of the provided property relative to this path.
+     *
+     * @param property
+     * @return
+     */
+    public WalkingPath child(String property) {
+        Validate.notNull(property, "Property cannot be null");
+        return new WalkingPath(this, property);
+    }
+
+    /**
+     * Returns the parent path or null for a root path.
+     *
+     * @return
+     */
+    public WalkingPath getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the last property of the path, or the root name for a root path.
+     *
+     * @return
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Returns the number of properties from the root, 0 for the root path.
+     *
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public String toString() {
+        String rendered = name;
+        if (rendered == null) {
+            rendered = render(new StringBuilder()).toString();
+            name = rendered;
+        }
+        return rendered;
+    }
+
+    private StringBuilder render(StringBuilder builder) {
+        if (parent != null) {
+            parent.render(builder).append(SEPARATOR);
+        }
+        return builder.append(property);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WalkingPath)) {
+            return false;
+        }
+        WalkingPath that = (WalkingPath) o;
+        return hashCode == that.hashCode
+                && depth == that.depth
+                && property.equals(that.property)
+                && (parent == null ? that.parent == null : parent.equals(that.parent));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
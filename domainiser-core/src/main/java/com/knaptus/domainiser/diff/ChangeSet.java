@@ -0,0 +1,69 @@
+package com.knaptus.domainiser.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Changes between two domain graphs found by the {@link DiffingDomainWalker}, in the order they were found. Only
+ * changed properties are part of the change set, unchanged domain models leave no trace in it.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class ChangeSet implements Iterable<PropertyChange> {
+
+    private final List<PropertyChange> changes = new ArrayList<PropertyChange>();
+
+    void add(PropertyChange change) {
+        changes.add(change);
+    }
+
+    /**
+     * Returns true if the domain graphs are equal.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Returns all the changes, the returned list cannot be modified.
+     *
+     * @return
+     */
+    public List<PropertyChange> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Returns the change at the provided path e.g. root.spouse.age, or null if the property has not changed.
+     *
+     * @param path
+     * @return
+     */
+    public PropertyChange getChange(String path) {
+        for (PropertyChange change : changes) {
+            if (change.getPath().equals(path)) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<PropertyChange> iterator() {
+        return getChanges().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return changes.toString();
+    }
+}
@@ -0,0 +1,305 @@
+package com.knaptus.domainiser.diff;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.core.PropertyAccessor;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionDecorator;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import com.knaptus.domainiser.core.impl.WalkingPath;
+import org.apache.commons.lang.Validate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Walks two versions of a domain graph side by side along a single domain graph definition and collects the
+ * differences in a {@link ChangeSet}, e.g. to send only the changes made to a clone to downstream caches.
+ * <p>Simple properties are compared with equals, arrays by their content. Identical references are not walked any
+ * further, so shared domain models cost nothing and only the changed properties end up in the change set.</p>
+ * <p>Elements of lists and sets are matched by identity unless a key property is set for their domain class with
+ * {@link #setElementKey(Class, String)}; values of maps are matched by their map key. Element order is not
+ * compared.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class DiffingDomainWalker {
+
+    private DomainResolver domainResolver;
+
+    // key property of the elements of lists and sets per domain class, elements are matched by identity otherwise
+    private final ConcurrentMap<Class<?>, String> elementKeys = new ConcurrentHashMap<Class<?>, String>();
+
+    /**
+     * Compares the simple properties of the two domain models.
+     *
+     * @param oldModel
+     * @param newModel
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ChangeSet diff(T oldModel, T newModel) {
+        Validate.notNull(oldModel, "Old domain model cannot be null");
+        Validate.notNull(newModel, "New domain model cannot be null");
+
+        DomainGraphDefinitionDecorator<T> graphDecorator = new DomainGraphDefinitionDecorator<T>(
+                new DomainGraphDefinitionImpl<T>(DomainDefinition.getInstance((Class<T>) DomainGraphPlan.getModelClass(newModel), domainResolver))
+        );
+        return diff(oldModel, newModel, graphDecorator);
+    }
+
+    /**
+     * Compares the two domain graphs with the provided domain graph definition.
+     *
+     * @param oldModel
+     * @param newModel
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    public <T> ChangeSet diff(T oldModel, T newModel, DomainGraphDefinition<T> domainGraphDefinition) {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        return diff(oldModel, newModel, DomainGraphPlan.compile(domainGraphDefinition));
+    }
+
+    /**
+     * Compares the two domain graphs with a precompiled domain graph plan.
+     *
+     * @param oldModel
+     * @param newModel
+     * @param domainGraphPlan
+     * @param <T>
+     * @return
+     */
+    public <T> ChangeSet diff(T oldModel, T newModel, DomainGraphPlan<T> domainGraphPlan) {
+        Validate.notNull(domainGraphPlan, "Domain graph plan cannot be null");
+
+        Diff diff = new Diff();
+        diffModel(oldModel, newModel, domainGraphPlan, domainGraphPlan.getPath(), diff);
+        return diff.changeSet;
+    }
+
+    private void diffModel(Object oldModel, Object newModel, DomainGraphPlan<?> domainGraphPlan, WalkingPath path,
+                           Diff diff) {
+        if (oldModel == newModel) {
+            return;
+        }
+        if (oldModel == null) {
+            diff.record(path, PropertyChange.Type.ADDED, null, newModel);
+            return;
+        } else if (newModel == null) {
+            diff.record(path, PropertyChange.Type.REMOVED, oldModel, null);
+            return;
+        } else if (DomainGraphPlan.getModelClass(oldModel) != DomainGraphPlan.getModelClass(newModel)) {
+            diff.record(path, PropertyChange.Type.MODIFIED, oldModel, newModel);
+            return;
+        }
+        Validate.isTrue(domainGraphPlan.getDomainClass() == DomainGraphPlan.getModelClass(newModel), "Domain model and graph definition passed do not match");
+        // every pair of domain models is compared once however many paths lead to it
+        if (!diff.compare(oldModel, newModel)) {
+            return;
+        }
+
+        PropertyAccessor propertyAccessor = domainGraphPlan.getDomainDefinition().getPropertyAccessor();
+        for (int i = 0; i < domainGraphPlan.getSlotCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getSlot(i);
+            if (slot.getKind() != DomainGraphPlan.PropertyKind.SIMPLE && slot.getChild() == null) {
+                // associations which are not part of the domain graph are not compared
+                continue;
+            }
+
+            Object oldValue = propertyAccessor.getValue(oldModel, slot.getIndex());
+            Object newValue = propertyAccessor.getValue(newModel, slot.getIndex());
+            if (oldValue == newValue) {
+                continue;
+            }
+            WalkingPath propertyPath = path.child(slot.getName());
+            switch (slot.getKind()) {
+                case SIMPLE:
+                    if (!isEqual(oldValue, newValue)) {
+                        diff.record(propertyPath, PropertyChange.Type.MODIFIED, oldValue, newValue);
+                    }
+                    break;
+                case DOMAIN:
+                    diffModel(oldValue, newValue, slot.getChild(), propertyPath, diff);
+                    break;
+                case LIST:
+                case SET:
+                    if (oldValue == null || newValue == null) {
+                        diff.record(propertyPath, PropertyChange.Type.MODIFIED, oldValue, newValue);
+                    } else {
+                        diffElements((Collection<?>) oldValue, (Collection<?>) newValue, slot, path, diff);
+                    }
+                    break;
+                case MAP:
+                    if (oldValue == null || newValue == null) {
+                        diff.record(propertyPath, PropertyChange.Type.MODIFIED, oldValue, newValue);
+                    } else {
+                        diffEntries((Map<?, ?>) oldValue, (Map<?, ?>) newValue, slot, path, diff);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void diffElements(Collection<?> oldElements, Collection<?> newElements, PropertySlot slot,
+                              WalkingPath path, Diff diff) {
+        DomainGraphPlan<?> elementPlan = slot.getChild();
+        int keyIndex = getKeyIndex(elementPlan);
+        PropertyAccessor propertyAccessor = elementPlan.getDomainDefinition().getPropertyAccessor();
+
+        Object[] oldArray = oldElements.toArray();
+        boolean[] matched = new boolean[oldArray.length];
+        Map<Object, Integer> positions = keyIndex < 0
+                ? new IdentityHashMap<Object, Integer>(oldArray.length)
+                : new HashMap<Object, Integer>((int) (oldArray.length / 0.75f) + 1);
+        for (int i = 0; i < oldArray.length; i++) {
+            Object key = getKey(oldArray[i], keyIndex, propertyAccessor);
+            if (!positions.containsKey(key)) {
+                positions.put(key, i);
+            }
+        }
+
+        int position = 0;
+        for (Object newElement : newElements) {
+            Object key = getKey(newElement, keyIndex, propertyAccessor);
+            Integer oldPosition = positions.remove(key);
+            WalkingPath elementPath = path.child(elementName(slot, keyIndex < 0 ? position : key));
+            if (oldPosition == null) {
+                diff.record(elementPath, PropertyChange.Type.ADDED, null, newElement);
+            } else {
+                matched[oldPosition] = true;
+                diffModel(oldArray[oldPosition], newElement, elementPlan, elementPath, diff);
+            }
+            position++;
+        }
+
+        for (int i = 0; i < oldArray.length; i++) {
+            if (!matched[i]) {
+                Object key = keyIndex < 0 ? i : getKey(oldArray[i], keyIndex, propertyAccessor);
+                diff.record(path.child(elementName(slot, key)), PropertyChange.Type.REMOVED, oldArray[i], null);
+            }
+        }
+    }
+
+    private void diffEntries(Map<?, ?> oldEntries, Map<?, ?> newEntries, PropertySlot slot, WalkingPath path,
+                             Diff diff) {
+        for (Entry<?, ?> newEntry : newEntries.entrySet()) {
+            WalkingPath entryPath = path.child(elementName(slot, newEntry.getKey()));
+            if (oldEntries.containsKey(newEntry.getKey())) {
+                diffModel(oldEntries.get(newEntry.getKey()), newEntry.getValue(), slot.getChild(), entryPath, diff);
+            } else {
+                diff.record(entryPath, PropertyChange.Type.ADDED, null, newEntry.getValue());
+            }
+        }
+        for (Entry<?, ?> oldEntry : oldEntries.entrySet()) {
+            if (!newEntries.containsKey(oldEntry.getKey())) {
+                diff.record(path.child(elementName(slot, oldEntry.getKey())), PropertyChange.Type.REMOVED,
+                        oldEntry.getValue(), null);
+            }
+        }
+    }
+
+    private int getKeyIndex(DomainGraphPlan<?> elementPlan) {
+        String keyProperty = elementKeys.get(elementPlan.getDomainClass());
+        if (keyProperty == null) {
+            return -1;
+        }
+        int keyIndex = elementPlan.getDomainDefinition().getPropertyIndex(keyProperty);
+        Validate.isTrue(keyIndex >= 0, keyProperty + " :property doesn't exist in the domain: " + elementPlan.getDomainClass());
+        return keyIndex;
+    }
+
+    private static Object getKey(Object element, int keyIndex, PropertyAccessor propertyAccessor) {
+        if (keyIndex < 0 || element == null) {
+            return element;
+        }
+        return propertyAccessor.getValue(element, keyIndex);
+    }
+
+    private static String elementName(PropertySlot slot, Object key) {
+        return slot.getName() + "[" + key + "]";
+    }
+
+    private static boolean isEqual(Object oldValue, Object newValue) {
+        if (oldValue == null || newValue == null) {
+            return oldValue == newValue;
+        } else if (oldValue.getClass().isArray() && newValue.getClass().isArray()) {
+            return Arrays.deepEquals(new Object[]{oldValue}, new Object[]{newValue});
+        }
+        return oldValue.equals(newValue);
+    }
+
+    /**
+     * Sets the property the elements of lists and sets of the provided domain class are matched by, e.g. an id.
+     * Elements with equal keys are compared with each other, the others are reported as added or removed.
+     *
+     * @param domainClass
+     * @param keyProperty
+     */
+    public void setElementKey(Class<?> domainClass, String keyProperty) {
+        Validate.notNull(domainClass, "Domain class cannot be null");
+        Validate.notNull(keyProperty, "Key property cannot be null");
+        elementKeys.put(domainClass, keyProperty);
+    }
+
+    /**
+     * Matches the elements of lists and sets of the provided domain class by identity again.
+     *
+     * @param domainClass
+     */
+    public void removeElementKey(Class<?> domainClass) {
+        elementKeys.remove(domainClass);
+    }
+
+    public DomainResolver getDomainResolver() {
+        return domainResolver;
+    }
+
+    public void setDomainResolver(DomainResolver domainResolver) {
+        this.domainResolver = domainResolver;
+    }
+
+    /**
+     * State of a single diff.
+     */
+    private static final class Diff {
+
+        private final ChangeSet changeSet = new ChangeSet();
+
+        // old domain models mapped to all the new domain models they were compared with
+        private final Map<Object, Set<Object>> comparedModels = new IdentityHashMap<Object, Set<Object>>();
+
+        /**
+         * Records the comparison of the provided pair of domain models.
+         *
+         * @param oldModel
+         * @param newModel
+         * @return false if the pair was compared before
+         */
+        private boolean compare(Object oldModel, Object newModel) {
+            Set<Object> newModels = comparedModels.get(oldModel);
+            if (newModels == null) {
+                newModels = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+                comparedModels.put(oldModel, newModels);
+            }
+            return newModels.add(newModel);
+        }
+
+        private void record(WalkingPath path, PropertyChange.Type type, Object oldValue, Object newValue) {
+            changeSet.add(new PropertyChange(path, type, oldValue, newValue));
+        }
+    }
+}
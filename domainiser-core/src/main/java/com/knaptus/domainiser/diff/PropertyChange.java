@@ -0,0 +1,72 @@
+package com.knaptus.domainiser.diff;
+
+import com.knaptus.domainiser.core.impl.WalkingPath;
+
+/**
+ * Single change found by the {@link DiffingDomainWalker}, e.g. MODIFIED root.spouse.age: 49 -> 50
+ * <p>Elements of collections are addressed by their key, or by their position when matched by identity, e.g.
+ * root.children[Child 1].age or root.friends[Friend1]. Added and removed domain models are reported once, with the
+ * whole domain model as the new or old value.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public final class PropertyChange {
+
+    /**
+     * Kinds of changes.
+     */
+    public enum Type {
+        /** value or element only present in the new domain graph */
+        ADDED,
+        /** value or element only present in the old domain graph */
+        REMOVED,
+        /** value present in both domain graphs but different */
+        MODIFIED
+    }
+
+    private final WalkingPath path;
+
+    private final Type type;
+
+    private final Object oldValue;
+
+    private final Object newValue;
+
+    public PropertyChange(WalkingPath path, Type type, Object oldValue, Object newValue) {
+        this.path = path;
+        this.type = type;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Returns the path of the changed property e.g. root.spouse.age
+     *
+     * @return
+     */
+    public String getPath() {
+        return path.toString();
+    }
+
+    public WalkingPath getWalkingPath() {
+        return path;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + path + ": " + oldValue + " -> " + newValue;
+    }
+}
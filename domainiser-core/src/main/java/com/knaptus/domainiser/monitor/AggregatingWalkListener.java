@@ -0,0 +1,205 @@
+package com.knaptus.domainiser.monitor;
+
+import com.knaptus.domainiser.core.impl.WalkListener;
+import com.knaptus.domainiser.core.impl.WalkingPath;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link WalkListener} keeping {@link PathStatistics} for every walking path of the walks. Once registered with an
+ * MBean server, the statistics of every path are published as an MBean named
+ * com.knaptus.domainiser:type=WalkStatistics,name=&lt;listener name&gt;,path=&lt;walking path&gt;
+ * <p>The listener can be shared by several walkers and by the threads of parallel walks.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class AggregatingWalkListener implements WalkListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregatingWalkListener.class);
+
+    public static final String JMX_DOMAIN = "com.knaptus.domainiser";
+
+    private final String name;
+
+    private final ConcurrentMap<WalkingPath, PathStatistics> statistics = new ConcurrentHashMap<WalkingPath, PathStatistics>();
+
+    // start times of the domain models being walked by the current thread
+    private final ThreadLocal<TimerStack> timers = new ThreadLocal<TimerStack>() {
+        @Override
+        protected TimerStack initialValue() {
+            return new TimerStack();
+        }
+    };
+
+    private volatile MBeanServer mBeanServer;
+
+    public AggregatingWalkListener(String name) {
+        Validate.notNull(name, "Name cannot be null");
+        this.name = name;
+    }
+
+    @Override
+    public void nodeEnter(WalkingPath path, Object domainModel) {
+        timers.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void nodeExit(WalkingPath path, Object domainModel) {
+        long timeNanos = System.nanoTime() - timers.get().pop();
+        getStatistics(path).recordNode(timeNanos);
+    }
+
+    @Override
+    public void collectionStart(WalkingPath path, int size) {
+    }
+
+    @Override
+    public void collectionEnd(WalkingPath path, int size) {
+        getStatistics(path).recordCollection(size);
+    }
+
+    /**
+     * Returns the statistics of the provided path, creating them if the path hasn't been walked yet.
+     *
+     * @param path
+     * @return
+     */
+    public PathStatistics getStatistics(WalkingPath path) {
+        PathStatistics pathStatistics = statistics.get(path);
+        if (pathStatistics == null) {
+            pathStatistics = new PathStatistics(path);
+            PathStatistics existingStatistics = statistics.putIfAbsent(path, pathStatistics);
+            if (existingStatistics != null) {
+                return existingStatistics;
+            }
+            MBeanServer server = mBeanServer;
+            if (server != null) {
+                register(server, pathStatistics);
+            }
+        }
+        return pathStatistics;
+    }
+
+    /**
+     * Returns the statistics of all the walked paths.
+     *
+     * @return
+     */
+    public Collection<PathStatistics> getAllStatistics() {
+        return new ArrayList<PathStatistics>(statistics.values());
+    }
+
+    /**
+     * Publishes the statistics of the walked paths, and of the paths walked from now on, with the MBean server.
+     *
+     * @param server
+     */
+    public synchronized void registerMBeans(MBeanServer server) {
+        Validate.notNull(server, "MBean server cannot be null");
+        this.mBeanServer = server;
+        for (PathStatistics pathStatistics : statistics.values()) {
+            register(server, pathStatistics);
+        }
+    }
+
+    /**
+     * Removes the statistics of all the paths from the MBean server.
+     */
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = mBeanServer;
+        mBeanServer = null;
+        if (server != null) {
+            for (PathStatistics pathStatistics : statistics.values()) {
+                try {
+                    server.unregisterMBean(getObjectName(pathStatistics.getWalkingPath()));
+                } catch (InstanceNotFoundException e) {
+                    LOGGER.debug("Walk statistics of [{}] were not registered", pathStatistics.getPath());
+                } catch (MBeanRegistrationException e) {
+                    LOGGER.warn("Walk statistics of [" + pathStatistics.getPath() + "] cannot be unregistered", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resets the statistics of all the paths.
+     */
+    public void reset() {
+        for (PathStatistics pathStatistics : statistics.values()) {
+            pathStatistics.reset();
+        }
+    }
+
+    /**
+     * Returns the name the statistics of the provided path are published with.
+     *
+     * @param path
+     * @return
+     */
+    public ObjectName getObjectName(WalkingPath path) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=WalkStatistics,name=" + ObjectName.quote(name)
+                    + ",path=" + ObjectName.quote(path.toString()));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid MBean name for path " + path, e);
+        }
+    }
+
+    private void register(MBeanServer server, PathStatistics pathStatistics) {
+        ObjectName objectName = getObjectName(pathStatistics.getWalkingPath());
+        try {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(pathStatistics, objectName);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.debug("Walk statistics of [{}] already registered", pathStatistics.getPath());
+        } catch (MBeanRegistrationException e) {
+            LOGGER.warn("Walk statistics of [" + pathStatistics.getPath() + "] cannot be registered", e);
+        } catch (NotCompliantMBeanException e) {
+            throw new IllegalStateException("Walk statistics are not a compliant MBean", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + statistics.values();
+    }
+
+    /**
+     * Growable stack of start times, avoids boxing them.
+     */
+    private static final class TimerStack {
+
+        private long[] startTimes = new long[16];
+
+        private int size;
+
+        private void push(long startTime) {
+            if (size == startTimes.length) {
+                long[] grown = new long[size * 2];
+                System.arraycopy(startTimes, 0, grown, 0, size);
+                startTimes = grown;
+            }
+            startTimes[size++] = startTime;
+        }
+
+        private long pop() {
+            return startTimes[--size];
+        }
+    }
+}
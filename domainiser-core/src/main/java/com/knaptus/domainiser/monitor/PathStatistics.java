@@ -0,0 +1,172 @@
+package com.knaptus.domainiser.monitor;
+
+import com.knaptus.domainiser.core.impl.WalkingPath;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of the domain models and collections walked at a single walking path. Walk times include the time spent
+ * walking the children of the domain models. Latencies are kept in a histogram with power of two buckets, bucket n
+ * counting the walks which took from 2^n up to 2^(n+1) nanoseconds, so percentiles are accurate within a factor of two.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class PathStatistics implements PathStatisticsMBean {
+
+    private static final int BUCKETS = 64;
+
+    private final WalkingPath path;
+
+    private final AtomicLong nodeCount = new AtomicLong();
+
+    private final AtomicLong collectionCount = new AtomicLong();
+
+    private final AtomicLong collectionElementCount = new AtomicLong();
+
+    private final AtomicLong totalTimeNanos = new AtomicLong();
+
+    private final AtomicLong maxTimeNanos = new AtomicLong();
+
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(BUCKETS);
+
+    public PathStatistics(WalkingPath path) {
+        this.path = path;
+    }
+
+    /**
+     * Records the walk of a domain model which took the provided time.
+     *
+     * @param timeNanos
+     */
+    public void recordNode(long timeNanos) {
+        nodeCount.incrementAndGet();
+        totalTimeNanos.addAndGet(timeNanos);
+        latencyHistogram.incrementAndGet(bucket(timeNanos));
+
+        long maxNanos = maxTimeNanos.get();
+        while (timeNanos > maxNanos && !maxTimeNanos.compareAndSet(maxNanos, timeNanos)) {
+            maxNanos = maxTimeNanos.get();
+        }
+    }
+
+    /**
+     * Records the walk of a collection of the provided size.
+     *
+     * @param size
+     */
+    public void recordCollection(int size) {
+        collectionCount.incrementAndGet();
+        collectionElementCount.addAndGet(size);
+    }
+
+    private static int bucket(long timeNanos) {
+        return timeNanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(timeNanos);
+    }
+
+    @Override
+    public String getPath() {
+        return path.toString();
+    }
+
+    public WalkingPath getWalkingPath() {
+        return path;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount.get();
+    }
+
+    @Override
+    public long getCollectionCount() {
+        return collectionCount.get();
+    }
+
+    @Override
+    public long getCollectionElementCount() {
+        return collectionElementCount.get();
+    }
+
+    @Override
+    public long getTotalTimeNanos() {
+        return totalTimeNanos.get();
+    }
+
+    @Override
+    public long getMeanTimeNanos() {
+        long count = nodeCount.get();
+        return count == 0 ? 0 : totalTimeNanos.get() / count;
+    }
+
+    @Override
+    public long getMaxTimeNanos() {
+        return maxTimeNanos.get();
+    }
+
+    @Override
+    public long getMedianTimeNanos() {
+        return getPercentileTimeNanos(0.5);
+    }
+
+    @Override
+    public long getPercentile99TimeNanos() {
+        return getPercentileTimeNanos(0.99);
+    }
+
+    /**
+     * Returns the upper bound of the histogram bucket holding the provided percentile, between 0 and 1, of the walk
+     * times.
+     *
+     * @param percentile
+     * @return
+     */
+    public long getPercentileTimeNanos(double percentile) {
+        long[] histogram = getLatencyHistogram();
+        long count = 0;
+        for (long bucketCount : histogram) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latencyHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        nodeCount.set(0);
+        collectionCount.set(0);
+        collectionElementCount.set(0);
+        totalTimeNanos.set(0);
+        maxTimeNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyHistogram.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path + ": nodes=" + getNodeCount() + ", collections=" + getCollectionCount() + ", elements="
+                + getCollectionElementCount() + ", meanNanos=" + getMeanTimeNanos() + ", maxNanos=" + getMaxTimeNanos();
+    }
+}
@@ -0,0 +1,32 @@
+package com.knaptus.domainiser.monitor;
+
+/**
+ * Management interface of the statistics of a single walking path.
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public interface PathStatisticsMBean {
+
+    String getPath();
+
+    long getNodeCount();
+
+    long getCollectionCount();
+
+    long getCollectionElementCount();
+
+    long getTotalTimeNanos();
+
+    long getMeanTimeNanos();
+
+    long getMaxTimeNanos();
+
+    long getMedianTimeNanos();
+
+    long getPercentile99TimeNanos();
+
+    long[] getLatencyHistogram();
+
+    void reset();
+}
@@ -0,0 +1,270 @@
+package com.knaptus.domainiser.serialize;
+
+import com.google.gson.stream.JsonWriter;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.PropertyAccessor;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import org.apache.commons.lang.Validate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Walks a domain graph along a domain graph definition and writes it straight to a {@link JsonWriter}, without
+ * cloning the graph or collecting it in maps first. The definition acts as a projection: simple properties are always
+ * written, associations only when walked by the definition.
+ * <p>Domain models reached again are written according to the {@link ReferencePolicy} of the walker. Simple values
+ * are written as JSON numbers, booleans, arrays and objects where they map naturally, dates as epoch milliseconds and
+ * any other value as its String form. NaN and infinite numbers are written as strings, e.g. "NaN", unless the
+ * JsonWriter is lenient. Null properties are written unless the JsonWriter is set not to serialize nulls.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class JsonWritingDomainWalker {
+
+    public static final String ID_PROPERTY = "@id";
+
+    public static final String REFERENCE_PROPERTY = "@ref";
+
+    /**
+     * Ways of writing domain models reached again during a walk.
+     */
+    public enum ReferencePolicy {
+        /** every domain model is written with an @id and domain models reached again as {"@ref": id} */
+        REFERENCE_IDS,
+        /** domain models reached again through a cycle are written as null, shared ones are written again */
+        TRUNCATE
+    }
+
+    private ReferencePolicy referencePolicy = ReferencePolicy.TRUNCATE;
+
+    /**
+     * Returns the JSON form of the domain graph.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    public <T> String toJson(T domainModel, DomainGraphDefinition<T> domainGraphDefinition) {
+        StringWriter json = new StringWriter();
+        try {
+            write(domainModel, domainGraphDefinition, json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write JSON to a string", e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Writes the JSON form of the domain graph to the writer. The writer is flushed but not closed.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param writer
+     * @param <T>
+     * @throws IOException
+     */
+    public <T> void write(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, Writer writer)
+            throws IOException {
+        Validate.notNull(writer, "Writer cannot be null");
+        write(domainModel, domainGraphDefinition, new JsonWriter(writer));
+    }
+
+    /**
+     * Writes the JSON form of the domain graph as the next value of the JSON writer.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param jsonWriter
+     * @param <T>
+     * @throws IOException
+     */
+    public <T> void write(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, JsonWriter jsonWriter)
+            throws IOException {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        Validate.notNull(jsonWriter, "JSON writer cannot be null");
+        writeModel(domainModel, DomainGraphPlan.compile(domainGraphDefinition), jsonWriter,
+                new IdentityHashMap<Object, Integer>());
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the domain models as a JSON array, as the next value of the JSON writer. Reference ids are shared by all
+     * the domain models.
+     *
+     * @param domainModels
+     * @param domainGraphDefinition
+     * @param jsonWriter
+     * @param <T>
+     * @throws IOException
+     */
+    public <T> void writeAll(Iterable<T> domainModels, DomainGraphDefinition<T> domainGraphDefinition,
+                             JsonWriter jsonWriter) throws IOException {
+        Validate.notNull(domainModels, "Domain models cannot be null");
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        Validate.notNull(jsonWriter, "JSON writer cannot be null");
+
+        DomainGraphPlan<T> domainGraphPlan = DomainGraphPlan.compile(domainGraphDefinition);
+        Map<Object, Integer> writtenModels = new IdentityHashMap<Object, Integer>();
+        jsonWriter.beginArray();
+        for (T domainModel : domainModels) {
+            writeModel(domainModel, domainGraphPlan, jsonWriter, writtenModels);
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes a domain model. The written models are the ones being written in {@link ReferencePolicy#TRUNCATE} mode
+     * and all the ones written so far, with their ids, in {@link ReferencePolicy#REFERENCE_IDS} mode.
+     *
+     * @param domainModel
+     * @param domainGraphPlan
+     * @param jsonWriter
+     * @param writtenModels
+     * @throws IOException
+     */
+    private void writeModel(Object domainModel, DomainGraphPlan<?> domainGraphPlan, JsonWriter jsonWriter,
+                            Map<Object, Integer> writtenModels) throws IOException {
+        if (domainModel == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        Integer id = writtenModels.get(domainModel);
+        if (id != null) {
+            if (referencePolicy == ReferencePolicy.REFERENCE_IDS) {
+                jsonWriter.beginObject().name(REFERENCE_PROPERTY).value(id).endObject();
+            } else {
+                jsonWriter.nullValue();
+            }
+            return;
+        }
+        Validate.isTrue(domainGraphPlan.getDomainClass() == DomainGraphPlan.getModelClass(domainModel), "Domain model and graph definition passed do not match");
+
+        id = writtenModels.size() + 1;
+        writtenModels.put(domainModel, id);
+        jsonWriter.beginObject();
+        if (referencePolicy == ReferencePolicy.REFERENCE_IDS) {
+            jsonWriter.name(ID_PROPERTY).value(id);
+        }
+
+        PropertyAccessor propertyAccessor = domainGraphPlan.getDomainDefinition().getPropertyAccessor();
+        for (int i = 0; i < domainGraphPlan.getSlotCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getSlot(i);
+            DomainGraphPlan<?> childPlan = slot.getChild();
+            if (slot.getKind() != DomainGraphPlan.PropertyKind.SIMPLE && childPlan == null) {
+                continue;
+            }
+
+            Object value = propertyAccessor.getValue(domainModel, slot.getIndex());
+            jsonWriter.name(slot.getName());
+            if (value == null) {
+                jsonWriter.nullValue();
+                continue;
+            }
+            switch (slot.getKind()) {
+                case SIMPLE:
+                    writeValue(value, jsonWriter);
+                    break;
+                case DOMAIN:
+                    writeModel(value, childPlan, jsonWriter, writtenModels);
+                    break;
+                case LIST:
+                case SET:
+                    jsonWriter.beginArray();
+                    for (Object element : (Collection<?>) value) {
+                        writeModel(element, childPlan, jsonWriter, writtenModels);
+                    }
+                    jsonWriter.endArray();
+                    break;
+                case MAP:
+                    jsonWriter.beginObject();
+                    for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        jsonWriter.name(String.valueOf(entry.getKey()));
+                        writeModel(entry.getValue(), childPlan, jsonWriter, writtenModels);
+                    }
+                    jsonWriter.endObject();
+                    break;
+            }
+        }
+        jsonWriter.endObject();
+
+        if (referencePolicy == ReferencePolicy.TRUNCATE) {
+            // only the domain models being written are cycles, shared ones are written again
+            writtenModels.remove(domainModel);
+        }
+    }
+
+    private static void writeValue(Object value, JsonWriter jsonWriter) throws IOException {
+        if (value == null) {
+            jsonWriter.nullValue();
+        } else if (value instanceof Number) {
+            if (!jsonWriter.isLenient() && isNonFinite((Number) value)) {
+                // strict JSON has no NaN and infinity literals
+                jsonWriter.value(value.toString());
+            } else {
+                jsonWriter.value((Number) value);
+            }
+        } else if (value instanceof Boolean) {
+            jsonWriter.value((Boolean) value);
+        } else if (value instanceof Date) {
+            jsonWriter.value(((Date) value).getTime());
+        } else if (value instanceof Collection) {
+            jsonWriter.beginArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(element, jsonWriter);
+            }
+            jsonWriter.endArray();
+        } else if (value.getClass().isArray()) {
+            jsonWriter.beginArray();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                writeValue(Array.get(value, i), jsonWriter);
+            }
+            jsonWriter.endArray();
+        } else if (value instanceof Map) {
+            jsonWriter.beginObject();
+            for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                jsonWriter.name(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue(), jsonWriter);
+            }
+            jsonWriter.endObject();
+        } else if (value instanceof Enum) {
+            jsonWriter.value(((Enum<?>) value).name());
+        } else {
+            jsonWriter.value(value.toString());
+        }
+    }
+
+    private static boolean isNonFinite(Number value) {
+        if (value instanceof Double) {
+            return ((Double) value).isNaN() || ((Double) value).isInfinite();
+        } else if (value instanceof Float) {
+            return ((Float) value).isNaN() || ((Float) value).isInfinite();
+        }
+        return false;
+    }
+
+    /**
+     * Sets the way domain models reached again are written. Defaults to {@link ReferencePolicy#TRUNCATE}.
+     *
+     * @param referencePolicy
+     */
+    public void setReferencePolicy(ReferencePolicy referencePolicy) {
+        Validate.notNull(referencePolicy, "Reference policy cannot be null");
+        this.referencePolicy = referencePolicy;
+    }
+
+    public ReferencePolicy getReferencePolicy() {
+        return referencePolicy;
+    }
+}
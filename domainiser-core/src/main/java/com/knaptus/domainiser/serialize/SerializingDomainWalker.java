@@ -0,0 +1,738 @@
+package com.knaptus.domainiser.serialize;
+
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.PropertyAccessor;
+import com.knaptus.domainiser.core.impl.CollectionFactory;
+import com.knaptus.domainiser.core.impl.DefaultCollectionFactory;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import org.apache.commons.lang.Validate;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Walks a domain graph along a domain graph definition and writes the walked properties straight to a binary
+ * stream, without cloning the graph first, and reads such streams back into new domain graphs.
+ * <p>The format is driven by the definition, which both sides must agree on: properties are written in domain
+ * definition index order without their names, primitive properties are written as they are and associations not
+ * walked by the definition are not written at all. Domain models reached again, e.g. shared or cyclic ones, are
+ * written as references to their first occurrence, so reading reproduces the shape of the written graph.</p>
+ * <p>Strings, wrappers, enums, dates, big numbers and UUIDs are encoded natively, enums by their class name and
+ * ordinal so that they can be read as map keys too. Other simple values, e.g. lists of simple values, are rejected
+ * unless Java serialization is enabled with {@link #setJavaSerialization(boolean)}, as reading them back deserializes
+ * whatever classes the stream names.</p>
+ * <p>Streams are read without reading ahead, so several graphs can be read one after the other from the same
+ * stream, and lengths read from the stream are only allocated as far as the stream holds the bytes.</p>
+ *
+ * @author Aditya Bhardwaj
+ * @since 0.0.1
+ */
+public class SerializingDomainWalker {
+
+    private static final int MAGIC = 0x44474753;
+
+    private static final short VERSION = 2;
+
+    private static final byte NULL_MODEL = 0;
+
+    private static final byte NEW_MODEL = 1;
+
+    private static final byte REFERENCED_MODEL = 2;
+
+    private static final int NULL_COLLECTION = -1;
+
+    // byte arrays of untrusted length are allocated in steps no bigger than the bytes read so far
+    private static final int READ_CHUNK_SIZE = 8192;
+
+    // tags of simple values of non primitive properties
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte BOOLEAN_VALUE = 2;
+    private static final byte BYTE_VALUE = 3;
+    private static final byte CHAR_VALUE = 4;
+    private static final byte SHORT_VALUE = 5;
+    private static final byte INT_VALUE = 6;
+    private static final byte LONG_VALUE = 7;
+    private static final byte FLOAT_VALUE = 8;
+    private static final byte DOUBLE_VALUE = 9;
+    private static final byte ENUM_VALUE = 10;
+    private static final byte BIG_INTEGER_VALUE = 11;
+    private static final byte BIG_DECIMAL_VALUE = 12;
+    private static final byte DATE_VALUE = 13;
+    private static final byte UUID_VALUE = 14;
+    private static final byte SERIALIZED_VALUE = 15;
+
+    private static final Map<Class<?>, Byte> VALUE_TAGS = new HashMap<Class<?>, Byte>();
+
+    static {
+        VALUE_TAGS.put(String.class, STRING_VALUE);
+        VALUE_TAGS.put(Boolean.class, BOOLEAN_VALUE);
+        VALUE_TAGS.put(Byte.class, BYTE_VALUE);
+        VALUE_TAGS.put(Character.class, CHAR_VALUE);
+        VALUE_TAGS.put(Short.class, SHORT_VALUE);
+        VALUE_TAGS.put(Integer.class, INT_VALUE);
+        VALUE_TAGS.put(Long.class, LONG_VALUE);
+        VALUE_TAGS.put(Float.class, FLOAT_VALUE);
+        VALUE_TAGS.put(Double.class, DOUBLE_VALUE);
+        VALUE_TAGS.put(BigInteger.class, BIG_INTEGER_VALUE);
+        VALUE_TAGS.put(BigDecimal.class, BIG_DECIMAL_VALUE);
+        VALUE_TAGS.put(Date.class, DATE_VALUE);
+        VALUE_TAGS.put(UUID.class, UUID_VALUE);
+    }
+
+    private static final Map<Byte, Class<?>> PRIMITIVE_CLASSES = new HashMap<Byte, Class<?>>();
+
+    static {
+        PRIMITIVE_CLASSES.put(BOOLEAN_VALUE, boolean.class);
+        PRIMITIVE_CLASSES.put(BYTE_VALUE, byte.class);
+        PRIMITIVE_CLASSES.put(CHAR_VALUE, char.class);
+        PRIMITIVE_CLASSES.put(SHORT_VALUE, short.class);
+        PRIMITIVE_CLASSES.put(INT_VALUE, int.class);
+        PRIMITIVE_CLASSES.put(LONG_VALUE, long.class);
+        PRIMITIVE_CLASSES.put(FLOAT_VALUE, float.class);
+        PRIMITIVE_CLASSES.put(DOUBLE_VALUE, double.class);
+    }
+
+    // no-arg constructors of the domain classes read so far
+    private final ConcurrentMap<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
+    private CollectionFactory collectionFactory = new DefaultCollectionFactory();
+
+    // simple values which are not encoded natively are written and read with Java serialization
+    private boolean javaSerialization = false;
+
+    /**
+     * Writes the domain graph to a new byte array.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     */
+    public <T> byte[] write(T domainModel, DomainGraphDefinition<T> domainGraphDefinition) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeGraph(domainModel, domainGraphDefinition, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write to a byte array", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the domain graph to the output stream. The stream is flushed but not closed.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param outputStream
+     * @param <T>
+     * @throws IOException
+     */
+    public <T> void write(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, OutputStream outputStream)
+            throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        writeGraph(domainModel, domainGraphDefinition, output);
+        output.flush();
+    }
+
+    /**
+     * Writes the domain graph to the buffer, starting at its position.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param buffer
+     * @param <T>
+     * @throws java.nio.BufferOverflowException if the graph doesn't fit in the remaining buffer
+     */
+    public <T> void write(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, ByteBuffer buffer) {
+        Validate.notNull(buffer, "Buffer cannot be null");
+        try {
+            writeGraph(domainModel, domainGraphDefinition, new DataOutputStream(new ByteBufferOutputStream(buffer)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write to a buffer", e);
+        }
+    }
+
+    /**
+     * Writes the domain graph with the provided domain graph definition.
+     *
+     * @param domainModel
+     * @param domainGraphDefinition
+     * @param output
+     * @param <T>
+     * @throws IOException
+     * @throws IllegalArgumentException if a simple value can neither be encoded nor serialized
+     */
+    private <T> void writeGraph(T domainModel, DomainGraphDefinition<T> domainGraphDefinition, DataOutput output)
+            throws IOException {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        writeModel(domainModel, DomainGraphPlan.compile(domainGraphDefinition), output,
+                new IdentityHashMap<Object, Integer>());
+    }
+
+    private void writeModel(Object domainModel, DomainGraphPlan<?> domainGraphPlan, DataOutput output,
+                            Map<Object, Integer> writtenModels) throws IOException {
+        if (domainModel == null) {
+            output.writeByte(NULL_MODEL);
+            return;
+        }
+        Integer reference = writtenModels.get(domainModel);
+        if (reference != null) {
+            output.writeByte(REFERENCED_MODEL);
+            output.writeInt(reference);
+            return;
+        }
+        Validate.isTrue(domainGraphPlan.getDomainClass() == DomainGraphPlan.getModelClass(domainModel), "Domain model and graph definition passed do not match");
+        // register the domain model before writing the children so that cyclic references resolve to it
+        writtenModels.put(domainModel, writtenModels.size());
+        output.writeByte(NEW_MODEL);
+
+        PropertyAccessor propertyAccessor = domainGraphPlan.getDomainDefinition().getPropertyAccessor();
+        for (int i = 0; i < domainGraphPlan.getSlotCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getSlot(i);
+            DomainGraphPlan<?> childPlan = slot.getChild();
+            if (slot.getKind() != DomainGraphPlan.PropertyKind.SIMPLE && childPlan == null) {
+                continue;
+            }
+
+            Object value = propertyAccessor.getValue(domainModel, slot.getIndex());
+            switch (slot.getKind()) {
+                case SIMPLE:
+                    writeValue(value, slot, output);
+                    break;
+                case DOMAIN:
+                    writeModel(value, childPlan, output, writtenModels);
+                    break;
+                case LIST:
+                case SET:
+                    if (value == null) {
+                        output.writeInt(NULL_COLLECTION);
+                    } else {
+                        Collection<?> elements = (Collection<?>) value;
+                        output.writeInt(elements.size());
+                        for (Object element : elements) {
+                            writeModel(element, childPlan, output, writtenModels);
+                        }
+                    }
+                    break;
+                case MAP:
+                    if (value == null) {
+                        output.writeInt(NULL_COLLECTION);
+                    } else {
+                        Map<?, ?> entries = (Map<?, ?>) value;
+                        output.writeInt(entries.size());
+                        for (Entry<?, ?> entry : entries.entrySet()) {
+                            writeValue(entry.getKey(), slot, output);
+                            writeModel(entry.getValue(), childPlan, output, writtenModels);
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void writeValue(Object value, PropertySlot slot, DataOutput output) throws IOException {
+        Class<?> actualClass = slot.getActualClass();
+        if (actualClass.isPrimitive() && slot.getKind() == DomainGraphPlan.PropertyKind.SIMPLE) {
+            writePrimitive(value, actualClass, output);
+            return;
+        }
+        if (value == null) {
+            output.writeByte(NULL_VALUE);
+            return;
+        }
+
+        Byte tag = VALUE_TAGS.get(value.getClass());
+        if (tag != null) {
+            output.writeByte(tag);
+            switch (tag) {
+                case STRING_VALUE:
+                    writeString((String) value, output);
+                    break;
+                case BIG_INTEGER_VALUE:
+                    writeBytes(((BigInteger) value).toByteArray(), output);
+                    break;
+                case BIG_DECIMAL_VALUE:
+                    BigDecimal decimal = (BigDecimal) value;
+                    writeBytes(decimal.unscaledValue().toByteArray(), output);
+                    output.writeInt(decimal.scale());
+                    break;
+                case DATE_VALUE:
+                    output.writeLong(((Date) value).getTime());
+                    break;
+                case UUID_VALUE:
+                    output.writeLong(((UUID) value).getMostSignificantBits());
+                    output.writeLong(((UUID) value).getLeastSignificantBits());
+                    break;
+                default:
+                    writePrimitive(value, PRIMITIVE_CLASSES.get(tag), output);
+            }
+        } else if (value instanceof Enum) {
+            // the class is written as map keys are only declared as keys of the map class
+            Enum<?> constant = (Enum<?>) value;
+            output.writeByte(ENUM_VALUE);
+            writeString(constant.getDeclaringClass().getName(), output);
+            output.writeInt(constant.ordinal());
+        } else if (javaSerialization && value instanceof Serializable) {
+            output.writeByte(SERIALIZED_VALUE);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream objectOutput = new ObjectOutputStream(bytes);
+            objectOutput.writeObject(value);
+            objectOutput.close();
+            writeBytes(bytes.toByteArray(), output);
+        } else {
+            throw new IllegalArgumentException("Property " + slot.getName() + " holds a value which cannot be serialized: "
+                    + value.getClass() + (javaSerialization ? "" : "; Java serialization is disabled"));
+        }
+    }
+
+    private static void writePrimitive(Object value, Class<?> primitiveClass, DataOutput output) throws IOException {
+        if (primitiveClass == int.class) {
+            output.writeInt((Integer) value);
+        } else if (primitiveClass == long.class) {
+            output.writeLong((Long) value);
+        } else if (primitiveClass == boolean.class) {
+            output.writeBoolean((Boolean) value);
+        } else if (primitiveClass == double.class) {
+            output.writeDouble((Double) value);
+        } else if (primitiveClass == float.class) {
+            output.writeFloat((Float) value);
+        } else if (primitiveClass == char.class) {
+            output.writeChar((Character) value);
+        } else if (primitiveClass == short.class) {
+            output.writeShort((Short) value);
+        } else {
+            output.writeByte((Byte) value);
+        }
+    }
+
+    private static void writeString(String value, DataOutput output) throws IOException {
+        writeBytes(value.getBytes("UTF-8"), output);
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutput output) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a domain graph written with the provided domain graph definition from a byte array.
+     *
+     * @param bytes
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     * @throws IOException if the bytes are not a domain graph written by this walker
+     */
+    public <T> T read(byte[] bytes, DomainGraphDefinition<T> domainGraphDefinition) throws IOException {
+        Validate.notNull(bytes, "Bytes cannot be null");
+        return readGraph(new DataInputStream(new ByteArrayInputStream(bytes)), domainGraphDefinition);
+    }
+
+    /**
+     * Reads a domain graph written with the provided domain graph definition from the input stream. The stream is
+     * neither read past the end of the graph nor closed, so further graphs can be read from it; wrap unbuffered
+     * streams in a BufferedInputStream owned by the caller.
+     *
+     * @param inputStream
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public <T> T read(InputStream inputStream, DomainGraphDefinition<T> domainGraphDefinition) throws IOException {
+        Validate.notNull(inputStream, "Input stream cannot be null");
+        return readGraph(new DataInputStream(inputStream), domainGraphDefinition);
+    }
+
+    /**
+     * Reads a domain graph written with the provided domain graph definition from the buffer, starting at its
+     * position.
+     *
+     * @param buffer
+     * @param domainGraphDefinition
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public <T> T read(ByteBuffer buffer, DomainGraphDefinition<T> domainGraphDefinition) throws IOException {
+        Validate.notNull(buffer, "Buffer cannot be null");
+        return readGraph(new DataInputStream(new ByteBufferInputStream(buffer)), domainGraphDefinition);
+    }
+
+    /**
+     * Reads a domain graph written with the provided domain graph definition.
+     *
+     * @param domainGraphDefinition
+     * @param input
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T readGraph(DataInput input, DomainGraphDefinition<T> domainGraphDefinition) throws IOException {
+        Validate.notNull(domainGraphDefinition, "Domain graph definition cannot be null");
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a serialized domain graph");
+        }
+        short version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported serialized domain graph version: " + version);
+        }
+        return (T) readModel(DomainGraphPlan.compile(domainGraphDefinition), input, new ArrayList<Object>());
+    }
+
+    private Object readModel(DomainGraphPlan<?> domainGraphPlan, DataInput input, List<Object> readModels)
+            throws IOException {
+        byte tag = input.readByte();
+        switch (tag) {
+            case NULL_MODEL:
+                return null;
+            case REFERENCED_MODEL:
+                int reference = input.readInt();
+                if (reference < 0 || reference >= readModels.size()) {
+                    throw new IOException("Corrupt serialized domain graph; reference out of range: " + reference);
+                }
+                Object referencedModel = readModels.get(reference);
+                if (DomainGraphPlan.getModelClass(referencedModel) != domainGraphPlan.getDomainClass()) {
+                    throw new IOException("Corrupt serialized domain graph; reference to a "
+                            + referencedModel.getClass().getName() + " where " + domainGraphPlan.getDomainClass()
+                            + " is expected");
+                }
+                return referencedModel;
+            case NEW_MODEL:
+                break;
+            default:
+                throw new IOException("Unknown serialized domain graph tag: " + tag);
+        }
+
+        Object domainModel = newInstance(domainGraphPlan.getDomainClass());
+        readModels.add(domainModel);
+
+        PropertyAccessor propertyAccessor = domainGraphPlan.getDomainDefinition().getPropertyAccessor();
+        for (int i = 0; i < domainGraphPlan.getSlotCount(); i++) {
+            PropertySlot slot = domainGraphPlan.getSlot(i);
+            DomainGraphPlan<?> childPlan = slot.getChild();
+            if (slot.getKind() != DomainGraphPlan.PropertyKind.SIMPLE && childPlan == null) {
+                continue;
+            }
+
+            Object value;
+            switch (slot.getKind()) {
+                case SIMPLE:
+                    value = readValue(slot, domainModel.getClass().getClassLoader(), input);
+                    break;
+                case DOMAIN:
+                    value = readModel(childPlan, input, readModels);
+                    break;
+                case LIST:
+                case SET:
+                    value = readElements(domainModel, propertyAccessor, slot, input, readModels);
+                    break;
+                default:
+                    value = readEntries(domainModel, propertyAccessor, slot, input, readModels);
+            }
+            propertyAccessor.setValue(domainModel, slot.getIndex(), value);
+        }
+        return domainModel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object> readElements(Object domainModel, PropertyAccessor propertyAccessor, PropertySlot slot,
+                                            DataInput input, List<Object> readModels) throws IOException {
+        int size = input.readInt();
+        if (size == NULL_COLLECTION) {
+            return null;
+        }
+        Collection<Object> elements = (Collection<Object>) getEmptyContainer(domainModel, propertyAccessor, slot);
+        if (elements == null) {
+            elements = slot.getKind() == DomainGraphPlan.PropertyKind.LIST
+                    ? collectionFactory.createList(null, slot.getActualClass())
+                    : collectionFactory.createSet(null, slot.getActualClass());
+        }
+        for (int i = 0; i < size; i++) {
+            elements.add(readModel(slot.getChild(), input, readModels));
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> readEntries(Object domainModel, PropertyAccessor propertyAccessor, PropertySlot slot,
+                                            DataInput input, List<Object> readModels) throws IOException {
+        int size = input.readInt();
+        if (size == NULL_COLLECTION) {
+            return null;
+        }
+        Map<Object, Object> entries = (Map<Object, Object>) getEmptyContainer(domainModel, propertyAccessor, slot);
+        if (entries == null) {
+            entries = collectionFactory.createMap(null, slot.getActualClass());
+        }
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(slot, domainModel.getClass().getClassLoader(), input);
+            entries.put(key, readModel(slot.getChild(), input, readModels));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the empty collection or map the new domain model was constructed with, or null. Other collections and
+     * maps are created by the collection factory.
+     *
+     * @param domainModel
+     * @param propertyAccessor
+     * @param slot
+     * @return
+     */
+    private static Object getEmptyContainer(Object domainModel, PropertyAccessor propertyAccessor, PropertySlot slot) {
+        Object container = propertyAccessor.getValue(domainModel, slot.getIndex());
+        if (container instanceof Collection ? ((Collection<?>) container).isEmpty()
+                : container instanceof Map && ((Map<?, ?>) container).isEmpty()) {
+            return container;
+        }
+        return null;
+    }
+
+    private Object readValue(PropertySlot slot, ClassLoader classLoader, DataInput input) throws IOException {
+        Class<?> actualClass = slot.getActualClass();
+        if (actualClass.isPrimitive() && slot.getKind() == DomainGraphPlan.PropertyKind.SIMPLE) {
+            return readPrimitive(actualClass, input);
+        }
+
+        byte tag = input.readByte();
+        switch (tag) {
+            case NULL_VALUE:
+                return null;
+            case STRING_VALUE:
+                return new String(readBytes(input), "UTF-8");
+            case BIG_INTEGER_VALUE:
+                return new BigInteger(readBytes(input));
+            case BIG_DECIMAL_VALUE:
+                return new BigDecimal(new BigInteger(readBytes(input)), input.readInt());
+            case DATE_VALUE:
+                return new Date(input.readLong());
+            case UUID_VALUE:
+                return new UUID(input.readLong(), input.readLong());
+            case ENUM_VALUE:
+                Class<?> enumClass = readEnumClass(slot, classLoader, input);
+                int ordinal = input.readInt();
+                Object[] constants = enumClass.getEnumConstants();
+                if (ordinal < 0 || ordinal >= constants.length) {
+                    throw new IOException("Corrupt serialized domain graph; unknown constant " + ordinal + " of " + enumClass);
+                }
+                return constants[ordinal];
+            case SERIALIZED_VALUE:
+                if (!javaSerialization) {
+                    throw new IOException("Serialized value of property " + slot.getName()
+                            + " cannot be read; Java serialization is disabled");
+                }
+                ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(readBytes(input)));
+                try {
+                    return objectInput.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Serialized value of property " + slot.getName() + " cannot be read", e);
+                }
+            default:
+                Class<?> primitiveClass = PRIMITIVE_CLASSES.get(tag);
+                if (primitiveClass == null) {
+                    throw new IOException("Unknown serialized value tag: " + tag);
+                }
+                return readPrimitive(primitiveClass, input);
+        }
+    }
+
+    /**
+     * Reads the name of an enum class and resolves it with the provided class loader, unless it names the class of the
+     * property. The class is only initialised once it is known to be an enum the property can hold.
+     *
+     * @param slot
+     * @param classLoader
+     * @param input
+     * @return
+     * @throws IOException
+     */
+    private static Class<?> readEnumClass(PropertySlot slot, ClassLoader classLoader, DataInput input)
+            throws IOException {
+        String className = new String(readBytes(input), "UTF-8");
+        Class<?> actualClass = slot.getActualClass();
+        if (actualClass.isEnum() && actualClass.getName().equals(className)) {
+            return actualClass;
+        }
+        Class<?> enumClass;
+        try {
+            enumClass = Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Enum class of property " + slot.getName() + " cannot be loaded: " + className, e);
+        }
+        if (!enumClass.isEnum() || slot.getKind() == DomainGraphPlan.PropertyKind.SIMPLE
+                && !actualClass.isAssignableFrom(enumClass)) {
+            throw new IOException("Corrupt serialized domain graph; property " + slot.getName()
+                    + " cannot hold constants of " + className);
+        }
+        return enumClass;
+    }
+
+    private static Object readPrimitive(Class<?> primitiveClass, DataInput input) throws IOException {
+        if (primitiveClass == int.class) {
+            return input.readInt();
+        } else if (primitiveClass == long.class) {
+            return input.readLong();
+        } else if (primitiveClass == boolean.class) {
+            return input.readBoolean();
+        } else if (primitiveClass == double.class) {
+            return input.readDouble();
+        } else if (primitiveClass == float.class) {
+            return input.readFloat();
+        } else if (primitiveClass == char.class) {
+            return input.readChar();
+        } else if (primitiveClass == short.class) {
+            return input.readShort();
+        }
+        return input.readByte();
+    }
+
+    private static byte[] readBytes(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt serialized domain graph; negative length: " + length);
+        }
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+        input.readFully(bytes);
+        while (bytes.length < length) {
+            // a corrupt length fails with an EOFException before more than twice the bytes read are allocated
+            int read = bytes.length;
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            input.readFully(bytes, read, bytes.length - read);
+        }
+        return bytes;
+    }
+
+    private Object newInstance(Class<?> clazz) {
+        Constructor<?> constructor = constructors.get(clazz);
+        try {
+            if (constructor == null) {
+                constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                constructors.putIfAbsent(clazz, constructor);
+            }
+            return constructor.newInstance();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor: " + clazz, e);
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor: " + clazz, e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor: " + clazz, e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot instantiate the domain using default constructor: " + clazz, e.getCause());
+        }
+    }
+
+    /**
+     * Sets the factory of the lists, sets and maps read into properties the new domain models were not constructed
+     * with an empty collection or map for. Defaults to {@link DefaultCollectionFactory}.
+     *
+     * @param collectionFactory
+     */
+    public void setCollectionFactory(CollectionFactory collectionFactory) {
+        Validate.notNull(collectionFactory, "Collection factory cannot be null");
+        this.collectionFactory = collectionFactory;
+    }
+
+    public CollectionFactory getCollectionFactory() {
+        return collectionFactory;
+    }
+
+    /**
+     * Enables writing and reading simple values which are not encoded natively with Java serialization. Disabled by
+     * default, in which case writing such values fails with an IllegalArgumentException and reading them with an
+     * IOException. Only enable it for streams from trusted sources.
+     *
+     * @param javaSerialization
+     */
+    public void setJavaSerialization(boolean javaSerialization) {
+        this.javaSerialization = javaSerialization;
+    }
+
+    public boolean isJavaSerialization() {
+        return javaSerialization;
+    }
+
+    /**
+     * Writes to a byte buffer.
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.put(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Reads from a byte buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package com.knaptus.domainiser.clone;
 
+import com.knaptus.domainiser.core.AccessMode;
+import com.knaptus.domainiser.core.AccessModeResolver;
 import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.core.impl.CancellationToken;
 import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import com.knaptus.domainiser.core.impl.WalkBudget;
+import com.knaptus.domainiser.core.impl.WalkBudgetExceededException;
+import com.knaptus.domainiser.core.impl.WalkListener;
+import com.knaptus.domainiser.core.impl.WalkResult;
+import com.knaptus.domainiser.core.impl.WalkingPath;
 import com.knaptus.domainiser.core.DomainResolver;
 import com.knaptus.domainiser.example.Address;
 import com.knaptus.domainiser.example.ExampleDomainResolver;
@@ -11,6 +21,20 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.*;
 
@@ -162,6 +186,43 @@ public class CloningDomainWalkerTest {
                 person.getFriends().get(FRIEND_1));
     }
 
+    @Test
+    public void testWalkCopyChildrenIntoOverriddenList() throws Exception {
+        final List<Person> createdChildren = new ArrayList<Person>();
+        CloningDomainWalker overridingWalker = new CloningDomainWalker() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <T> List<T> createEmptyList(List<T> model) {
+                return (List<T>) createdChildren;
+            }
+        };
+        overridingWalker.setDomainResolver(cloningDomainWalker.getDomainResolver());
+
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+
+        Person person = overridingWalker.walk(grandDad, domainGraphDefinition);
+        assertSame("Children should be collected in the overridden list", createdChildren, person.getChildren());
+        assertEquals(1, createdChildren.size());
+    }
+
+    @Test
+    public void testWalkPreservesSortedFriends() throws Exception {
+        TreeMap<String, Person> friends = new TreeMap<String, Person>(Collections.<String>reverseOrder());
+        friends.putAll(grandDad.getFriends());
+        grandDad.setFriends(friends);
+
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("friends", personDomainDefinition);
+
+        Person person = cloningDomainWalker.walk(grandDad, domainGraphDefinition);
+        assertTrue(person.getFriends() instanceof TreeMap);
+        assertSame(friends.comparator(), ((TreeMap<String, Person>) person.getFriends()).comparator());
+        assertEquals(Arrays.asList(FRIEND_2, FRIEND_1), new ArrayList<String>(person.getFriends().keySet()));
+    }
+
     @Test
     public void testWalkCopyAddresses() throws Exception {
         DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
@@ -185,6 +246,433 @@ public class CloningDomainWalkerTest {
         }
     }
 
+    @Test
+    public void testWalkCyclicSpouse() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", domainGraphDefinition);
+
+        Person person = cloningDomainWalker.walk(grandDad, domainGraphDefinition);
+        assertNotSame(grandDad.getSpouse(), person.getSpouse());
+        assertEquals(grandDad.getSpouse().getName(), person.getSpouse().getName());
+        assertSame("Cycle should resolve to the root clone", person, person.getSpouse().getSpouse());
+    }
+
+    @Test
+    public void testWalkSharedReferencesClonedOnce() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> spouseGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        spouseGraphDefinition.addChild("children", personDomainDefinition);
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", spouseGraphDefinition);
+
+        Person person = cloningDomainWalker.walk(grandDad, domainGraphDefinition);
+        assertEquals(1, person.getSpouse().getChildren().size());
+        assertNotSame(grandDad.getChildren().get(0), person.getChildren().get(0));
+        assertSame("Dad should be cloned once", person.getChildren().get(0), person.getSpouse().getChildren().get(0));
+    }
+
+    @Test
+    public void testWalkListDoesNotMergeEqualModels() throws Exception {
+        EqualPerson first = new EqualPerson("Same", 1);
+        EqualPerson second = new EqualPerson("Same", 1);
+
+        List<EqualPerson> people = cloningDomainWalker.walkList(Arrays.asList(first, second), EqualPerson.class);
+        assertEquals(2, people.size());
+        assertNotSame(people.get(0), people.get(1));
+    }
+
+    @Test
+    public void testWalkListInParallel() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", personDomainDefinition);
+
+        Person sharedSpouse = new Person("Shared", 30);
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 500; i++) {
+            Person person = new Person("Person " + i, i);
+            person.setSpouse(sharedSpouse);
+            people.add(person);
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            cloningDomainWalker.setForkJoinPool(forkJoinPool);
+            cloningDomainWalker.setParallelThreshold(10);
+            List<Person> clonedPeople = cloningDomainWalker.walkList(people, domainGraphDefinition);
+
+            assertEquals(people.size(), clonedPeople.size());
+            Person clonedSpouse = clonedPeople.get(0).getSpouse();
+            assertNotSame(sharedSpouse, clonedSpouse);
+            for (int i = 0; i < people.size(); i++) {
+                assertNotSame(people.get(i), clonedPeople.get(i));
+                assertEquals("Order should be kept", people.get(i).getName(), clonedPeople.get(i).getName());
+                assertSame("Shared spouse should be cloned once", clonedSpouse, clonedPeople.get(i).getSpouse());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWalkAssociationsInParallelFromAnotherPool() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        final DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+
+        final Person person = new Person("Parent", 40);
+        for (int i = 0; i < 50; i++) {
+            person.addChild(new Person("Child " + i, i));
+        }
+
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        ForkJoinPool callerPool = new ForkJoinPool(2);
+        try {
+            final List<ForkJoinPool> pools = Collections.synchronizedList(new ArrayList<ForkJoinPool>());
+            cloningDomainWalker.setWalkListener(new WalkListener() {
+                public void nodeEnter(WalkingPath path, Object domainModel) {
+                    pools.add(ForkJoinTask.getPool());
+                }
+
+                public void nodeExit(WalkingPath path, Object domainModel) {
+                }
+
+                public void collectionStart(WalkingPath path, int size) {
+                }
+
+                public void collectionEnd(WalkingPath path, int size) {
+                }
+            });
+            cloningDomainWalker.setForkJoinPool(forkJoinPool);
+            cloningDomainWalker.setForkAssociations(true);
+            cloningDomainWalker.setAssociationForkThreshold(10);
+            Person clonedPerson = callerPool.submit(new Callable<Person>() {
+                public Person call() throws Exception {
+                    return cloningDomainWalker.walk(person, domainGraphDefinition);
+                }
+            }).get();
+
+            assertEquals(50, clonedPerson.getChildren().size());
+            assertEquals(51, pools.size());
+            for (ForkJoinPool pool : pools) {
+                assertSame("Domain models should be cloned in the pool of the walker", forkJoinPool, pool);
+            }
+        } finally {
+            callerPool.shutdown();
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWalkListInParallelBudgetExceeded() throws Exception {
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 100; i++) {
+            people.add(new Person("Person " + i, i));
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            cloningDomainWalker.setForkJoinPool(forkJoinPool);
+            cloningDomainWalker.setParallelThreshold(10);
+            cloningDomainWalker.setWalkBudget(WalkBudget.unlimited().withMaxNodes(30));
+            try {
+                cloningDomainWalker.walkList(people, Person.class);
+                fail("Walk should exceed the budget shared by all the domain models");
+            } catch (WalkBudgetExceededException e) {
+                assertEquals(WalkBudget.Limit.NODES, e.getLimit());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetTruncatingWalkBudget() throws Exception {
+        // plain walks couldn't tell truncated results from complete ones
+        cloningDomainWalker.setWalkBudget(WalkBudget.unlimited().withMaxNodes(30).truncating());
+    }
+
+    @Test
+    public void testWalkMapInParallel() throws Exception {
+        Map<String, Person> people = new LinkedHashMap<String, Person>();
+        for (int i = 0; i < 100; i++) {
+            people.put("key" + i, new Person("Person " + i, i));
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            cloningDomainWalker.setForkJoinPool(forkJoinPool);
+            cloningDomainWalker.setParallelThreshold(10);
+            Map<String, Person> clonedPeople = cloningDomainWalker.walkMap(people, Person.class);
+
+            assertEquals(people.size(), clonedPeople.size());
+            for (Map.Entry<String, Person> entry : people.entrySet()) {
+                assertNotSame(entry.getValue(), clonedPeople.get(entry.getKey()));
+                assertEquals(entry.getValue().getName(), clonedPeople.get(entry.getKey()).getName());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWalkAssociationsInParallel() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+        domainGraphDefinition.addChild("friends", personDomainDefinition);
+
+        Person person = new Person("Parent", 40);
+        for (int i = 0; i < 50; i++) {
+            Person child = new Person("Child " + i, i);
+            person.addChild(child);
+            person.addFriend(child.getName(), child);
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            cloningDomainWalker.setForkJoinPool(forkJoinPool);
+            cloningDomainWalker.setForkAssociations(true);
+            cloningDomainWalker.setAssociationForkThreshold(10);
+            Person clonedPerson = cloningDomainWalker.walk(person, domainGraphDefinition);
+
+            assertEquals(50, clonedPerson.getChildren().size());
+            assertEquals(50, clonedPerson.getFriends().size());
+            for (Person clonedChild : clonedPerson.getChildren()) {
+                assertSame("Children reachable from both associations should be cloned once", clonedChild,
+                        clonedPerson.getFriends().get(clonedChild.getName()));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertNotSame(person.getChildren().get(i), clonedPerson.getChildren().get(i));
+                assertEquals(person.getChildren().get(i).getName(), clonedPerson.getChildren().get(i).getName());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWalkIterator() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        List<Person> people = Arrays.asList(new Person("First", 1), new Person("Second", 2));
+
+        Iterator<Person> clonedPeople = cloningDomainWalker.walkIterator(people.iterator(),
+                new DomainGraphDefinitionImpl<Person>(personDomainDefinition));
+        for (Person person : people) {
+            assertTrue(clonedPeople.hasNext());
+            Person clonedPerson = clonedPeople.next();
+            assertNotSame(person, clonedPerson);
+            assertEquals(person.getName(), clonedPerson.getName());
+        }
+        assertFalse(clonedPeople.hasNext());
+    }
+
+    @Test
+    public void testWalkChunks() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", personDomainDefinition);
+
+        Person sharedSpouse = new Person("Shared", 30);
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 5; i++) {
+            Person person = new Person("Person " + i, i);
+            person.setSpouse(sharedSpouse);
+            people.add(person);
+        }
+
+        Iterator<List<Person>> chunks = cloningDomainWalker.walkChunks(people.iterator(), domainGraphDefinition, 2, true);
+        List<Person> firstChunk = chunks.next();
+        List<Person> secondChunk = chunks.next();
+        List<Person> lastChunk = chunks.next();
+        assertFalse(chunks.hasNext());
+        assertEquals(2, firstChunk.size());
+        assertEquals(1, lastChunk.size());
+        assertEquals("Person 4", lastChunk.get(0).getName());
+        assertSame("Spouse should be cloned once within a chunk", firstChunk.get(0).getSpouse(), firstChunk.get(1).getSpouse());
+        assertNotSame("Walk state should be dropped between chunks", firstChunk.get(0).getSpouse(), secondChunk.get(0).getSpouse());
+
+        chunks = cloningDomainWalker.walkChunks(people.iterator(), domainGraphDefinition, 2, false);
+        assertSame("Walk state should be kept between chunks", chunks.next().get(0).getSpouse(), chunks.next().get(0).getSpouse());
+    }
+
+    @Test
+    public void testWalkChunksBudgetedSeparately() throws Exception {
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 8; i++) {
+            people.add(new Person("Person " + i, i));
+        }
+
+        cloningDomainWalker.setWalkBudget(WalkBudget.unlimited().withMaxNodes(4));
+        Iterator<List<Person>> chunks = cloningDomainWalker.walkChunks(people.iterator(),
+                new DomainGraphDefinitionImpl<Person>(DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver())),
+                4, false);
+        List<Person> firstChunk = chunks.next();
+        List<Person> secondChunk = chunks.next();
+        assertFalse(chunks.hasNext());
+        assertEquals(4, firstChunk.size());
+        assertEquals("Every chunk should get its own budget", 4, secondChunk.size());
+        assertEquals("Person 4", secondChunk.get(0).getName());
+    }
+
+    @Test
+    public void testWalkBudgetExceeded() throws Exception {
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = recursiveChildrenDefinition();
+        Person root = chainOfChildren(10);
+
+        try {
+            cloningDomainWalker.walk(root, domainGraphDefinition, WalkBudget.unlimited().withMaxNodes(5));
+            fail("Walk should exceed the budget");
+        } catch (WalkBudgetExceededException e) {
+            assertEquals(WalkBudget.Limit.NODES, e.getLimit());
+        }
+
+        cloningDomainWalker.setWalkBudget(WalkBudget.unlimited().withMaxDepth(3));
+        try {
+            cloningDomainWalker.walk(root, domainGraphDefinition);
+            fail("Walk should exceed the budget");
+        } catch (WalkBudgetExceededException e) {
+            assertEquals(WalkBudget.Limit.DEPTH, e.getLimit());
+        }
+    }
+
+    @Test
+    public void testWalkBudgetTruncating() throws Exception {
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = recursiveChildrenDefinition();
+        Person root = chainOfChildren(10);
+        root.addChild(new Person("Second child", 1));
+
+        WalkResult<Person> result = cloningDomainWalker.walk(root, domainGraphDefinition,
+                WalkBudget.unlimited().withMaxDepth(2).truncating());
+        assertTrue(result.isTruncated());
+        assertEquals(WalkBudget.Limit.DEPTH, result.getTruncation());
+        assertEquals(4, result.getWalkedCount());
+        Person clonedChild = result.getResult().getChildren().get(0);
+        assertEquals(2, result.getResult().getChildren().size());
+        assertEquals(1, clonedChild.getChildren().size());
+        assertTrue("Children beyond the maximum depth should be left out",
+                clonedChild.getChildren().get(0).getChildren().isEmpty());
+
+        result = cloningDomainWalker.walk(root, domainGraphDefinition, WalkBudget.unlimited().withMaxNodes(100).truncating());
+        assertFalse(result.isTruncated());
+        assertEquals(12, result.getWalkedCount());
+    }
+
+    @Test
+    public void testWalkCollectionBudgetTruncating() throws Exception {
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver()));
+        List<Person> people = new ArrayList<Person>();
+        Map<String, Person> peopleByName = new LinkedHashMap<String, Person>();
+        for (int i = 0; i < 10; i++) {
+            Person person = new Person("Person " + i, i);
+            people.add(person);
+            peopleByName.put(person.getName(), person);
+        }
+
+        WalkResult<ArrayList<Person>> result = cloningDomainWalker.walk(people, new ArrayList<Person>(), domainGraphDefinition,
+                WalkBudget.unlimited().withMaxNodes(4).truncating());
+        assertTrue(result.isTruncated());
+        assertEquals(WalkBudget.Limit.NODES, result.getTruncation());
+        assertEquals(4, result.getResult().size());
+
+        WalkResult<Map<String, Person>> mapResult = cloningDomainWalker.walkMap(peopleByName,
+                new LinkedHashMap<String, Person>(), domainGraphDefinition, WalkBudget.unlimited().withMaxNodes(20).truncating());
+        assertFalse(mapResult.isTruncated());
+        assertEquals(10, mapResult.getResult().size());
+    }
+
+    @Test
+    public void testWalkBudgetCancelled() throws Exception {
+        CancellationToken cancellationToken = new CancellationToken();
+        cancellationToken.cancel();
+
+        WalkResult<Person> result = cloningDomainWalker.walk(chainOfChildren(3), recursiveChildrenDefinition(),
+                WalkBudget.unlimited().withCancellationToken(cancellationToken).truncating());
+        assertEquals(WalkBudget.Limit.CANCELLED, result.getTruncation());
+        assertNull(result.getResult());
+    }
+
+    @Test
+    public void testWalkLazyAssociations() throws Exception {
+        DomainDefinition<CountingPerson> personDomainDefinition = DomainDefinition.getInstance(CountingPerson.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<CountingPerson> domainGraphDefinition = new DomainGraphDefinitionImpl<CountingPerson>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", domainGraphDefinition);
+        domainGraphDefinition.addChild("spouse", domainGraphDefinition);
+
+        CountingPerson dad = new CountingPerson("Dad", 50);
+        CountingPerson mom = new CountingPerson("Mom", 49);
+        dad.setSpouse(mom);
+        mom.setSpouse(dad);
+        CountingPerson child = new CountingPerson("Child", 10);
+        dad.addChild(child);
+
+        cloningDomainWalker.setLazyAssociations(true);
+        CountingPerson clonedDad = cloningDomainWalker.walk(dad, domainGraphDefinition);
+        assertEquals("Dad", clonedDad.getName());
+        assertEquals(50, clonedDad.getAge());
+        assertEquals("Children should not be cloned before access", 0, dad.childrenReads);
+
+        List<Person> clonedChildren = clonedDad.getChildren();
+        assertEquals(1, dad.childrenReads);
+        assertEquals(1, clonedChildren.size());
+        assertNotSame(child, clonedChildren.get(0));
+        assertEquals("Child", clonedChildren.get(0).getName());
+        assertEquals(0, child.childrenReads);
+
+        clonedDad.getChildren();
+        assertEquals("Children should be cloned once", 1, dad.childrenReads);
+
+        Person clonedMom = clonedDad.getSpouse();
+        assertNotSame(mom, clonedMom);
+        assertSame("Cycle should resolve to the root clone", clonedDad, clonedMom.getSpouse());
+    }
+
+    @Test
+    public void testWalkLazyAssociationsAfterBudget() throws Exception {
+        DomainDefinition<CountingPerson> personDomainDefinition = DomainDefinition.getInstance(CountingPerson.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<CountingPerson> domainGraphDefinition = new DomainGraphDefinitionImpl<CountingPerson>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", domainGraphDefinition);
+
+        CountingPerson dad = new CountingPerson("Dad", 50);
+        dad.addChild(new CountingPerson("Child 1", 10));
+        dad.addChild(new CountingPerson("Child 2", 12));
+
+        cloningDomainWalker.setLazyAssociations(true);
+        WalkResult<CountingPerson> result = cloningDomainWalker.walk(dad, domainGraphDefinition,
+                WalkBudget.unlimited().withMaxNodes(1).truncating());
+        CountingPerson clonedDad = result.getResult();
+        assertFalse(result.isTruncated());
+        assertEquals("Associations cloned after the walk should not be limited by its budget", 2,
+                clonedDad.getChildren().size());
+
+        CloningDomainWalker walker = new CloningDomainWalker();
+        walker.setDomainResolver(cloningDomainWalker.getDomainResolver());
+        CountingPerson copy = walker.walk(clonedDad, domainGraphDefinition);
+        assertEquals("Lazy clones should be walked as domain models", CountingPerson.class, copy.getClass());
+        assertEquals(2, copy.getChildren().size());
+    }
+
+    private DomainGraphDefinitionImpl<Person> recursiveChildrenDefinition() {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", domainGraphDefinition);
+        return domainGraphDefinition;
+    }
+
+    private static Person chainOfChildren(int depth) {
+        Person root = new Person("Person 0", 0);
+        Person parent = root;
+        for (int i = 1; i <= depth; i++) {
+            Person child = new Person("Person " + i, i);
+            parent.addChild(child);
+            parent = child;
+        }
+        return root;
+    }
+
     @Test
     @Ignore
     public void testWalkCopySpouseAndChildrenCrossRefCheck() throws Exception {
@@ -204,5 +692,163 @@ public class CloningDomainWalkerTest {
         assertEquals("Dad should be copied to grandmom also", 1, person.getSpouse().getChildren().size());
     }
 
+    @Test
+    public void testWalkFieldAccess() throws Exception {
+        CloningDomainWalker fieldWalker = new CloningDomainWalker();
+        fieldWalker.setDomainResolver(new FieldAccessResolver());
+        DomainGraphDefinitionImpl<CountingPerson> domainGraphDefinition = new DomainGraphDefinitionImpl<CountingPerson>(
+                DomainDefinition.getInstance(CountingPerson.class, fieldWalker.getDomainResolver()));
+        domainGraphDefinition.addChild("children", DomainDefinition.getInstance(Person.class, fieldWalker.getDomainResolver()));
+
+        CountingPerson dad = new CountingPerson("Dad", 50);
+        dad.addChild(new Person("Child", 10));
+        dad.childrenReads = 0;
+
+        CountingPerson clone = fieldWalker.walk(dad, domainGraphDefinition);
+        assertEquals("Accessors should not be called", 0, dad.childrenReads);
+        assertEquals("Dad", clone.getName());
+        assertEquals(50, clone.getAge());
+        assertEquals(1, clone.getChildren().size());
+        assertNotSame(dad.getChildren().get(0), clone.getChildren().get(0));
+        assertEquals("Child", clone.getChildren().get(0).getName());
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+        domainGraphDefinition.addChild("friends", personDomainDefinition);
+        domainGraphDefinition.addChild("addresses", DomainDefinition.getInstance(Address.class, cloningDomainWalker.getDomainResolver()));
+
+        Person snapshot = cloningDomainWalker.walk(grandDad, domainGraphDefinition);
+        Person spouse = snapshot.getSpouse();
+        List<Person> children = snapshot.getChildren();
+        Person dad = children.get(0);
+        Map<String, Person> friends = snapshot.getFriends();
+        Person friend1 = friends.get(FRIEND_1);
+
+        grandDad.setAge(81);
+        grandDad.getChildren().get(0).setName("Father");
+        grandDad.addChild(new Person("Uncle", 48));
+        grandDad.getFriends().get(FRIEND_1).setAge(81);
+        grandDad.getFriends().remove(FRIEND_2);
+
+        assertSame(snapshot, cloningDomainWalker.merge(grandDad, snapshot, domainGraphDefinition));
+        assertEquals(81, snapshot.getAge());
+        assertSame(spouse, snapshot.getSpouse());
+        assertSame(children, snapshot.getChildren());
+        assertEquals(2, children.size());
+        assertSame(dad, children.get(0));
+        assertEquals("Father", dad.getName());
+        assertNotSame(grandDad.getChildren().get(1), children.get(1));
+        assertEquals("Uncle", children.get(1).getName());
+        assertSame(friends, snapshot.getFriends());
+        assertEquals(Collections.singleton(FRIEND_1), friends.keySet());
+        assertSame(friend1, friends.get(FRIEND_1));
+        assertEquals(81, friend1.getAge());
+        assertEquals(2, snapshot.getAddresses().size());
+
+        grandDad.getChildren().remove(1);
+        grandDad.setSpouse(null);
+        cloningDomainWalker.merge(grandDad, snapshot, domainGraphDefinition);
+        assertEquals(1, children.size());
+        assertNull(snapshot.getSpouse());
+    }
+
+    @Test
+    public void testMergeByKey() throws Exception {
+        DomainGraphDefinition<Person> domainGraphDefinition = new DomainGraphDefinitionBuilder<Person>(
+                cloningDomainWalker.getDomainResolver(), Person.class)
+                .withPathsDotNotation("children.children", "addresses")
+                .build();
+        cloningDomainWalker.setElementKey(Person.class, "name");
+        cloningDomainWalker.setElementKey(Address.class, "line1");
+
+        Person snapshot = cloningDomainWalker.walk(grandDad, domainGraphDefinition);
+        Person dad = snapshot.getChildren().get(0);
+        List<Person> grandChildren = dad.getChildren();
+        Person child1 = grandChildren.get(0);
+        Person child2 = grandChildren.get(1);
+        Set<Address> addresses = new HashSet<Address>(snapshot.getAddresses());
+
+        grandDad.getChildren().add(0, new Person("Aunt", 45));
+        grandDad.getChildren().get(1).getChildren().add(1, new Person("Child 3", 5));
+        grandDad.getChildren().get(1).getChildren().get(0).setAge(11);
+        for (Address address : grandDad.getAddresses()) {
+            address.setLine2("line2");
+        }
+
+        cloningDomainWalker.merge(grandDad, snapshot, domainGraphDefinition);
+        assertEquals(2, snapshot.getChildren().size());
+        assertEquals("Aunt", snapshot.getChildren().get(0).getName());
+        assertSame("Inserted elements should not overwrite matched ones", dad, snapshot.getChildren().get(1));
+        assertSame(grandChildren, dad.getChildren());
+        assertEquals(3, grandChildren.size());
+        assertSame(child1, grandChildren.get(0));
+        assertEquals(11, child1.getAge());
+        assertEquals("Child 3", grandChildren.get(1).getName());
+        assertSame(child2, grandChildren.get(2));
+
+        assertEquals("Elements of sets should be matched by key", addresses, new HashSet<Address>(snapshot.getAddresses()));
+        for (Address address : snapshot.getAddresses()) {
+            assertEquals("line2", address.getLine2());
+        }
+    }
+
+    /**
+     * Domain resolver accessing all the domain classes through their fields.
+     */
+    public static class FieldAccessResolver extends ExampleDomainResolver implements AccessModeResolver {
+
+        @Override
+        public AccessMode getAccessMode(Class<?> domain) {
+            return AccessMode.FIELD;
+        }
+    }
+
+    /**
+     * Person counting the reads of its children.
+     */
+    public static class CountingPerson extends Person {
+
+        private int childrenReads;
+
+        public CountingPerson() {
+        }
+
+        public CountingPerson(String name, int age) {
+            super(name, age);
+        }
+
+        @Override
+        public List<Person> getChildren() {
+            childrenReads++;
+            return super.getChildren();
+        }
+    }
+
+    /**
+     * Person which is equal to any other person with the same name.
+     */
+    public static class EqualPerson extends Person {
 
+        public EqualPerson() {
+        }
+
+        public EqualPerson(String name, int age) {
+            super(name, age);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EqualPerson && getName().equals(((EqualPerson) o).getName());
+        }
+
+        @Override
+        public int hashCode() {
+            return getName().hashCode();
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package com.knaptus.domainiser.clone;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainCopierTest {
+
+    private DomainDefinition<Person> definition;
+
+    private DomainCopier<Person> copier;
+
+    @Before
+    public void setUp() throws Exception {
+        definition = DomainDefinition.getInstance(Person.class, new ExampleDomainResolver());
+        copier = new DomainCopier<Person>(definition);
+    }
+
+    @Test
+    public void testCopySimpleProperties() throws Exception {
+        Person person = new Person("Dad", 50);
+        person.setSpouse(new Person("Mom", 49));
+
+        Person copy = copier.newInstance();
+        copier.copySimpleProperties(person, copy);
+
+        assertNotSame(person, copy);
+        assertEquals("Dad", copy.getName());
+        assertEquals(50, copy.getAge());
+        assertNull("Associations should not be copied", copy.getSpouse());
+    }
+
+    @Test
+    public void testAssociations() throws Exception {
+        Person person = new Person("Dad", 50);
+        Person copy = copier.newInstance();
+        int children = definition.getPropertyIndex("children");
+        int friends = definition.getPropertyIndex("friends");
+
+        copier.setAssociation(copy, children, copier.getAssociation(person, children));
+        copier.setAssociation(copy, friends, copier.getAssociation(person, friends));
+        assertSame(person.getChildren(), copy.getChildren());
+        assertSame(person.getFriends(), copy.getFriends());
+    }
+
+    @Test
+    public void testCopyMutableValues() throws Exception {
+        assertFalse("Person has immutable simple properties only", copier.hasMutableValues());
+
+        DomainCopier<Event> eventCopier = new DomainCopier<Event>(
+                DomainDefinition.getInstance(Event.class, new ExampleDomainResolver()));
+        assertTrue(eventCopier.hasMutableValues());
+
+        Event event = new Event();
+        event.setName("Launch");
+        event.setDate(new Date());
+        event.setScores(new int[]{1, 2});
+        event.getTags().add("tag");
+        event.setAttachment(new Date());
+
+        Event copy = eventCopier.newInstance();
+        eventCopier.copySimpleProperties(event, copy);
+        eventCopier.copyMutableValues(event, copy, false);
+
+        assertSame(event.getName(), copy.getName());
+        assertNotSame(event.getDate(), copy.getDate());
+        assertEquals(event.getDate(), copy.getDate());
+        assertNotSame(event.getScores(), copy.getScores());
+        assertEquals(2, copy.getScores()[1]);
+        assertNotSame(event.getTags(), copy.getTags());
+        assertEquals(event.getTags(), copy.getTags());
+        assertNotSame("Values are classified by their runtime class", event.getAttachment(), copy.getAttachment());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectOpaqueValues() throws Exception {
+        DomainCopier<Event> eventCopier = new DomainCopier<Event>(
+                DomainDefinition.getInstance(Event.class, new ExampleDomainResolver()));
+        Event event = new Event();
+        event.setAttachment(new StringBuilder("opaque"));
+
+        Event copy = eventCopier.newInstance();
+        eventCopier.copySimpleProperties(event, copy);
+        eventCopier.copyMutableValues(event, copy, true);
+    }
+
+    public static class Event {
+        private String name;
+        private Date date;
+        private int[] scores;
+        private List<String> tags = new ArrayList<String>();
+        private Serializable attachment;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public void setDate(Date date) {
+            this.date = date;
+        }
+
+        public int[] getScores() {
+            return scores;
+        }
+
+        public void setScores(int[] scores) {
+            this.scores = scores;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public Serializable getAttachment() {
+            return attachment;
+        }
+
+        public void setAttachment(Serializable attachment) {
+            this.attachment = attachment;
+        }
+    }
+}
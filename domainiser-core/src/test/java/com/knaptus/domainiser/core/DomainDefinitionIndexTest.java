@@ -0,0 +1,99 @@
+package com.knaptus.domainiser.core;
+
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainDefinitionIndexTest {
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        DomainResolver domainResolver = new ExampleDomainResolver();
+        List<DomainDefinition<?>> domainDefinitions = new DomainDefinitionWarmer(domainResolver).warmUp(Person.class);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DomainDefinitionIndex.write(domainDefinitions, domainResolver, outputStream);
+
+        DomainResolver restartedResolver = new ExampleDomainResolver();
+        int loaded = DomainDefinitionIndex.load(new ByteArrayInputStream(outputStream.toByteArray()), restartedResolver,
+                getClass().getClassLoader());
+        assertEquals(2, loaded);
+
+        DomainDefinition<Person> introspected = DomainDefinition.getInstance(Person.class, domainResolver);
+        DomainDefinition<Person> restored = DomainDefinition.getInstance(Person.class, restartedResolver);
+        assertNotSame(introspected, restored);
+        assertEquals(introspected.getPropertyCount(), restored.getPropertyCount());
+        for (int i = 0; i < introspected.getPropertyCount(); i++) {
+            assertEquals(introspected.getPropertyName(i), restored.getPropertyName(i));
+            assertEquals(introspected.getActualClass(i), restored.getActualClass(i));
+            assertEquals(introspected.getUnderlyingDomainModel(i), restored.getUnderlyingDomainModel(i));
+            assertEquals(introspected.getReadMethod(i), restored.getReadMethod(i));
+            assertEquals(introspected.getWriteMethod(i), restored.getWriteMethod(i));
+        }
+        assertEquals(Address.class, restored.getUnderlyingDomainModel("addresses"));
+    }
+
+    @Test
+    public void testLoadSkipsCachedDefinitions() throws Exception {
+        DomainResolver domainResolver = new ExampleDomainResolver();
+        List<DomainDefinition<?>> domainDefinitions = new DomainDefinitionWarmer(domainResolver).warmUp(Person.class);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DomainDefinitionIndex.write(domainDefinitions, domainResolver, outputStream);
+
+        int loaded = DomainDefinitionIndex.load(new ByteArrayInputStream(outputStream.toByteArray()), domainResolver,
+                getClass().getClassLoader());
+        assertEquals(0, loaded);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidIndex() throws Exception {
+        DomainDefinitionIndex.load(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6}), new ExampleDomainResolver(),
+                getClass().getClassLoader());
+    }
+
+    @Test
+    public void testFingerprintGenericTypes() throws Exception {
+        assertFalse(DomainDefinitionIndex.fingerprint(PersonHolder.class)
+                == DomainDefinitionIndex.fingerprint(AddressHolder.class));
+    }
+
+    public static class PersonHolder {
+        private List<Person> items;
+
+        public List<Person> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Person> items) {
+            this.items = items;
+        }
+    }
+
+    public static class AddressHolder {
+        private List<Address> items;
+
+        public List<Address> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Address> items) {
+            this.items = items;
+        }
+    }
+}
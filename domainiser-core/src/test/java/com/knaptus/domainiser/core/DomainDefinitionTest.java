@@ -1,14 +1,26 @@
 package com.knaptus.domainiser.core;
 
 import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.fail;
 
 /**
  * Unit test
@@ -42,6 +54,278 @@ public class DomainDefinitionTest {
         assertNull(null, domainDefinition.getUnderlyingDomainModel("ages"));
     }
 
+    @Test
+    public void testGetInstanceCached() throws Exception {
+        assertSame(domainDefinition, DomainDefinition.getInstance(Bean.class, domainResolver));
+        assertNotSame("Definitions are cached per domain resolver",
+                domainDefinition, DomainDefinition.getInstance(Bean.class, new ExampleDomainResolver()));
+    }
+
+    @Test
+    public void testGetInstanceConcurrently() throws Exception {
+        final DomainResolver sharedResolver = new ExampleDomainResolver();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<DomainDefinition<Person>>> futures = new ArrayList<Future<DomainDefinition<Person>>>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executorService.submit(new Callable<DomainDefinition<Person>>() {
+                    @Override
+                    public DomainDefinition<Person> call() throws Exception {
+                        start.await();
+                        return DomainDefinition.getInstance(Person.class, sharedResolver);
+                    }
+                }));
+            }
+            start.countDown();
+
+            DomainDefinition<Person> expected = futures.get(0).get();
+            for (Future<DomainDefinition<Person>> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testPropertyTransfer() throws Exception {
+        Bean bean = new Bean();
+        bean.setCount(42);
+        bean.setTrue(Boolean.TRUE);
+        bean.setChild(new Bean());
+        bean.setAges(new ArrayList<Integer>());
+
+        Bean copy = new Bean();
+        PropertyTransfer propertyTransfer = domainDefinition.getPropertyTransfer();
+        propertyTransfer.copy(bean, copy);
+
+        assertSame(propertyTransfer, domainDefinition.getPropertyTransfer());
+        assertEquals(42, copy.getCount());
+        assertSame(Boolean.TRUE, copy.getTrue());
+        assertSame(bean.getAges(), copy.getAges());
+        assertNull("Associations should not be copied", copy.getChild());
+    }
+
+    @Test
+    public void testPropertyTransferOfPrimitives() throws Exception {
+        Primitives primitives = new Primitives();
+        primitives.setFlag(true);
+        primitives.setLetter('x');
+        primitives.setSmall((byte) 7);
+        primitives.setLarge(Long.MAX_VALUE);
+        primitives.setRatio(0.25d);
+
+        Primitives copy = new Primitives();
+        DomainDefinition.getInstance(Primitives.class, domainResolver).getPropertyTransfer().copy(primitives, copy);
+
+        assertEquals(true, copy.isFlag());
+        assertEquals('x', copy.getLetter());
+        assertEquals((byte) 7, copy.getSmall());
+        assertEquals(Long.MAX_VALUE, copy.getLarge());
+        assertEquals(0.25d, copy.getRatio());
+    }
+
+    @Test
+    public void testPropertyAccessor() throws Exception {
+        DomainDefinition<Primitives> primitivesDefinition = DomainDefinition.getInstance(Primitives.class, domainResolver);
+        Primitives primitives = new Primitives();
+        primitives.setLarge(Long.MAX_VALUE);
+
+        int large = primitivesDefinition.getPropertyIndex("large");
+        int letter = primitivesDefinition.getPropertyIndex("letter");
+        assertEquals(Long.MAX_VALUE, primitivesDefinition.getValue(primitives, large));
+        primitivesDefinition.setValue(primitives, letter, 'x');
+        assertEquals('x', primitives.getLetter());
+        primitivesDefinition.setValue(primitives, large, null);
+        assertEquals(0L, primitives.getLarge());
+        assertSame(primitivesDefinition.getPropertyAccessor(), primitivesDefinition.getPropertyAccessor());
+
+        Bean bean = new Bean();
+        Bean child = new Bean();
+        int childIndex = domainDefinition.getPropertyIndex("child");
+        domainDefinition.setValue(bean, childIndex, child);
+        assertSame(child, bean.getChild());
+        assertSame(child, domainDefinition.getValue(bean, childIndex));
+
+        try {
+            primitivesDefinition.getValue(primitives, primitivesDefinition.getPropertyCount());
+            fail("Unknown property index should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFieldAccess() throws Exception {
+        DomainResolver fieldResolver = new FieldResolver();
+        DomainDefinition<Account> accountDefinition = DomainDefinition.getInstance(Account.class, fieldResolver);
+
+        assertEquals(AccessMode.FIELD, accountDefinition.getAccessMode());
+        assertEquals(new HashSet<String>(Arrays.asList("owner", "parent", "balance", "id")),
+                accountDefinition.getProperties());
+        assertEquals(Account.class, accountDefinition.getUnderlyingDomainModel("parent"));
+        int balance = accountDefinition.getPropertyIndex("balance");
+        assertNull(accountDefinition.getReadMethod(balance));
+        assertEquals(long.class, accountDefinition.getField(balance).getType());
+
+        Account account = new Account(7, "owner", 100L);
+        Account copy = new Account(0, null, 0L);
+        accountDefinition.getPropertyTransfer().copy(account, copy);
+        assertEquals(7, copy.getId());
+        assertEquals("owner", copy.getOwner());
+        assertEquals(100L, copy.getBalance());
+
+        accountDefinition.setValue(copy, balance, 250L);
+        assertEquals(250L, accountDefinition.getValue(copy, balance));
+        try {
+            accountDefinition.setValue(copy, -1, null);
+            fail("Unknown property index should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFieldAccessHiddenFields() throws Exception {
+        DomainDefinition<Subsidiary> subsidiaryDefinition = DomainDefinition.getInstance(Subsidiary.class, new FieldResolver());
+        assertEquals(new HashSet<String>(Arrays.asList("owner", "parent", "balance", "id", "Account#owner", "Entity#id")),
+                subsidiaryDefinition.getProperties());
+        assertEquals(String.class, subsidiaryDefinition.getField(subsidiaryDefinition.getPropertyIndex("id")).getType());
+
+        Subsidiary subsidiary = new Subsidiary(7, "owner", 100L);
+        subsidiary.id = "S7";
+        subsidiary.owner = "subsidiary owner";
+        Subsidiary copy = new Subsidiary(0, null, 0L);
+        subsidiaryDefinition.getPropertyTransfer().copy(subsidiary, copy);
+        assertEquals("Hidden fields should be copied", 7, copy.getId());
+        assertEquals("owner", copy.getOwner());
+        assertEquals("S7", copy.id);
+        assertEquals("subsidiary owner", copy.owner);
+    }
+
+    @Test
+    public void testInitAgain() throws Exception {
+        DomainDefinition<Account> accountDefinition = DomainDefinition.getInstance(Account.class, new ExampleDomainResolver());
+        assertEquals(0, accountDefinition.getPropertyCount());
+        PropertyAccessor propertyAccessor = accountDefinition.getPropertyAccessor();
+
+        accountDefinition.init(new FieldResolver());
+        assertEquals(AccessMode.FIELD, accountDefinition.getAccessMode());
+        assertNotSame("Accessor of the earlier properties should be dropped", propertyAccessor,
+                accountDefinition.getPropertyAccessor());
+        Account account = new Account(7, "owner", 100L);
+        assertEquals(100L, accountDefinition.getPropertyAccessor().getValue(account,
+                accountDefinition.getPropertyIndex("balance")));
+        Account copy = new Account(0, null, 0L);
+        accountDefinition.getPropertyTransfer().copy(account, copy);
+        assertEquals(100L, copy.getBalance());
+    }
+
+    /**
+     * Domain resolver accessing all the domain classes through their fields.
+     */
+    private static class FieldResolver extends ExampleDomainResolver implements AccessModeResolver {
+
+        @Override
+        public AccessMode getAccessMode(Class<?> domain) {
+            return AccessMode.FIELD;
+        }
+    }
+
+    private static class Entity {
+        private static int instances;
+        private long id;
+
+        Entity(long id) {
+            this.id = id;
+            instances++;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    private static class Account extends Entity {
+        private final String type = "account";
+        private transient String description;
+        private String owner;
+        private Account parent;
+        private long balance;
+
+        Account(long id, String owner, long balance) {
+            super(id);
+            this.owner = owner;
+            this.balance = balance;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+    }
+
+    private static class Subsidiary extends Account {
+        private String id;
+        private String owner;
+
+        Subsidiary(long id, String owner, long balance) {
+            super(id, owner, balance);
+        }
+    }
+
+    private static class Primitives {
+        private boolean flag;
+        private char letter;
+        private byte small;
+        private long large;
+        private double ratio;
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public void setFlag(boolean flag) {
+            this.flag = flag;
+        }
+
+        public char getLetter() {
+            return letter;
+        }
+
+        public void setLetter(char letter) {
+            this.letter = letter;
+        }
+
+        public byte getSmall() {
+            return small;
+        }
+
+        public void setSmall(byte small) {
+            this.small = small;
+        }
+
+        public long getLarge() {
+            return large;
+        }
+
+        public void setLarge(long large) {
+            this.large = large;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+    }
+
     private static class Bean {
         private int count;
         private Boolean isTrue;
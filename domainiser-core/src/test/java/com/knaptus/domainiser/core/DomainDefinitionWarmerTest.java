@@ -0,0 +1,67 @@
+package com.knaptus.domainiser.core;
+
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainDefinitionWarmerTest {
+
+    private DomainResolver domainResolver;
+
+    private DomainDefinitionWarmer warmer;
+
+    @Before
+    public void setUp() throws Exception {
+        domainResolver = new ExampleDomainResolver();
+        warmer = new DomainDefinitionWarmer(domainResolver);
+    }
+
+    @Test
+    public void testWarmUpFollowsAssociations() throws Exception {
+        List<DomainDefinition<?>> domainDefinitions = warmer.warmUp(Person.class);
+
+        assertEquals(2, domainDefinitions.size());
+        Set<Class<?>> warmedClasses = new HashSet<Class<?>>();
+        for (DomainDefinition<?> domainDefinition : domainDefinitions) {
+            warmedClasses.add(domainDefinition.getClazz());
+            assertSame(domainDefinition, DomainDefinition.getInstance(domainDefinition.getClazz(), domainResolver));
+        }
+        assertTrue(warmedClasses.contains(Person.class));
+        assertTrue(warmedClasses.contains(Address.class));
+    }
+
+    @Test
+    public void testFindDomainClasses() throws Exception {
+        List<Class<?>> domainClasses = warmer.findDomainClasses("com.knaptus.domainiser.example");
+
+        assertTrue(domainClasses.contains(Person.class));
+        assertTrue(domainClasses.contains(Address.class));
+    }
+
+    @Test
+    public void testWarmUpPackage() throws Exception {
+        List<DomainDefinition<?>> domainDefinitions = warmer.warmUpPackage("com.knaptus.domainiser.example");
+
+        Set<Class<?>> warmedClasses = new HashSet<Class<?>>();
+        for (DomainDefinition<?> domainDefinition : domainDefinitions) {
+            warmedClasses.add(domainDefinition.getClazz());
+        }
+        assertTrue(warmedClasses.contains(Person.class));
+        assertTrue(warmedClasses.contains(Address.class));
+    }
+}
@@ -0,0 +1,171 @@
+package com.knaptus.domainiser.core;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class ValueTypeRegistryTest {
+
+    private final ValueTypeRegistry valueTypeRegistry = ValueTypeRegistry.getInstance();
+
+    @Test
+    public void testGetValueType() throws Exception {
+        assertEquals(ValueType.IMMUTABLE, valueTypeRegistry.getValueType(int.class));
+        assertEquals(ValueType.IMMUTABLE, valueTypeRegistry.getValueType(String.class));
+        assertEquals(ValueType.IMMUTABLE, valueTypeRegistry.getValueType(BigDecimal.class));
+        assertEquals(ValueType.IMMUTABLE, valueTypeRegistry.getValueType(TimeUnit.SECONDS.getClass()));
+        assertEquals(ValueType.MUTABLE, valueTypeRegistry.getValueType(java.sql.Timestamp.class));
+        assertEquals(ValueType.MUTABLE, valueTypeRegistry.getValueType(int[].class));
+        assertEquals(ValueType.MUTABLE, valueTypeRegistry.getValueType(ArrayList.class));
+        assertEquals(ValueType.MUTABLE, valueTypeRegistry.getValueType(Map.class));
+        assertEquals(ValueType.OPAQUE, valueTypeRegistry.getValueType(Object.class));
+        assertEquals(ValueType.OPAQUE, valueTypeRegistry.getValueType(StringBuilder.class));
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        assertEquals(ValueType.OPAQUE, valueTypeRegistry.getValueType(Money.class));
+        valueTypeRegistry.register(Money.class, ValueType.IMMUTABLE);
+        assertEquals(ValueType.IMMUTABLE, valueTypeRegistry.getValueType(Money.class));
+        assertEquals("Sub classes should be classified as registered",
+                ValueType.IMMUTABLE, valueTypeRegistry.getValueType(Euros.class));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        String name = "name";
+        assertSame(name, valueTypeRegistry.copy(name, String.class));
+
+        Date date = new Date();
+        Object copiedDate = valueTypeRegistry.copy(date, Date.class);
+        assertNotSame(date, copiedDate);
+        assertEquals(date, copiedDate);
+
+        Date[][] dates = new Date[][]{{date}};
+        Date[][] copiedDates = (Date[][]) valueTypeRegistry.copy(dates, Object.class);
+        assertNotSame(dates[0], copiedDates[0]);
+        assertNotSame(date, copiedDates[0][0]);
+
+        List<Date> dateList = Collections.singletonList(date);
+        List<?> copiedList = (List<?>) valueTypeRegistry.copy(dateList, List.class);
+        assertEquals(dateList, copiedList);
+        assertNotSame(date, copiedList.get(0));
+
+        Map<String, List<String>> lookup = new HashMap<String, List<String>>();
+        lookup.put("names", new ArrayList<String>(Arrays.asList("a", "b")));
+        Map<?, ?> copiedLookup = (Map<?, ?>) valueTypeRegistry.copy(lookup, Map.class);
+        assertEquals(lookup, copiedLookup);
+        assertNotSame(lookup.get("names"), copiedLookup.get("names"));
+        assertTrue(copiedLookup instanceof HashMap);
+    }
+
+    @Test
+    public void testRegisterInterfaces() throws Exception {
+        valueTypeRegistry.register(Priced.class, ValueType.IMMUTABLE);
+        valueTypeRegistry.register(Tagged.class, ValueType.MUTABLE);
+        assertEquals("Interfaces should be searched in declaration order",
+                ValueType.MUTABLE, valueTypeRegistry.getValueType(TaggedPrice.class));
+        assertEquals("Interfaces of the class should win over those of its super class",
+                ValueType.IMMUTABLE, valueTypeRegistry.getValueType(PricedTaggedPrice.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopyUnmodifiable() throws Exception {
+        Date date = new Date();
+        List<Date> dates = Collections.unmodifiableList(new ArrayList<Date>(Arrays.asList(date)));
+        List<Date> copiedDates = (List<Date>) valueTypeRegistry.copy(dates, List.class);
+        assertEquals(dates, copiedDates);
+        assertNotSame(date, copiedDates.get(0));
+        try {
+            copiedDates.add(date);
+            fail("Copy of an unmodifiable list should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        SortedSet<String> names = Collections.unmodifiableSortedSet(
+                new TreeSet<String>(Collections.<String>reverseOrder()));
+        SortedSet<String> copiedNames = (SortedSet<String>) valueTypeRegistry.copy(names, SortedSet.class);
+        assertSame(names.comparator(), copiedNames.comparator());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopyQueues() throws Exception {
+        Date date = new Date();
+        PriorityQueue<Date> dates = new PriorityQueue<Date>(2, Collections.<Date>reverseOrder());
+        dates.add(date);
+        dates.add(new Date(0));
+        PriorityQueue<Date> copiedDates = (PriorityQueue<Date>) valueTypeRegistry.copy(dates, Queue.class);
+        assertNotSame(dates, copiedDates);
+        assertSame(dates.comparator(), copiedDates.comparator());
+        assertEquals(2, copiedDates.size());
+        assertEquals(date, copiedDates.peek());
+        assertNotSame(date, copiedDates.peek());
+
+        ArrayDeque<Date> deque = new ArrayDeque<Date>(Arrays.asList(date));
+        ArrayDeque<Date> copiedDeque = (ArrayDeque<Date>) valueTypeRegistry.copy(deque, Deque.class);
+        assertNotSame(deque, copiedDeque);
+        assertEquals(date, copiedDeque.peek());
+        assertNotSame(date, copiedDeque.peek());
+    }
+
+    @Test
+    public void testCopySelfContaining() throws Exception {
+        List<Object> list = new ArrayList<Object>();
+        list.add("a");
+        list.add(list);
+        List<?> copiedList = (List<?>) valueTypeRegistry.copy(list, List.class);
+        assertNotSame(list, copiedList);
+        assertSame(copiedList, copiedList.get(1));
+
+        Object[] array = new Object[1];
+        array[0] = array;
+        Object[] copiedArray = (Object[]) valueTypeRegistry.copy(array, Object[].class);
+        assertSame(copiedArray, copiedArray[0]);
+    }
+
+    private interface Priced {
+    }
+
+    private interface Tagged {
+    }
+
+    private static class TaggedPrice implements Tagged, Priced {
+    }
+
+    private static class PricedTaggedPrice extends TaggedPrice implements Priced {
+    }
+
+    private static class Money {
+    }
+
+    private static class Euros extends Money {
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.StringReader;
+
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
 
 /**
@@ -90,4 +93,21 @@ public class DomainGraphDefinitionBuilderTest {
         assertNotNull(sample.getChild(SPOUSE).getChild(CHILDREN));
         assertNotNull(sample.getChild(SPOUSE).getChild(CHILDREN).getChild(ADDRESSES));
     }
+
+    @Test
+    public void testBuildWithJsonReader() {
+        DomainGraphDefinitionBuilder<Person> builder = new DomainGraphDefinitionBuilder<Person>(new ExampleDomainResolver(), Person.class);
+        builder.withDefinitionJson(new StringReader("{\"spouse\": {\"children\": null}}"))
+                .withDefinitionJson(" ");
+
+        DomainGraphDefinition<Person> sample = builder.build();
+        assertNotNull(sample.getChild(SPOUSE).getChild(CHILDREN));
+        assertEquals("{\"spouse\":{\"children\":{}}}", sample.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithInvalidJson() {
+        new DomainGraphDefinitionBuilder<Person>(new ExampleDomainResolver(), Person.class)
+                .withDefinitionJson("{spouse: [children]}");
+    }
 }
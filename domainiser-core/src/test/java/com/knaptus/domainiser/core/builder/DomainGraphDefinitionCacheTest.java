@@ -0,0 +1,86 @@
+package com.knaptus.domainiser.core.builder;
+
+import com.knaptus.domainiser.clone.CloningDomainWalker;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainGraphDefinitionCacheTest {
+
+    private DomainResolver domainResolver;
+
+    private DomainGraphDefinitionCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        domainResolver = new ExampleDomainResolver();
+        cache = new DomainGraphDefinitionCache(2);
+    }
+
+    @Test
+    public void testCanonicalSpecsShareDefinition() throws Exception {
+        DomainGraphDefinition<Person> definition = cache.getForPaths(Person.class, domainResolver,
+                "spouse.children", "friends");
+        assertNotNull(definition.getChild("spouse").getChild("children"));
+        assertNotNull(definition.getChild("friends"));
+        assertNull(definition.getChild("children"));
+
+        assertSame(definition, cache.getForPaths(Person.class, domainResolver, "friends", "spouse", " spouse.children"));
+        assertSame(definition, cache.getForJson(Person.class, domainResolver,
+                "{\"friends\": null, \"spouse\": {\"children\": {}}}"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        DomainGraphDefinition<Person> spouse = cache.getForPaths(Person.class, domainResolver, "spouse");
+        DomainGraphDefinition<Person> children = cache.getForPaths(Person.class, domainResolver, "children");
+        assertSame(spouse, cache.getForPaths(Person.class, domainResolver, "spouse"));
+
+        cache.getForPaths(Person.class, domainResolver, "friends");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(spouse, cache.getForPaths(Person.class, domainResolver, "spouse"));
+        assertNotSame(children, cache.getForPaths(Person.class, domainResolver, "children"));
+    }
+
+    @Test
+    public void testCachedPerResolver() throws Exception {
+        DomainGraphDefinition<Person> definition = cache.getForPaths(Person.class, domainResolver, "spouse");
+        assertNotSame(definition, cache.getForPaths(Person.class, new ExampleDomainResolver(), "spouse"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCachedDefinitionImmutable() throws Exception {
+        DomainGraphDefinition<Person> definition = cache.getForPaths(Person.class, domainResolver, "spouse");
+        definition.getChild("spouse").addChild("children", definition.getDomainDefinition());
+    }
+
+    @Test
+    public void testWalkCachedDefinition() throws Exception {
+        CloningDomainWalker cloningDomainWalker = new CloningDomainWalker();
+        cloningDomainWalker.setDomainResolver(domainResolver);
+        Person person = new Person("Dad", 50);
+        person.setSpouse(new Person("Mom", 49));
+
+        Person clone = cloningDomainWalker.walk(person, cache.getForPaths(Person.class, domainResolver, "spouse"));
+        assertEquals("Mom", clone.getSpouse().getName());
+        assertNotSame(person.getSpouse(), clone.getSpouse());
+    }
+}
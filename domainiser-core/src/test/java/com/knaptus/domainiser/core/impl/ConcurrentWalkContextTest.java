@@ -0,0 +1,38 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class ConcurrentWalkContextTest {
+
+    @Test
+    public void testWalkedModels() throws Exception {
+        WalkContext walkContext = new ConcurrentWalkContext();
+        assertTrue(walkContext.isConcurrent());
+        assertEquals(0, walkContext.getWalkedCount());
+
+        Object domainModel = new Object();
+        Object walkedModel = new Object();
+        assertNull(walkContext.getWalked(domainModel));
+        assertNull(walkContext.putWalkedIfAbsent(domainModel, walkedModel));
+        assertSame(walkedModel, walkContext.putWalkedIfAbsent(domainModel, new Object()));
+        assertSame(walkedModel, walkContext.getWalked(domainModel));
+        assertEquals(1, walkContext.getWalkedCount());
+
+        WalkContext sharingContext = walkContext.withoutWalkBudget();
+        assertSame("Walked domain models should be shared", walkedModel, sharingContext.getWalked(domainModel));
+        Object otherModel = new Object();
+        sharingContext.putWalkedIfAbsent(otherModel, otherModel);
+        assertSame(otherModel, walkContext.getWalked(otherModel));
+        assertEquals(2, walkContext.getWalkedCount());
+    }
+}
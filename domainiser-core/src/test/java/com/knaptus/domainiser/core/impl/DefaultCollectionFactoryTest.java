@@ -0,0 +1,111 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DefaultCollectionFactoryTest {
+
+    private final CollectionFactory collectionFactory = new DefaultCollectionFactory();
+
+    @Test
+    public void testCreateList() throws Exception {
+        assertEquals(ArrayList.class, collectionFactory.createList(Collections.nCopies(3, "a"), null).getClass());
+        assertEquals(LinkedList.class, collectionFactory.createList(new LinkedList<String>(), List.class).getClass());
+        assertEquals(ArrayList.class, collectionFactory.createList(null, null).getClass());
+    }
+
+    @Test
+    public void testCreateSet() throws Exception {
+        assertEquals(HashSet.class, collectionFactory.createSet(Collections.singleton("a"), null).getClass());
+        assertEquals(LinkedHashSet.class, collectionFactory.createSet(new LinkedHashSet<String>(), Set.class).getClass());
+
+        TreeSet<String> sorted = new TreeSet<String>(Collections.<String>reverseOrder());
+        Set<String> sortedSet = collectionFactory.createSet(sorted, Set.class);
+        assertEquals(TreeSet.class, sortedSet.getClass());
+        assertSame(sorted.comparator(), ((SortedSet<String>) sortedSet).comparator());
+
+        Set<TimeUnit> enumSet = collectionFactory.createSet(EnumSet.of(TimeUnit.SECONDS), null);
+        assertTrue(enumSet.isEmpty());
+        enumSet.add(TimeUnit.DAYS);
+        assertTrue(enumSet instanceof EnumSet);
+    }
+
+    @Test
+    public void testCreateMap() throws Exception {
+        assertEquals(HashMap.class, collectionFactory.createMap(new HashMap<String, String>(), null).getClass());
+        assertEquals(LinkedHashMap.class, collectionFactory.createMap(new LinkedHashMap<String, String>(), Map.class).getClass());
+        assertEquals(TreeMap.class, collectionFactory.createMap(new TreeMap<String, String>(), Map.class).getClass());
+
+        EnumMap<TimeUnit, String> units = new EnumMap<TimeUnit, String>(TimeUnit.class);
+        units.put(TimeUnit.SECONDS, "s");
+        Map<TimeUnit, String> enumMap = collectionFactory.createMap(units, null);
+        assertTrue(enumMap instanceof EnumMap);
+        assertTrue(enumMap.isEmpty());
+    }
+
+    @Test
+    public void testCreateDeclaredClass() throws Exception {
+        assertEquals("Declared class should be honoured", TreeSet.class,
+                collectionFactory.createSet(new HashSet<String>(), TreeSet.class).getClass());
+        assertEquals("Class of the model should be preferred", LinkedHashMap.class,
+                collectionFactory.createMap(new LinkedHashMap<String, String>(), HashMap.class).getClass());
+    }
+
+    @Test
+    public void testCreateDeclaredClassWithComparatorAndCapacity() throws Exception {
+        TreeSet<String> sorted = new TreeSet<String>(Collections.<String>reverseOrder());
+        Set<String> sortedSet = collectionFactory.createSet(sorted, ConcurrentSkipListSet.class);
+        assertEquals(ConcurrentSkipListSet.class, sortedSet.getClass());
+        assertSame(sorted.comparator(), ((SortedSet<String>) sortedSet).comparator());
+
+        PresizedList<String> presized = new PresizedList<String>(3);
+        Collections.addAll(presized, "a", "b", "c");
+        List<String> list = collectionFactory.createList(presized, PresizedList.class);
+        assertEquals(PresizedList.class, list.getClass());
+        assertEquals(3, ((PresizedList<String>) list).capacity);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateAbstractDeclaredClass() throws Exception {
+        collectionFactory.createSet(new HashSet<String>(), SortedSet.class);
+    }
+
+    /**
+     * List recording the capacity it was created with.
+     */
+    public static class PresizedList<T> extends ArrayList<T> {
+
+        private final int capacity;
+
+        public PresizedList(int capacity) {
+            super(capacity);
+            this.capacity = capacity;
+        }
+    }
+}
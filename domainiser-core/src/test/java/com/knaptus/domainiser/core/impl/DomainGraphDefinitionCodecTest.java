@@ -0,0 +1,101 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.DomainResolver;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainGraphDefinitionCodecTest {
+
+    private DomainResolver domainResolver;
+
+    private ClassLoader classLoader;
+
+    @Before
+    public void setUp() throws Exception {
+        domainResolver = new ExampleDomainResolver();
+        classLoader = getClass().getClassLoader();
+    }
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        DomainGraphDefinition<Person> definition = new DomainGraphDefinitionBuilder<Person>(domainResolver, Person.class)
+                .withPathsDotNotation("spouse.children.addresses", "children.home", "friends")
+                .build();
+
+        byte[] bytes = DomainGraphDefinitionCodec.encode(definition);
+        DomainGraphDefinition<Person> decoded = DomainGraphDefinitionCodec.decode(bytes, domainResolver, classLoader);
+
+        assertEquals(definition.getGraph(), decoded.getGraph());
+        assertSame(DomainDefinition.getInstance(Address.class, domainResolver),
+                decoded.getChild("children").getChild("home").getDomainDefinition());
+    }
+
+    @Test
+    public void testEncodeAndDecodeCyclic() throws Exception {
+        DomainDefinition<Person> personDefinition = DomainDefinition.getInstance(Person.class, domainResolver);
+        DomainGraphDefinitionImpl<Person> definition = new DomainGraphDefinitionImpl<Person>(personDefinition);
+        definition.addChild("children", definition);
+        definition.addChild("spouse", personDefinition);
+
+        DomainGraphDefinition<Person> decoded = DomainGraphDefinitionCodec.decode(
+                DomainGraphDefinitionCodec.encode(definition), domainResolver, classLoader);
+
+        assertSame(decoded, decoded.getChild("children"));
+        assertEquals(0, decoded.getChild("spouse").getAllChildrenNames().size());
+    }
+
+    @Test
+    public void testToJson() throws Exception {
+        DomainGraphDefinition<Person> definition = new DomainGraphDefinitionBuilder<Person>(domainResolver, Person.class)
+                .withPathsDotNotation("spouse.children")
+                .build();
+        assertEquals("{\"spouse\":{\"children\":{}}}", DomainGraphDefinitionCodec.toJson(definition));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeTooManyChildren() throws Exception {
+        DomainDefinition<Person> personDefinition = DomainDefinition.getInstance(Person.class, domainResolver);
+        final DomainGraphDefinition<Person> leaf = new DomainGraphDefinitionImpl<Person>(personDefinition);
+        final Set<String> childrenNames = new LinkedHashSet<String>();
+        for (int i = 0; i <= 0xFFFF; i++) {
+            childrenNames.add("child" + i);
+        }
+        DomainGraphDefinition<Person> definition = new DomainGraphDefinitionImpl<Person>(personDefinition) {
+            @Override
+            public Set<String> getAllChildrenNames() {
+                return childrenNames;
+            }
+
+            @Override
+            public DomainGraphDefinition<?> getChild(String property) {
+                return leaf;
+            }
+        };
+
+        // the count of children would be truncated to 0
+        DomainGraphDefinitionCodec.encode(definition);
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeInvalid() throws Exception {
+        DomainGraphDefinitionCodec.decode(new byte[]{1, 2, 3, 4, 5, 6}, domainResolver, classLoader);
+    }
+}
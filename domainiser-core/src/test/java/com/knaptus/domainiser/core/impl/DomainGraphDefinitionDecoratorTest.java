@@ -13,7 +13,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -95,6 +97,23 @@ public class DomainGraphDefinitionDecoratorTest {
     }
 
 
+    @Test
+    public void testGetChildReusesDecorator() throws Exception {
+        final String property1 = "property1";
+        DomainGraphDefinition child = new DomainGraphDefinitionImpl(DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        when(domainGraphDefinition.getChild(property1)).thenReturn(child);
+
+        DomainGraphDefinition childDef = domainGraphDefinitionDecorator.getChild(property1);
+        assertSame(childDef, domainGraphDefinitionDecorator.getChild(property1));
+        assertEquals("root." + property1, childDef.getName());
+
+        DomainGraphDefinition replacedChild = new DomainGraphDefinitionImpl(DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        when(domainGraphDefinition.getChild(property1)).thenReturn(replacedChild);
+        DomainGraphDefinition replacedChildDef = domainGraphDefinitionDecorator.getChild(property1);
+        assertNotSame(childDef, replacedChildDef);
+        assertSame(replacedChild, ((DomainGraphDefinitionDecorator) replacedChildDef).getUnderlyingDomainGraphDefinition());
+    }
+
     @Test
     public void testAddChild() throws Exception {
         String something1 = "something1";
@@ -0,0 +1,130 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertyKind;
+import com.knaptus.domainiser.core.impl.DomainGraphPlan.PropertySlot;
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DomainGraphPlanTest {
+
+    private static final ExampleDomainResolver DOMAIN_RESOLVER = new ExampleDomainResolver();
+
+    @Test
+    public void testCompile() throws Exception {
+        DomainGraphDefinition<Person> definition = new DomainGraphDefinitionBuilder<Person>(DOMAIN_RESOLVER, Person.class)
+                .withPathsDotNotation("spouse.addresses", "children", "friends")
+                .build();
+
+        DomainGraphPlan<Person> plan = DomainGraphPlan.compile(definition);
+        assertEquals(Person.class, plan.getDomainClass());
+        assertEquals("root", plan.getName());
+        assertEquals(6, plan.getAssociationCount());
+
+        PropertySlot spouse = slot(plan, "spouse");
+        assertEquals(PropertyKind.DOMAIN, spouse.getKind());
+        assertEquals("root.spouse", spouse.getChild().getName());
+        assertEquals(PropertyKind.SET, slot(spouse.getChild(), "addresses").getKind());
+        assertEquals(Address.class, slot(spouse.getChild(), "addresses").getChild().getDomainClass());
+        assertNull(slot(spouse.getChild(), "children").getChild());
+
+        assertEquals(PropertyKind.LIST, slot(plan, "children").getKind());
+        assertEquals(PropertyKind.MAP, slot(plan, "friends").getKind());
+        assertNull(slot(plan, "home").getChild());
+        assertEquals(PropertyKind.SIMPLE, slot(plan, "age").getKind());
+    }
+
+    @Test
+    public void testCompileCyclicDefinition() throws Exception {
+        DomainGraphDefinitionImpl<Person> definition = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        definition.addChild("spouse", definition);
+
+        DomainGraphPlan<Person> plan = DomainGraphPlan.compile(new DomainGraphDefinitionDecorator<Person>(definition));
+        assertNotNull(slot(plan, "spouse").getChild());
+        assertSame(plan, slot(plan, "spouse").getChild());
+    }
+
+    @Test
+    public void testCompileSharedDefinition() throws Exception {
+        DomainGraphDefinitionImpl<Person> definition = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        DomainGraphDefinitionImpl<Person> shared = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        shared.addChild("children", shared);
+        definition.addChild("spouse", shared);
+        definition.addChild("children", shared);
+
+        DomainGraphPlan<Person> plan = DomainGraphPlan.compile(definition);
+        DomainGraphPlan<?> spouse = slot(plan, "spouse").getChild();
+        assertEquals("root.spouse", spouse.getName());
+        assertEquals("root.children", slot(plan, "children").getChild().getName());
+        assertSame(spouse, slot(spouse, "children").getChild());
+    }
+
+    @Test
+    public void testCompileDefinitionSharedAtManyLevels() throws Exception {
+        // every level refers to the next one twice, which would expand into 2^levels plans
+        DomainGraphDefinitionImpl<Person> definition = new DomainGraphDefinitionImpl<Person>(
+                DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+        DomainGraphDefinitionImpl<Person> level = definition;
+        for (int i = 0; i < 30; i++) {
+            DomainGraphDefinitionImpl<Person> next = new DomainGraphDefinitionImpl<Person>(
+                    DomainDefinition.getInstance(Person.class, DOMAIN_RESOLVER));
+            level.addChild("spouse", next);
+            level.addChild("children", next);
+            level = next;
+        }
+
+        DomainGraphPlan<Person> plan = DomainGraphPlan.compile(definition);
+        Set<DomainGraphPlan<?>> plans = Collections.newSetFromMap(new IdentityHashMap<DomainGraphPlan<?>, Boolean>());
+        collectPlans(plan, plans);
+        assertTrue("Plans compiled: " + plans.size(), plans.size() <= 31 * DomainGraphPlan.MAX_PATH_PLANS);
+        assertEquals("root.spouse", slot(plan, "spouse").getChild().getName());
+        assertEquals("root.children", slot(plan, "children").getChild().getName());
+    }
+
+    @Test
+    public void testCompileImmutableDefinitionOnce() throws Exception {
+        DomainGraphDefinition<Person> definition = ImmutableDomainGraphDefinition.copyOf(
+                new DomainGraphDefinitionBuilder<Person>(DOMAIN_RESOLVER, Person.class)
+                        .withPathsDotNotation("spouse", "children")
+                        .build());
+
+        DomainGraphPlan<Person> plan = DomainGraphPlan.compile(definition);
+        assertSame(plan, DomainGraphPlan.compile(definition));
+        assertEquals("root.spouse", slot(plan, "spouse").getChild().getName());
+    }
+
+    private void collectPlans(DomainGraphPlan<?> plan, Set<DomainGraphPlan<?>> plans) {
+        if (plan == null || !plans.add(plan)) {
+            return;
+        }
+        for (int i = 0; i < plan.getAssociationCount(); i++) {
+            collectPlans(plan.getAssociationSlot(i).getChild(), plans);
+        }
+    }
+
+    private PropertySlot slot(DomainGraphPlan<?> plan, String property) {
+        return plan.getSlot(plan.getDomainDefinition().getPropertyIndex(property));
+    }
+}
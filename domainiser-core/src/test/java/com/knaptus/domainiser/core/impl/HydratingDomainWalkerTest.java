@@ -0,0 +1,203 @@
+package com.knaptus.domainiser.core.impl;
+
+import com.knaptus.domainiser.core.BatchLoader;
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.UnresolvedAssociation;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import com.knaptus.domainiser.monitor.AggregatingWalkListener;
+import com.knaptus.domainiser.monitor.PathStatistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class HydratingDomainWalkerTest {
+
+    private CountingBatchLoader batchLoader;
+
+    private HydratingDomainWalker hydratingDomainWalker;
+
+    private DomainGraphDefinitionImpl<Person> domainGraphDefinition;
+
+    @Before
+    public void setUp() throws Exception {
+        batchLoader = new CountingBatchLoader();
+        hydratingDomainWalker = new HydratingDomainWalker(batchLoader);
+        hydratingDomainWalker.setDomainResolver(new ExampleDomainResolver());
+
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, hydratingDomainWalker.getDomainResolver());
+        domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("spouse", domainGraphDefinition);
+        domainGraphDefinition.addChild("children", domainGraphDefinition);
+    }
+
+    @Test
+    public void testWalkLoadsOneBatchPerLevel() throws Exception {
+        Person dad = unloaded("Dad");
+        Person mom = unloaded("Mom");
+        Person child1 = unloaded("Child 1");
+        Person child2 = unloaded("Child 2");
+        batchLoader.store(dad, "spouse", mom);
+        batchLoader.store(dad, "children", new ArrayList<Person>(Arrays.asList(child1, child2)));
+        batchLoader.store(mom, "spouse", dad);
+        batchLoader.store(mom, "children", new ArrayList<Person>(Arrays.asList(child1, child2)));
+
+        Person person = hydratingDomainWalker.walk(dad, domainGraphDefinition);
+        assertSame(dad, person);
+        assertSame(mom, dad.getSpouse());
+        assertSame(dad, mom.getSpouse());
+        assertEquals(2, dad.getChildren().size());
+        assertSame(child1, mom.getChildren().get(0));
+        assertEquals(0, child1.getChildren().size());
+        assertNull(child1.getSpouse());
+        assertEquals("Dad, then mom and the children", 2, batchLoader.roundTrips);
+    }
+
+    @Test
+    public void testWalkListLoadsRootsTogether() throws Exception {
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 20; i++) {
+            Person person = unloaded("Person " + i);
+            batchLoader.store(person, "children", new ArrayList<Person>(Arrays.asList(unloaded("Child " + i))));
+            people.add(person);
+        }
+
+        List<Person> hydratedPeople = hydratingDomainWalker.walkList(people, domainGraphDefinition);
+        assertEquals(people, hydratedPeople);
+        for (Person person : people) {
+            assertEquals(1, person.getChildren().size());
+        }
+        assertEquals(2, batchLoader.roundTrips);
+    }
+
+    @Test
+    public void testWalkListener() throws Exception {
+        AggregatingWalkListener walkListener = new AggregatingWalkListener("test");
+        hydratingDomainWalker.setWalkListener(walkListener);
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 20; i++) {
+            Person person = unloaded("Person " + i);
+            batchLoader.store(person, "children", new ArrayList<Person>(Arrays.asList(unloaded("Child " + i))));
+            people.add(person);
+        }
+
+        hydratingDomainWalker.walkList(people, domainGraphDefinition);
+        // the definition is cyclic, children are walked with the plan of the root
+        PathStatistics rootStatistics = walkListener.getStatistics(WalkingPath.root());
+        assertEquals(40, rootStatistics.getNodeCount());
+        assertEquals("Roots and both levels of children lists", 41, rootStatistics.getCollectionCount());
+        assertEquals(40, rootStatistics.getCollectionElementCount());
+    }
+
+    @Test
+    public void testWalkListInForkJoinPoolLoadsRootsTogether() throws Exception {
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 20; i++) {
+            Person person = unloaded("Person " + i);
+            batchLoader.store(person, "children", new ArrayList<Person>(Arrays.asList(unloaded("Child " + i))));
+            people.add(person);
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            hydratingDomainWalker.setForkJoinPool(forkJoinPool);
+            hydratingDomainWalker.setParallelThreshold(5);
+            assertEquals(people, hydratingDomainWalker.walkList(people, domainGraphDefinition));
+            assertEquals(2, batchLoader.roundTrips);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWalkHydratesSharedModelsAsDeepAsAnyPath() throws Exception {
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, hydratingDomainWalker.getDomainResolver());
+        DomainGraphDefinitionImpl<Person> shallow = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        DomainGraphDefinitionImpl<Person> deep = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        deep.addChild("children", shallow);
+        DomainGraphDefinitionImpl<Person> children = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        children.addChild("spouse", deep);
+        DomainGraphDefinitionImpl<Person> root = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        root.addChild("spouse", shallow);
+        root.addChild("children", children);
+
+        Person dad = unloaded("Dad");
+        Person mom = unloaded("Mom");
+        Person child = unloaded("Child");
+        batchLoader.store(dad, "spouse", mom);
+        batchLoader.store(dad, "children", new ArrayList<Person>(Arrays.asList(child)));
+        batchLoader.store(child, "spouse", mom);
+        batchLoader.store(mom, "children", new ArrayList<Person>(Arrays.asList(unloaded("Grandchild"))));
+
+        hydratingDomainWalker.walk(dad, root);
+        assertSame(mom, child.getSpouse());
+        assertEquals("Mom reached by the shallow path first should be hydrated by the deep one", 1,
+                mom.getChildren().size());
+        assertEquals(3, batchLoader.roundTrips);
+    }
+
+    @Test
+    public void testWalkHydratesSubclasses() throws Exception {
+        // stands in for a proxy generated by an ORM library
+        Person proxy = new Person("Proxy", 0) {
+        };
+        proxy.setChildren(null);
+        batchLoader.store(proxy, "children", new ArrayList<Person>(Arrays.asList(unloaded("Child"))));
+
+        hydratingDomainWalker.walk(proxy, domainGraphDefinition);
+        assertEquals(1, proxy.getChildren().size());
+    }
+
+    private static Person unloaded(String name) {
+        Person person = new Person(name, 0);
+        person.setChildren(null);
+        return person;
+    }
+
+    /**
+     * In memory stand-in for a data source, null associations are unloaded.
+     */
+    private static class CountingBatchLoader implements BatchLoader {
+
+        private final Map<String, Object> associations = new HashMap<String, Object>();
+
+        private int roundTrips;
+
+        private void store(Person person, String property, Object value) {
+            associations.put(person.getName() + "." + property, value);
+        }
+
+        @Override
+        public boolean isLoaded(Object domainModel, String property, Object value) {
+            return value != null;
+        }
+
+        @Override
+        public void load(List<UnresolvedAssociation> unresolvedAssociations) {
+            roundTrips++;
+            for (UnresolvedAssociation association : unresolvedAssociations) {
+                Object value = associations.get(((Person) association.getDomainModel()).getName() + "." + association.getProperty());
+                if (value == null && List.class.equals(association.getPropertyClass())) {
+                    value = Collections.emptyList();
+                }
+                association.resolve(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.knaptus.domainiser.core.impl;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class WalkingPathTest {
+
+    @Test
+    public void testChildPath() throws Exception {
+        WalkingPath root = WalkingPath.root();
+        WalkingPath children = root.child("spouse").child("children");
+
+        assertEquals("root", root.toString());
+        assertNull(root.getParent());
+        assertEquals(0, root.getDepth());
+        assertEquals("root.spouse.children", children.toString());
+        assertEquals("children", children.getProperty());
+        assertEquals(2, children.getDepth());
+        assertSame(children.toString(), children.toString());
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        WalkingPath path = WalkingPath.root().child("spouse").child("children");
+        WalkingPath samePath = WalkingPath.root().child("spouse").child("children");
+
+        assertEquals(path, samePath);
+        assertEquals(path.hashCode(), samePath.hashCode());
+        assertTrue(!path.equals(WalkingPath.root().child("children").child("spouse")));
+        assertTrue(!path.equals(WalkingPath.root("other").child("spouse").child("children")));
+    }
+}
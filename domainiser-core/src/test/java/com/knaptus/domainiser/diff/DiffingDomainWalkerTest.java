@@ -0,0 +1,145 @@
+package com.knaptus.domainiser.diff;
+
+import com.knaptus.domainiser.clone.CloningDomainWalker;
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class DiffingDomainWalkerTest {
+
+    private DiffingDomainWalker diffingDomainWalker;
+
+    private CloningDomainWalker cloningDomainWalker;
+
+    private DomainGraphDefinition<Person> definition;
+
+    private Person dad;
+
+    @Before
+    public void setUp() throws Exception {
+        ExampleDomainResolver domainResolver = new ExampleDomainResolver();
+        diffingDomainWalker = new DiffingDomainWalker();
+        diffingDomainWalker.setDomainResolver(domainResolver);
+        cloningDomainWalker = new CloningDomainWalker();
+        cloningDomainWalker.setDomainResolver(domainResolver);
+        definition = new DomainGraphDefinitionBuilder<Person>(domainResolver, Person.class)
+                .withPathsDotNotation("spouse", "children", "friends")
+                .build();
+
+        dad = new Person("Dad", 50);
+        dad.setSpouse(new Person("Mom", 49));
+        dad.addChild(new Person("Child 1", 10));
+        dad.addChild(new Person("Child 2", 15));
+        dad.addFriend("Friend1", new Person("Friend1", 50));
+    }
+
+    @Test
+    public void testDiffIdenticalGraphs() throws Exception {
+        assertTrue(diffingDomainWalker.diff(dad, dad, definition).isEmpty());
+        // cloned children are only matched by key
+        diffingDomainWalker.setElementKey(Person.class, "name");
+        assertTrue(diffingDomainWalker.diff(dad, cloningDomainWalker.walk(dad, definition), definition).isEmpty());
+    }
+
+    @Test
+    public void testDiffModifiedProperties() throws Exception {
+        diffingDomainWalker.setElementKey(Person.class, "name");
+        Person copy = cloningDomainWalker.walk(dad, definition);
+        copy.setAge(51);
+        copy.getSpouse().setName("Mum");
+        copy.getFriends().get("Friend1").setAge(51);
+        copy.getFriends().remove("Friend1");
+        copy.addFriend("Friend2", new Person("Friend2", 40));
+
+        ChangeSet changeSet = diffingDomainWalker.diff(dad, copy, definition);
+        assertEquals(4, changeSet.size());
+        PropertyChange age = changeSet.getChange("root.age");
+        assertEquals(PropertyChange.Type.MODIFIED, age.getType());
+        assertEquals(50, age.getOldValue());
+        assertEquals(51, age.getNewValue());
+        assertEquals("Mum", changeSet.getChange("root.spouse.name").getNewValue());
+        assertEquals(PropertyChange.Type.REMOVED, changeSet.getChange("root.friends[Friend1]").getType());
+        assertEquals(PropertyChange.Type.ADDED, changeSet.getChange("root.friends[Friend2]").getType());
+    }
+
+    @Test
+    public void testDiffElementsByIdentity() throws Exception {
+        Person copy = cloningDomainWalker.walk(dad, definition);
+        copy.setChildren(dad.getChildren());
+        assertTrue(diffingDomainWalker.diff(dad, copy, definition).isEmpty());
+
+        copy = cloningDomainWalker.walk(dad, definition);
+        ChangeSet changeSet = diffingDomainWalker.diff(dad, copy, definition);
+        assertEquals(4, changeSet.size());
+        assertSame(copy.getChildren().get(0), changeSet.getChange("root.children[0]").getNewValue());
+        PropertyChange removed = changeSet.getChanges().get(3);
+        assertEquals(PropertyChange.Type.REMOVED, removed.getType());
+        assertEquals("root.children[1]", removed.getPath());
+        assertSame(dad.getChildren().get(1), removed.getOldValue());
+    }
+
+    @Test
+    public void testDiffElementsByKey() throws Exception {
+        diffingDomainWalker.setElementKey(Person.class, "name");
+        Person copy = cloningDomainWalker.walk(dad, definition);
+        copy.getChildren().get(0).setAge(11);
+        copy.getChildren().remove(1);
+        copy.addChild(new Person("Child 3", 1));
+
+        ChangeSet changeSet = diffingDomainWalker.diff(dad, copy, definition);
+        assertEquals(3, changeSet.size());
+        assertEquals(11, changeSet.getChange("root.children[Child 1].age").getNewValue());
+        assertEquals(PropertyChange.Type.ADDED, changeSet.getChange("root.children[Child 3]").getType());
+        assertEquals(PropertyChange.Type.REMOVED, changeSet.getChange("root.children[Child 2]").getType());
+        assertNull(changeSet.getChange("root.children[Child 1].name"));
+    }
+
+    @Test
+    public void testDiffCycles() throws Exception {
+        dad.getSpouse().setSpouse(dad);
+        DomainGraphDefinition<Person> spouses = new DomainGraphDefinitionBuilder<Person>(new ExampleDomainResolver(), Person.class)
+                .withPathsDotNotation("spouse.spouse.spouse")
+                .build();
+        Person copy = cloningDomainWalker.walk(dad, definition);
+        copy.getSpouse().setSpouse(copy);
+        copy.getSpouse().setAge(48);
+
+        ChangeSet changeSet = diffingDomainWalker.diff(dad, copy, spouses);
+        assertEquals(1, changeSet.size());
+        assertNotNull(changeSet.getChange("root.spouse.age"));
+    }
+
+    @Test
+    public void testDiffCycleAgainstLongerCycle() throws Exception {
+        DomainDefinition<Person> personDefinition = DomainDefinition.getInstance(Person.class, new ExampleDomainResolver());
+        DomainGraphDefinitionImpl<Person> spouses = new DomainGraphDefinitionImpl<Person>(personDefinition);
+        spouses.addChild("spouse", spouses);
+        Person single = new Person("Same", 50);
+        single.setSpouse(single);
+        Person husband = new Person("Same", 50);
+        Person wife = new Person("Same", 49);
+        husband.setSpouse(wife);
+        wife.setSpouse(husband);
+
+        // the old model is compared with both new models before the pairs repeat
+        ChangeSet changeSet = diffingDomainWalker.diff(single, husband, spouses);
+        assertEquals(1, changeSet.size());
+        assertNotNull(changeSet.getChange("root.spouse.age"));
+    }
+}
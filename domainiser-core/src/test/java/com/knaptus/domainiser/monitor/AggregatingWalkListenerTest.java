@@ -0,0 +1,84 @@
+package com.knaptus.domainiser.monitor;
+
+import com.knaptus.domainiser.clone.CloningDomainWalker;
+import com.knaptus.domainiser.core.DomainDefinition;
+import com.knaptus.domainiser.core.impl.DomainGraphDefinitionImpl;
+import com.knaptus.domainiser.core.impl.WalkingPath;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class AggregatingWalkListenerTest {
+
+    private CloningDomainWalker cloningDomainWalker;
+
+    private AggregatingWalkListener walkListener;
+
+    private DomainGraphDefinitionImpl<Person> domainGraphDefinition;
+
+    @Before
+    public void setUp() throws Exception {
+        cloningDomainWalker = new CloningDomainWalker();
+        cloningDomainWalker.setDomainResolver(new ExampleDomainResolver());
+        walkListener = new AggregatingWalkListener("test");
+        cloningDomainWalker.setWalkListener(walkListener);
+
+        DomainDefinition<Person> personDomainDefinition = DomainDefinition.getInstance(Person.class, cloningDomainWalker.getDomainResolver());
+        domainGraphDefinition = new DomainGraphDefinitionImpl<Person>(personDomainDefinition);
+        domainGraphDefinition.addChild("children", personDomainDefinition);
+    }
+
+    @Test
+    public void testStatisticsPerPath() throws Exception {
+        Person dad = new Person("Dad", 50);
+        dad.addChild(new Person("Child 1", 10));
+        dad.addChild(new Person("Child 2", 15));
+
+        cloningDomainWalker.walkList(Arrays.asList(dad, new Person("Mom", 49)), domainGraphDefinition);
+
+        PathStatistics rootStatistics = walkListener.getStatistics(WalkingPath.root());
+        assertEquals(2, rootStatistics.getNodeCount());
+        assertEquals(1, rootStatistics.getCollectionCount());
+        assertEquals(2, rootStatistics.getCollectionElementCount());
+        assertTrue(rootStatistics.getMaxTimeNanos() > 0);
+        assertTrue(rootStatistics.getPercentile99TimeNanos() >= rootStatistics.getMedianTimeNanos());
+
+        PathStatistics childrenStatistics = walkListener.getStatistics(WalkingPath.root().child("children"));
+        assertEquals(2, childrenStatistics.getNodeCount());
+        assertEquals("Both children lists should be counted", 2, childrenStatistics.getCollectionCount());
+        assertEquals(2, childrenStatistics.getCollectionElementCount());
+        assertEquals(2, walkListener.getAllStatistics().size());
+    }
+
+    @Test
+    public void testMBeans() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        walkListener.registerMBeans(mBeanServer);
+        try {
+            cloningDomainWalker.walk(new Person("Dad", 50), domainGraphDefinition);
+
+            ObjectName objectName = walkListener.getObjectName(WalkingPath.root());
+            assertTrue(mBeanServer.isRegistered(objectName));
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "NodeCount"));
+            assertEquals("root", mBeanServer.getAttribute(objectName, "Path"));
+        } finally {
+            walkListener.unregisterMBeans();
+        }
+        assertFalse(mBeanServer.isRegistered(walkListener.getObjectName(WalkingPath.root())));
+    }
+}
@@ -0,0 +1,145 @@
+package com.knaptus.domainiser.serialize;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class JsonWritingDomainWalkerTest {
+
+    private JsonWritingDomainWalker jsonWritingDomainWalker;
+
+    private DomainGraphDefinition<Person> definition;
+
+    private Person dad;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonWritingDomainWalker = new JsonWritingDomainWalker();
+        definition = new DomainGraphDefinitionBuilder<Person>(new ExampleDomainResolver(), Person.class)
+                .withPathsDotNotation("spouse.spouse", "spouse.children", "children", "friends")
+                .build();
+
+        dad = new Person("Dad", 50);
+        Person mom = new Person("Mom", 49);
+        dad.setSpouse(mom);
+        mom.setSpouse(dad);
+        Person child = new Person("Child", 10);
+        dad.addChild(child);
+        mom.addChild(child);
+        dad.addFriend("Friend", new Person("Friend", 51));
+    }
+
+    @Test
+    public void testToJsonTruncatingCycles() throws Exception {
+        JsonObject json = parse(jsonWritingDomainWalker.toJson(dad, definition));
+
+        assertEquals("Dad", json.get("name").getAsString());
+        assertEquals(50, json.get("age").getAsInt());
+        assertFalse("Associations outside the definition should not be written", json.has("home"));
+        assertFalse(json.has(JsonWritingDomainWalker.ID_PROPERTY));
+        JsonObject spouse = json.getAsJsonObject("spouse");
+        assertEquals("Mom", spouse.get("name").getAsString());
+        assertTrue("Cycles should be truncated", spouse.get("spouse").isJsonNull());
+        assertEquals("Shared domain models should be written again", "Child",
+                spouse.getAsJsonArray("children").get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals("Child", json.getAsJsonArray("children").get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals(51, json.getAsJsonObject("friends").getAsJsonObject("Friend").get("age").getAsInt());
+    }
+
+    @Test
+    public void testToJsonWithReferenceIds() throws Exception {
+        jsonWritingDomainWalker.setReferencePolicy(JsonWritingDomainWalker.ReferencePolicy.REFERENCE_IDS);
+        JsonObject json = parse(jsonWritingDomainWalker.toJson(dad, definition));
+
+        assertEquals(1, json.get(JsonWritingDomainWalker.ID_PROPERTY).getAsInt());
+        JsonObject spouse = json.getAsJsonObject("spouse");
+        assertEquals(1, spouse.getAsJsonObject("spouse").get(JsonWritingDomainWalker.REFERENCE_PROPERTY).getAsInt());
+        JsonObject sharedChild = spouse.getAsJsonArray("children").get(0).getAsJsonObject();
+        JsonObject child = json.getAsJsonArray("children").get(0).getAsJsonObject();
+        // the child is written in full where it is reached first and referred to where it is reached again
+        JsonObject written = child.has(JsonWritingDomainWalker.ID_PROPERTY) ? child : sharedChild;
+        JsonObject referred = written == child ? sharedChild : child;
+        assertEquals("Child", written.get("name").getAsString());
+        assertEquals(written.get(JsonWritingDomainWalker.ID_PROPERTY).getAsInt(),
+                referred.get(JsonWritingDomainWalker.REFERENCE_PROPERTY).getAsInt());
+    }
+
+    @Test
+    public void testWriteAll() throws Exception {
+        StringWriter writer = new StringWriter();
+        jsonWritingDomainWalker.writeAll(Arrays.asList(dad, dad.getSpouse(), null), definition, new JsonWriter(writer));
+
+        JsonArray json = new JsonParser().parse(writer.toString()).getAsJsonArray();
+        assertEquals(3, json.size());
+        assertEquals("Mom", json.get(1).getAsJsonObject().get("name").getAsString());
+        assertTrue(json.get(2).isJsonNull());
+    }
+
+    @Test
+    public void testToJsonNonFiniteNumbers() throws Exception {
+        DomainGraphDefinition<Measurement> measurementDefinition = new DomainGraphDefinitionBuilder<Measurement>(
+                new ExampleDomainResolver(), Measurement.class).build();
+        Measurement measurement = new Measurement();
+        measurement.setValue(Double.NaN);
+        measurement.setRatio(Float.NEGATIVE_INFINITY);
+
+        JsonObject json = parse(jsonWritingDomainWalker.toJson(measurement, measurementDefinition));
+        assertEquals("NaN", json.get("value").getAsString());
+        assertEquals("-Infinity", json.get("ratio").getAsString());
+
+        StringWriter writer = new StringWriter();
+        JsonWriter lenientWriter = new JsonWriter(writer);
+        lenientWriter.setLenient(true);
+        jsonWritingDomainWalker.write(measurement, measurementDefinition, lenientWriter);
+        assertTrue(writer.toString().contains(":NaN"));
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+
+    /**
+     * Domain model with floating point values.
+     */
+    public static class Measurement {
+
+        private Double value;
+
+        private float ratio;
+
+        public Double getValue() {
+            return value;
+        }
+
+        public void setValue(Double value) {
+            this.value = value;
+        }
+
+        public float getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(float ratio) {
+            this.ratio = ratio;
+        }
+    }
+}
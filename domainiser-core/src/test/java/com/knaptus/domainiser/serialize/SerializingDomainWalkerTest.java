@@ -0,0 +1,251 @@
+package com.knaptus.domainiser.serialize;
+
+import com.knaptus.domainiser.core.DomainGraphDefinition;
+import com.knaptus.domainiser.core.builder.DomainGraphDefinitionBuilder;
+import com.knaptus.domainiser.example.Address;
+import com.knaptus.domainiser.example.ExampleDomainResolver;
+import com.knaptus.domainiser.example.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Unit test
+ *
+ * @author Aditya Bhardwaj
+ */
+public class SerializingDomainWalkerTest {
+
+    private SerializingDomainWalker serializingDomainWalker;
+
+    private DomainGraphDefinition<Person> definition;
+
+    private Person dad;
+
+    @Before
+    public void setUp() throws Exception {
+        serializingDomainWalker = new SerializingDomainWalker();
+        definition = new DomainGraphDefinitionBuilder<Person>(new ExampleDomainResolver(), Person.class)
+                .withPathsDotNotation("spouse.children", "children", "friends", "home")
+                .build();
+
+        dad = new Person("Dad", 50);
+        Person mom = new Person("Mom", 49);
+        dad.setSpouse(mom);
+        mom.setSpouse(dad);
+        Person child = new Person("Child", 10);
+        dad.addChild(child);
+        mom.addChild(child);
+        dad.addFriend("Friend", new Person("Friend", 51));
+        Address home = new Address();
+        home.setLine1("home");
+        dad.setHome(home);
+        dad.setOffice(new Address());
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        Person copy = serializingDomainWalker.read(serializingDomainWalker.write(dad, definition), definition);
+
+        assertNotSame(dad, copy);
+        assertEquals("Dad", copy.getName());
+        assertEquals(50, copy.getAge());
+        assertEquals("Mom", copy.getSpouse().getName());
+        assertSame("Cyclic references should be restored", copy, copy.getSpouse().getSpouse());
+        assertEquals(1, copy.getChildren().size());
+        assertSame("Shared domain models should be restored", copy.getChildren().get(0),
+                copy.getSpouse().getChildren().get(0));
+        assertEquals(51, copy.getFriends().get("Friend").getAge());
+        assertEquals("home", copy.getHome().getLine1());
+        assertNull("Associations outside the definition should not be written", copy.getOffice());
+        assertTrue(copy.getChildren().get(0).getChildren().isEmpty());
+    }
+
+    @Test
+    public void testWriteAndReadStreams() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializingDomainWalker.write(dad, definition, output);
+        Person copy = serializingDomainWalker.read(new ByteArrayInputStream(output.toByteArray()), definition);
+        assertEquals("Child", copy.getChildren().get(0).getName());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        serializingDomainWalker.write(dad, definition, buffer);
+        assertEquals(output.size(), buffer.position());
+        buffer.flip();
+        copy = serializingDomainWalker.read(buffer, definition);
+        assertEquals("Friend", copy.getFriends().get("Friend").getName());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testReadGraphsFromOneStream() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializingDomainWalker.write(dad, definition, output);
+        serializingDomainWalker.write(dad.getSpouse(), definition, output);
+
+        InputStream input = new ByteArrayInputStream(output.toByteArray());
+        assertEquals("Dad", serializingDomainWalker.read(input, definition).getName());
+        assertEquals("Graphs should be read without reading ahead",
+                "Mom", serializingDomainWalker.read(input, definition).getName());
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    public void testJavaSerialization() throws Exception {
+        DomainGraphDefinition<Locality> localityDefinition = new DomainGraphDefinitionBuilder<Locality>(
+                new ExampleDomainResolver(), Locality.class).build();
+        Locality locality = new Locality();
+        locality.setLocale(Locale.FRANCE);
+        try {
+            serializingDomainWalker.write(locality, localityDefinition);
+            fail("Values needing Java serialization should be rejected by default");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        serializingDomainWalker.setJavaSerialization(true);
+        byte[] bytes = serializingDomainWalker.write(locality, localityDefinition);
+        assertEquals(Locale.FRANCE, serializingDomainWalker.read(bytes, localityDefinition).getLocale());
+
+        serializingDomainWalker.setJavaSerialization(false);
+        try {
+            serializingDomainWalker.read(bytes, localityDefinition);
+            fail("Serialized values should be rejected by default");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWriteAndReadEnums() throws Exception {
+        DomainGraphDefinition<Schedule> scheduleDefinition = new DomainGraphDefinitionBuilder<Schedule>(
+                new ExampleDomainResolver(), Schedule.class).withPathsDotNotation("people").build();
+        Schedule schedule = new Schedule();
+        schedule.setUnit(TimeUnit.HOURS);
+        schedule.getPeople().put(TimeUnit.DAYS, dad);
+        schedule.getPeople().put(TimeUnit.SECONDS, new Person("Child", 10));
+
+        Schedule copy = serializingDomainWalker.read(serializingDomainWalker.write(schedule, scheduleDefinition),
+                scheduleDefinition);
+        assertEquals(TimeUnit.HOURS, copy.getUnit());
+        assertTrue(copy.getPeople() instanceof EnumMap);
+        assertEquals(Arrays.asList(TimeUnit.SECONDS, TimeUnit.DAYS), new ArrayList<TimeUnit>(copy.getPeople().keySet()));
+        assertEquals("Dad", copy.getPeople().get(TimeUnit.DAYS).getName());
+    }
+
+    @Test
+    public void testReadReferenceOfAnotherClass() throws Exception {
+        DomainGraphDefinition<Person> homeDefinition = new DomainGraphDefinitionBuilder<Person>(
+                new ExampleDomainResolver(), Person.class).withPathsDotNotation("spouse", "home").build();
+        Person person = new Person("Dad", 50);
+        person.setSpouse(person);
+        person.setHome(new Address());
+        byte[] bytes = serializingDomainWalker.write(person, homeDefinition);
+        // point the reference of the spouse to the first person, at 0, to the address, at 1
+        byte[] reference = {2, 0, 0, 0, 0};
+        int index = indexOf(bytes, reference);
+        assertTrue(index >= 0);
+        assertEquals(-1, indexOf(Arrays.copyOfRange(bytes, index + 1, bytes.length), reference));
+        bytes[index + reference.length - 1] = 1;
+        try {
+            serializingDomainWalker.read(bytes, homeDefinition);
+            fail("References to domain models of another class should be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReadCorruptLength() throws Exception {
+        byte[] bytes = serializingDomainWalker.write(new Person("Dad", 50), definition);
+        // the length of the name precedes its bytes
+        int name = new String(bytes, "ISO-8859-1").indexOf("Dad");
+        ByteBuffer.wrap(bytes).putInt(name - 4, Integer.MAX_VALUE);
+        try {
+            serializingDomainWalker.read(bytes, definition);
+            fail("Lengths beyond the input should be rejected");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReadInvalidBytes() throws Exception {
+        try {
+            serializingDomainWalker.read(new byte[]{1, 2, 3, 4, 5, 6}, definition);
+            fail("Invalid bytes should be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(pattern, Arrays.copyOfRange(bytes, i, i + pattern.length))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Domain model with a simple value which is only written with Java serialization.
+     */
+    public static class Locality {
+
+        private Locale locale;
+
+        public Locale getLocale() {
+            return locale;
+        }
+
+        public void setLocale(Locale locale) {
+            this.locale = locale;
+        }
+    }
+
+    /**
+     * Domain model with an enum value and an enum keyed map of domain models.
+     */
+    public static class Schedule {
+
+        private TimeUnit unit;
+
+        private Map<TimeUnit, Person> people = new EnumMap<TimeUnit, Person>(TimeUnit.class);
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+
+        public Map<TimeUnit, Person> getPeople() {
+            return people;
+        }
+
+        public void setPeople(Map<TimeUnit, Person> people) {
+            this.people = people;
+        }
+    }
+}